@@ -1,19 +1,40 @@
 package com.releasescribe;
 
 import com.releasescribe.client.AnthropicReleaseNotesClient;
+import com.releasescribe.client.BatchQueue;
+import com.releasescribe.client.BatchRequest;
+import com.releasescribe.client.BatchResultListener;
+import com.releasescribe.client.FanOutReleaseNotesGenerator;
+import com.releasescribe.client.IncrementalReleaseNotesGenerator;
+import com.releasescribe.client.MapReduceReleaseNotesGenerator;
+import com.releasescribe.client.ModelRouter;
+import com.releasescribe.client.PullRequestSummarizer;
+import com.releasescribe.client.ReleaseNotesListener;
+import com.releasescribe.client.ResponseCache;
+import com.releasescribe.client.RetryPolicy;
+import com.releasescribe.collector.CommitFilter;
 import com.releasescribe.collector.GitHubCollector;
 import com.releasescribe.collector.GitCollector;
 import com.releasescribe.collector.ScmCollector;
+import com.releasescribe.collector.StreamingScmCollector;
 import com.releasescribe.config.ConfigLoader;
 import com.releasescribe.config.ReleaseScribeConfig;
 import com.releasescribe.model.Commit;
+import com.releasescribe.model.DependencyUpdate;
 import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.PullRequestField;
+import com.releasescribe.model.ReleaseDelta;
 import com.releasescribe.model.ReleaseNotes;
 import com.releasescribe.normalizer.DefaultNormalizer;
 import com.releasescribe.normalizer.Normalizer;
+import com.releasescribe.normalizer.PullRequestBodyCleaner;
+import com.releasescribe.normalizer.StreamingNormalizer;
 import com.releasescribe.prompt.PromptBuilder;
+import com.releasescribe.prompt.PullRequestReferences;
+import com.releasescribe.prompt.TokenEstimator;
 import com.releasescribe.publisher.ConfluencePublisher;
 import com.releasescribe.publisher.GitHubReleasePublisher;
+import com.releasescribe.publisher.PublicationScheduler;
 import com.releasescribe.publisher.Publisher;
 import com.releasescribe.publisher.SlackPublisher;
 import com.releasescribe.renderer.MarkdownRenderer;
@@ -27,11 +48,19 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
 
 @Command(
     name = "relnotes",
@@ -138,6 +167,79 @@ public class ReleaseScribe implements Callable<Integer> {
     )
     private boolean dryRun;
 
+    @Option(
+        names = {"--memory-budget"},
+        description = "Heap budget for collected commits (e.g. 256m, 1g); larger ranges spill to temporary files"
+    )
+    private String memoryBudget;
+
+    @Option(
+        names = {"--map-reduce"},
+        description = "Summarize shards of PRs by category and component concurrently, then merge them (for very large releases)",
+        defaultValue = "false"
+    )
+    private boolean mapReduce;
+
+    @Option(
+        names = {"--cache-dir"},
+        description = "Directory for cached model responses",
+        defaultValue = ".relnotes-cache"
+    )
+    private String cacheDir;
+
+    @Option(
+        names = {"--regenerate"},
+        description = "Ignore cached model responses and call the model again",
+        defaultValue = "false"
+    )
+    private boolean regenerate;
+
+    @Option(
+        names = {"--summarize-prs"},
+        description = "Summarize each PR once, keep the summaries across runs and send only those to the final call",
+        defaultValue = "false"
+    )
+    private boolean summarizePrs;
+
+    @Option(
+        names = {"--incremental"},
+        description = "Patch the release notes already in the output directory with only the PRs and commits added or removed since",
+        defaultValue = "false"
+    )
+    private boolean incremental;
+
+    @Option(
+        names = {"--fan-out"},
+        description = "Write each artifact (changelog, release notes, highlights, breaking changes) with its own concurrent call",
+        defaultValue = "false"
+    )
+    private boolean fanOut;
+
+    @Option(
+        names = {"--stream"},
+        description = "Stream the response; write each file and start publishers that need only some fields as soon as those are complete",
+        defaultValue = "false"
+    )
+    private boolean stream;
+
+    @Option(
+        names = {"--batch-file"},
+        description = "Add this range's prompt to a batch file instead of calling the model; send them all later with --submit-batch"
+    )
+    private String batchFile;
+
+    @Option(
+        names = {"--submit-batch"},
+        description = "Submit the requests in a batch file as one Message Batch, wait for it and write each result to its output directory"
+    )
+    private String submitBatchFile;
+
+    @Option(
+        names = {"--batch-id"},
+        description = "With --submit-batch, collect the results of this already submitted batch"
+    )
+    private String batchId;
+
     @Option(
         names = {"--verbose"},
         description = "Enable verbose output",
@@ -154,6 +256,11 @@ public class ReleaseScribe implements Callable<Integer> {
     public Integer call() throws Exception {
         System.out.println("ReleaseScribe - AI-powered release notes generator");
         
+        // Batch results carry their own repository and range
+        if (submitBatchFile != null) {
+            return submitBatch(Paths.get(submitBatchFile));
+        }
+        
         // Validate required parameters
         if (owner == null || repo == null) {
             System.err.println("Error: --owner and --repo are required");
@@ -167,17 +274,83 @@ public class ReleaseScribe implements Callable<Integer> {
         }
         
         // Initialize components
-        ScmCollector collector = createScmCollector();
-        Normalizer normalizer = new DefaultNormalizer();
-        PromptBuilder promptBuilder = new PromptBuilder();
-        AnthropicReleaseNotesClient anthropicClient = new AnthropicReleaseNotesClient(System.getenv("ANTHROPIC_API_KEY"));
+        CommitFilter commitFilter = CommitFilter.compile(config.getFilters());
+        Normalizer normalizer = new DefaultNormalizer(memoryBudget != null ? parseByteSize(memoryBudget) : 0);
+        PromptBuilder promptBuilder = new PromptBuilder(config.getLimits(), config.getAudiences());
+        
+        // Identical re-runs (e.g. after a failed publish) are answered from the response cache
+        ResponseCache responseCache = new ResponseCache(Paths.get(cacheDir), Duration.ofDays(30), 
+                64L * 1024 * 1024, regenerate);
+        // ANTHROPIC_BASE_URL points the client at another endpoint, such as a local stub
+        AnthropicReleaseNotesClient anthropicClient = new AnthropicReleaseNotesClient(System.getenv("ANTHROPIC_API_KEY"), 
+                System.getenv("ANTHROPIC_BASE_URL"), 0.1, 2000, responseCache);
+        PullRequestSummarizer summarizer = summarizePrs 
+                ? new PullRequestSummarizer(anthropicClient, Paths.get(cacheDir, "pr-summaries", owner + "-" + repo + ".json")) 
+                : null;
         Renderer renderer = new MarkdownRenderer();
+        Path outputPath = Paths.get(outDir);
+        IncrementalReleaseNotesGenerator incrementalGenerator = new IncrementalReleaseNotesGenerator(anthropicClient, 
+                promptBuilder, owner, repo, buildRangeDescription(), outputPath.resolve("relnotes-manifest.json"));
+        
+        // Collect only the pull request fields the later stages declare
+        Set<PullRequestField> prFields = EnumSet.noneOf(PullRequestField.class);
+        prFields.addAll(normalizer.requiredPullRequestFields());
+        prFields.addAll(promptBuilder.requiredPullRequestFields());
+        if (summarizer != null) {
+            prFields.addAll(summarizer.requiredPullRequestFields());
+        }
+        // Every run saves a manifest, so every run collects what the next incremental run compares
+        prFields.addAll(incrementalGenerator.requiredPullRequestFields());
+        ScmCollector collector = createScmCollector(commitFilter, prFields);
+        MapReduceReleaseNotesGenerator generator = mapReduce && batchFile == null 
+                ? new MapReduceReleaseNotesGenerator(anthropicClient, promptBuilder, owner, repo, buildRangeDescription()) 
+                : null;
+        
+        // Publishers are created up front, so that streamed runs can start them while rendering
+        PublicationScheduler publication = publishGitHubRelease || publishConfluence || publishSlack 
+                ? createPublicationScheduler() : null;
+        long startTime = System.currentTimeMillis();
+        ReleaseNotesListener artifactWriter = stream ? (field, notes) -> {
+            try {
+                renderer.renderField(field, notes, outputPath);
+            } catch (IOException e) {
+                // The full render at the end writes it again
+                System.err.println("Warning: failed to write " + field.getJsonName() + ": " + e.getMessage());
+            }
+            if (verbose) {
+                System.out.println("Completed " + field.getJsonName() + " after " 
+                        + (System.currentTimeMillis() - startTime) + " ms");
+            }
+        } : null;
         
         try {
-            // Collect data
+            // Collect data; when supported, commits are normalized page by page while PRs are collected
             System.out.println("Collecting pull requests and commits...");
-            List<PullRequest> pullRequests = collectPullRequests(collector);
-            List<Commit> commits = collectCommits(collector);
+            Flow.Publisher<List<Commit>> commitPages = streamCommitPages(collector, normalizer);
+            // In map-reduce mode, shards are summarized as soon as enough PRs have streamed in,
+            // unless they must wait for their per-PR summaries or may not be needed at all.
+            // The PRs are looked up from the same commit pages the normalizer reads.
+            CompletableFuture<List<PullRequest>> streamedPullRequests = commitPages != null && generator != null 
+                    && summarizer == null && !incremental 
+                    ? streamPullRequests((StreamingScmCollector) collector, normalizer, config, generator, commitPages) 
+                    : null;
+            // Under a memory budget, commits are sampled only once the PRs covering them are known
+            CompletableFuture<List<PullRequest>> collectedPullRequests = new CompletableFuture<>();
+            CompletableFuture<List<Commit>> streamedCommits = commitPages != null 
+                    ? ((StreamingNormalizer) normalizer).normalizeCommitStream(commitPages, 
+                            config.getConventions().getComponentPaths(), collectedPullRequests,
+                            ((StreamingScmCollector) collector).getMessageLoader()) 
+                    : null;
+            List<PullRequest> pullRequests;
+            try {
+                pullRequests = streamedPullRequests != null 
+                        ? await(streamedPullRequests, "pull requests") : collectPullRequests(collector);
+            } catch (RuntimeException e) {
+                collectedPullRequests.completeExceptionally(e);
+                throw e;
+            }
+            collectedPullRequests.complete(pullRequests);
+            List<Commit> commits = streamedCommits != null ? await(streamedCommits, "commits") : collectCommits(collector);
             
             if (pullRequests.isEmpty() && commits.isEmpty()) {
                 System.out.println("No pull requests or commits found in the specified range");
@@ -185,41 +358,143 @@ public class ReleaseScribe implements Callable<Integer> {
             }
             
             System.out.println("Found " + pullRequests.size() + " pull requests and " + commits.size() + " commits");
+            if (streamedCommits != null && ((StreamingNormalizer) normalizer).getOmittedCommitCount() > 0) {
+                System.out.println("Commits left out to stay within the memory budget: "
+                        + ((StreamingNormalizer) normalizer).getOmittedCommitCount());
+            }
+            if (verbose && commitFilter.isEnabled()) {
+                System.out.println("Commits pruned by filters: " + commitFilter.getPrunedCount());
+            }
             
             // Normalize data
             System.out.println("Normalizing and categorizing data...");
-            pullRequests = normalizer.normalizePullRequests(pullRequests, config.getLabelMapping(), 
-                    config.getConventions().getComponentPaths());
-            commits = normalizer.normalizeCommits(commits, config.getConventions().getComponentPaths());
+            if (streamedPullRequests == null) {
+                pullRequests = normalizer.normalizePullRequests(pullRequests, config.getLabelMapping(), 
+                        config.getConventions().getComponentPaths());
+            }
+            if (streamedCommits == null) {
+                commits = normalizer.normalizeCommits(commits, config.getConventions().getComponentPaths());
+            }
+            
+            if (verbose && normalizer instanceof DefaultNormalizer) {
+                PullRequestBodyCleaner bodyCleaner = ((DefaultNormalizer) normalizer).getBodyCleaner();
+                if (bodyCleaner.getRawChars() > 0) {
+                    System.out.println("PR body text after template stripping: " + bodyCleaner.getCleanedChars()
+                            + " of " + bodyCleaner.getRawChars() + " chars");
+                }
+            }
             
-            // Deduplicate
-            pullRequests = normalizer.deduplicatePullRequests(pullRequests);
-            commits = normalizer.deduplicateCommits(commits);
+            // Deduplicate (streamed items were deduplicated as they arrived)
+            if (streamedPullRequests == null) {
+                pullRequests = normalizer.deduplicatePullRequests(pullRequests);
+            }
+            if (streamedCommits == null) {
+                commits = normalizer.deduplicateCommits(commits);
+            }
+            
+            // Keep only commits not already covered by a PR
+            commits = normalizer.reconcileCommits(commits, pullRequests);
+            if (verbose) {
+                System.out.println("Orphan commits after reconciliation: " + commits.size());
+            }
+            
+            // Collapse dependency-bot bumps into one line per package
+            List<DependencyUpdate> dependencyUpdates = normalizer.aggregateDependencyUpdates(pullRequests);
+            pullRequests = normalizer.removeDependencyUpdates(pullRequests, dependencyUpdates);
+            if (verbose && !dependencyUpdates.isEmpty()) {
+                System.out.println("Aggregated dependency updates: " + dependencyUpdates.size());
+            }
+            
+            // Only PRs that are new or changed since an earlier run cost a model call
+            if (summarizer != null) {
+                System.out.println("Summarizing pull requests...");
+                summarizer.summarize(pullRequests);
+                if (verbose) {
+                    System.out.println("PR summaries reused: " + summarizer.getReusedCount() 
+                            + ", generated: " + summarizer.getGeneratedCount());
+                }
+            }
+            
+            // Queued prompts are sent later, together, by --submit-batch
+            if (batchFile != null) {
+                queueBatchRequest(Paths.get(batchFile), promptBuilder, config, pullRequests, commits, dependencyUpdates);
+                return 0;
+            }
+            
+            // Only the delta against the stored manifest is sent; null means a full generation is needed
+            ReleaseNotes releaseNotes = null;
+            if (incremental) {
+                System.out.println("Updating release notes from the stored manifest...");
+                releaseNotes = incrementalGenerator.generate(pullRequests, commits, dependencyUpdates);
+                ReleaseDelta delta = incrementalGenerator.getLastDelta();
+                if (releaseNotes == null) {
+                    System.out.println(delta == null ? "No stored manifest found; generating in full" 
+                            : "Too many changes (" + delta.size() + ") to patch; generating in full");
+                } else if (verbose) {
+                    System.out.println("Changes patched in: " + delta.size());
+                }
+            }
+            
+            if (releaseNotes == null && generator != null) {
+                // Streamed PRs were submitted as they arrived; dependency bumps were held back
+                if (streamedPullRequests == null) {
+                    pullRequests.forEach(generator::submit);
+                }
+                System.out.println("Generating release notes with Claude (map-reduce)...");
+                releaseNotes = generator.finish(config.getLabelMapping(), pullRequests, commits, dependencyUpdates);
+                if (verbose) {
+                    System.out.println("Shards summarized: " + generator.getShardCount());
+                }
+            } else if (releaseNotes == null && fanOut) {
+                try (FanOutReleaseNotesGenerator fanOutGenerator = new FanOutReleaseNotesGenerator(anthropicClient, 
+                        promptBuilder, config, owner, repo, buildRangeDescription())) {
+                    System.out.println("Generating release notes with Claude (fan-out)...");
+                    releaseNotes = fanOutGenerator.generate(pullRequests, commits, dependencyUpdates, artifactWriter);
+                }
+            } else if (releaseNotes == null) {
+                releaseNotes = generateReleaseNotes(anthropicClient, promptBuilder, config, 
+                        pullRequests, commits, dependencyUpdates, artifactWriter);
+            }
             
-            // Build prompts
-            String range = buildRangeDescription();
-            String systemPrompt = promptBuilder.buildSystemPrompt();
-            String userPrompt = promptBuilder.buildUserPrompt(owner, repo, range, 
-                    config.getLabelMapping(), pullRequests, commits);
+            // Not before the notes are final: a streamed attempt can fail after some of its fields
+            // are complete, and a post cannot be taken back. Unparsed output waits for the end.
+            if (publication != null && stream && !AnthropicReleaseNotesClient.isPlainTextFallback(releaseNotes)) {
+                publication.start(releaseNotes);
+            }
             
             if (verbose) {
-                System.out.println("System prompt length: " + systemPrompt.length());
-                System.out.println("User prompt length: " + userPrompt.length());
+                System.out.println("Model responses served from cache: " + responseCache.getHits());
+            }
+            long promptTokens = anthropicClient.getInputTokens() + anthropicClient.getCacheReadTokens() 
+                    + anthropicClient.getCacheWriteTokens();
+            if (promptTokens > 0) {
+                System.out.println("Input tokens: " + promptTokens + " (prompt cache: " 
+                        + anthropicClient.getCacheReadTokens() + " read, " 
+                        + anthropicClient.getCacheWriteTokens() + " written)");
             }
             
-            // Generate release notes
-            System.out.println("Generating release notes with Claude...");
-            ReleaseNotes releaseNotes = anthropicClient.generateReleaseNotesWithRetry(systemPrompt, userPrompt, 3);
+            // Every [#123] in the output must come from the compact prompt data
+            Set<Integer> unknownReferences = PullRequestReferences.findUnknown(releaseNotes, pullRequests, 
+                    commits, dependencyUpdates);
+            if (!unknownReferences.isEmpty()) {
+                System.out.println("Warning: release notes reference numbers not found in the input: "
+                        + unknownReferences.stream().map(number -> "#" + number).collect(Collectors.joining(", ")));
+            }
             
             // Render files
             System.out.println("Rendering output files...");
-            Path outputPath = Paths.get(outDir);
             renderer.render(releaseNotes, outputPath);
+            // Plain text kept from unparseable output is no base to patch; the next run starts over
+            if (AnthropicReleaseNotesClient.isPlainTextFallback(releaseNotes)) {
+                System.err.println("Warning: release notes are unparsed model output; manifest not updated");
+            } else {
+                incrementalGenerator.save(pullRequests, commits, dependencyUpdates, releaseNotes);
+            }
             
-            // Publish if requested
-            if (publishGitHubRelease || publishConfluence || publishSlack) {
+            // Publish if requested; publishers started while streaming are only awaited
+            if (publication != null) {
                 System.out.println("Publishing release notes...");
-                publishReleaseNotes(releaseNotes, config);
+                publication.publishRemaining(releaseNotes);
             }
             
             System.out.println("Release notes generated successfully!");
@@ -234,20 +509,155 @@ public class ReleaseScribe implements Callable<Integer> {
             }
             return 1;
         } finally {
+            if (generator != null) {
+                generator.close();
+            }
+            printRetryMetrics(anthropicClient.getRetryPolicy());
+            collector.close();
+            anthropicClient.close();
+        }
+    }
+    
+    private ReleaseNotes generateReleaseNotes(AnthropicReleaseNotesClient anthropicClient, PromptBuilder promptBuilder,
+                                              ReleaseScribeConfig config, List<PullRequest> pullRequests,
+                                              List<Commit> commits, List<DependencyUpdate> dependencyUpdates,
+                                              ReleaseNotesListener listener) {
+        // Build prompts
+        String range = buildRangeDescription();
+        String systemPrompt = promptBuilder.buildSystemPrompt(config.getLabelMapping());
+        String userPrompt = promptBuilder.buildUserPrompt(owner, repo, range, 
+                pullRequests, commits, dependencyUpdates);
+        
+        if (verbose) {
+            System.out.println("System prompt length: " + systemPrompt.length());
+            System.out.println("User prompt length: " + userPrompt.length()
+                    + " (~" + TokenEstimator.estimate(userPrompt) + " tokens)");
+        }
+        
+        // Generate release notes
+        System.out.println("Generating release notes with Claude...");
+        if (ModelRouter.isConfigured(config)) {
+            ModelRouter router = new ModelRouter(anthropicClient, config.getRouting(), config.getAudiences());
+            try {
+                int dataTokens = promptBuilder.estimateFullDataTokens(pullRequests, commits, dependencyUpdates);
+                return router.generate(systemPrompt, userPrompt, dataTokens, pullRequests, commits, 
+                        dependencyUpdates, listener);
+            } finally {
+                router.getDecisions().forEach(System.out::println);
+                router.getTierMillis().forEach((tier, millis) -> System.out.println("Tier " + tier + ": " 
+                        + router.getTierCalls().get(tier) + " call(s), " + millis + " ms"));
+            }
+        }
+        if (listener != null) {
+            return anthropicClient.generateReleaseNotesStreamingWithRetry(systemPrompt, userPrompt, listener, 3);
+        }
+        return anthropicClient.generateReleaseNotesWithRetry(systemPrompt, userPrompt, 3);
+    }
+    
+    private void queueBatchRequest(Path file, PromptBuilder promptBuilder, ReleaseScribeConfig config,
+                                   List<PullRequest> pullRequests, List<Commit> commits,
+                                   List<DependencyUpdate> dependencyUpdates) {
+        String range = buildRangeDescription();
+        BatchQueue queue = BatchQueue.load(file);
+        BatchRequest request = queue.add(owner, repo, range, outDir, 
+                promptBuilder.buildSystemPrompt(config.getLabelMapping()),
+                promptBuilder.buildUserPrompt(owner, repo, range, pullRequests, commits, dependencyUpdates));
+        queue.save(file);
+        System.out.println("Queued " + request.getCustomId() + " in " + file + " (" + queue.getRequests().size() 
+                + " requests); send them with --submit-batch " + file);
+    }
+    
+    private int submitBatch(Path file) throws IOException {
+        BatchQueue queue = BatchQueue.load(file);
+        if (queue.getRequests().isEmpty()) {
+            System.err.println("Error: no requests queued in " + file);
+            return 1;
+        }
+        ResponseCache responseCache = new ResponseCache(Paths.get(cacheDir), Duration.ofDays(30), 
+                64L * 1024 * 1024, regenerate);
+        AnthropicReleaseNotesClient anthropicClient = new AnthropicReleaseNotesClient(System.getenv("ANTHROPIC_API_KEY"), 
+                System.getenv("ANTHROPIC_BASE_URL"), 0.1, 2000, responseCache);
+        try {
+            if (batchId != null) {
+                queue.setBatchId(batchId);
+                queue.save(file);
+            }
+            // The id is saved before waiting, so an interrupted run resumes this batch
+            if (queue.getBatchId() == null) {
+                System.out.println("Submitting " + queue.getRequests().size() + " requests as a message batch...");
+                queue.setBatchId(anthropicClient.submitBatch(queue.getRequests()));
+                queue.save(file);
+            }
+            System.out.println("Waiting for batch " + queue.getBatchId() + "...");
+            anthropicClient.awaitBatch(queue.getBatchId());
+            
+            Renderer renderer = new MarkdownRenderer();
+            List<String> failures = new ArrayList<>();
+            anthropicClient.readBatchResults(queue.getBatchId(), queue.getRequests(), new BatchResultListener() {
+                @Override
+                public void succeeded(BatchRequest request, ReleaseNotes releaseNotes) {
+                    try {
+                        renderer.render(releaseNotes, Paths.get(request.getOutDir()));
+                        System.out.println("Wrote " + request.getOwner() + "/" + request.getRepo() + " " 
+                                + request.getRange() + " to " + request.getOutDir());
+                    } catch (IOException e) {
+                        failures.add(request.getCustomId() + ": " + e.getMessage());
+                    }
+                }
+                
+                @Override
+                public void failed(BatchRequest request, String reason) {
+                    failures.add(request.getCustomId() + ": " + reason);
+                }
+            });
+            
+            System.out.println("Input tokens: " + (anthropicClient.getInputTokens() + anthropicClient.getCacheReadTokens() 
+                    + anthropicClient.getCacheWriteTokens()) + " (prompt cache: " + anthropicClient.getCacheReadTokens() 
+                    + " read, " + anthropicClient.getCacheWriteTokens() + " written)");
+            for (String failure : failures) {
+                System.err.println("Batch request failed: " + failure);
+            }
+            return failures.isEmpty() ? 0 : 1;
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            if (verbose) {
+                e.printStackTrace();
+            }
+            return 1;
+        } finally {
+            printRetryMetrics(anthropicClient.getRetryPolicy());
             anthropicClient.close();
         }
     }
     
-    private ScmCollector createScmCollector() {
+    // Printed even when the run failed, since that is when retries matter most
+    private void printRetryMetrics(RetryPolicy retryPolicy) {
+        if (retryPolicy.getRetries() == 0 && retryPolicy.getRejectedCalls() == 0 
+                && (!verbose || retryPolicy.getAttempts() == 0)) {
+            return;
+        }
+        String reasons = retryPolicy.getRetriesByReason().entrySet().stream()
+                .map(entry -> entry.getKey().name().toLowerCase() + " " + entry.getValue())
+                .collect(Collectors.joining(", "));
+        System.out.println("Model calls: " + retryPolicy.getAttempts() + " attempts, " + retryPolicy.getRetries() 
+                + " retries" + (reasons.isEmpty() ? "" : " (" + reasons + ")") + ", waited " 
+                + retryPolicy.getWaitMillis() + " ms (" + retryPolicy.getRetryAfterWaits() + " set by retry-after)");
+        if (retryPolicy.getCircuitBreaker().getOpenCount() > 0) {
+            System.out.println("Circuit breaker opened " + retryPolicy.getCircuitBreaker().getOpenCount() 
+                    + " times; calls refused: " + retryPolicy.getRejectedCalls());
+        }
+    }
+    
+    private ScmCollector createScmCollector(CommitFilter commitFilter, Set<PullRequestField> prFields) {
         switch (provider.toLowerCase()) {
             case "github":
                 String githubToken = System.getenv("GITHUB_TOKEN");
                 if (githubToken == null) {
                     throw new IllegalStateException("GITHUB_TOKEN environment variable is required for GitHub provider");
                 }
-                return new GitHubCollector(githubToken);
+                return new GitHubCollector(githubToken, commitFilter, prFields);
             case "git":
-                return new GitCollector(".");
+                return new GitCollector(".", commitFilter);
             default:
                 throw new IllegalArgumentException("Unsupported provider: " + provider);
         }
@@ -281,6 +691,78 @@ public class ReleaseScribe implements Callable<Integer> {
         }
     }
     
+    private Flow.Publisher<List<Commit>> streamCommitPages(ScmCollector collector, Normalizer normalizer) {
+        if (!(collector instanceof StreamingScmCollector) || !(normalizer instanceof StreamingNormalizer)) {
+            return null;
+        }
+        StreamingScmCollector streamingCollector = (StreamingScmCollector) collector;
+        Flow.Publisher<List<Commit>> pages;
+        if (sinceTag != null && untilTag != null) {
+            pages = streamingCollector.streamCommitsByTags(owner, repo, sinceTag, untilTag);
+        } else if (sinceDate != null && untilDate != null) {
+            LocalDateTime since = LocalDateTime.parse(sinceDate + "T00:00:00");
+            LocalDateTime until = LocalDateTime.parse(untilDate + "T23:59:59");
+            pages = streamingCollector.streamCommits(owner, repo, since, until);
+        } else if (base != null && head != null) {
+            pages = streamingCollector.streamCommitsByRange(owner, repo, base, head);
+        } else {
+            throw new IllegalArgumentException("Must specify either --since-tag/--until-tag, --since/--until, or --base/--head");
+        }
+        if (verbose) {
+            System.out.println("Streaming commits through normalization");
+        }
+        return pages;
+    }
+    
+    private CompletableFuture<List<PullRequest>> streamPullRequests(StreamingScmCollector collector, Normalizer normalizer,
+                                                                    ReleaseScribeConfig config,
+                                                                    MapReduceReleaseNotesGenerator generator,
+                                                                    Flow.Publisher<List<Commit>> commitPages) {
+        // Only a date range filters PRs by merge date; tag and ref ranges take every PR found
+        LocalDateTime since = null;
+        LocalDateTime until = null;
+        if ((sinceTag == null || untilTag == null) && sinceDate != null && untilDate != null) {
+            since = LocalDateTime.parse(sinceDate + "T00:00:00");
+            until = LocalDateTime.parse(untilDate + "T23:59:59");
+        }
+        Flow.Publisher<List<PullRequest>> pages = collector.streamPullRequests(owner, repo, commitPages, since, until);
+        // Dependency bumps are aggregated once collection ends, so they skip the shards
+        return ((StreamingNormalizer) normalizer).normalizePullRequestStream(pages, config.getLabelMapping(),
+                config.getConventions().getComponentPaths(), pr -> {
+                    if (!normalizer.isDependencyUpdate(pr)) {
+                        generator.submit(pr);
+                    }
+                });
+    }
+    
+    private <T> T await(CompletableFuture<T> streamed, String what) {
+        try {
+            return streamed.join();
+        } catch (CompletionException e) {
+            // Surface the collector's own failure rather than the wrapper
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Failed to collect " + what, e.getCause());
+        }
+    }
+    
+    // Accepts plain bytes or a k/m/g suffix, e.g. "512m"
+    private static long parseByteSize(String size) {
+        String value = size.trim().toLowerCase();
+        long multiplier = 1;
+        if (value.endsWith("k") || value.endsWith("m") || value.endsWith("g")) {
+            char unit = value.charAt(value.length() - 1);
+            multiplier = unit == 'k' ? 1L << 10 : unit == 'm' ? 1L << 20 : 1L << 30;
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value) * multiplier;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid --memory-budget: " + size);
+        }
+    }
+    
     private String buildRangeDescription() {
         if (sinceTag != null && untilTag != null) {
             return sinceTag + ".." + untilTag;
@@ -293,7 +775,7 @@ public class ReleaseScribe implements Callable<Integer> {
         }
     }
     
-    private void publishReleaseNotes(ReleaseNotes releaseNotes, ReleaseScribeConfig config) throws IOException {
+    private PublicationScheduler createPublicationScheduler() {
         String version = untilTag != null ? untilTag : "unknown";
         String tag = untilTag != null ? untilTag : "unknown";
         
@@ -336,14 +818,7 @@ public class ReleaseScribe implements Callable<Integer> {
             }
         }
         
-        for (Publisher publisher : publishers) {
-            if (publisher.isConfigured()) {
-                System.out.println("Publishing to " + publisher.getName() + "...");
-                publisher.publish(releaseNotes, version, tag);
-            } else {
-                System.err.println("Warning: " + publisher.getName() + " publisher not configured");
-            }
-        }
+        return new PublicationScheduler(publishers, version, tag);
     }
 }
 
@@ -3,105 +3,544 @@ package com.releasescribe.client;
 import com.anthropic.client.AnthropicClient;
 import com.anthropic.client.okhttp.AnthropicOkHttpClient;
 import com.anthropic.core.JsonValue;
+import com.anthropic.core.http.StreamResponse;
+import com.anthropic.models.messages.CacheControlEphemeral;
 import com.anthropic.models.messages.Message;
 import com.anthropic.models.messages.MessageCreateParams;
+import com.anthropic.models.messages.RawMessageStreamEvent;
 import com.anthropic.models.messages.TextBlock;
+import com.anthropic.models.messages.TextBlockParam;
+import com.anthropic.models.messages.Usage;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.model.ReleaseNotesField;
+import com.releasescribe.prompt.TokenEstimator;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 public class AnthropicReleaseNotesClient {
     
+    /**
+     * Model used unless a call names another one
+     */
+    public static final String MODEL = "claude-opus-4-1-20250805";
+    
+    // Shortest system prompts the API caches, in tokens
+    private static final int MIN_CACHED_TOKENS = 1024;
+    private static final int MIN_CACHED_TOKENS_HAIKU = 2048;
+    
+    // Batches usually take minutes, so polls start slow and back off to this interval
+    private static final Duration FIRST_BATCH_POLL = Duration.ofSeconds(10);
+    private static final Duration MAX_BATCH_POLL = Duration.ofMinutes(5);
+    
     private final AnthropicClient client;
     private final ObjectMapper objectMapper;
     private final double temperature;
     private final int maxTokens;
+    private final ResponseCache cache;
+    private final MessageBatchApi batchApi;
+    private final RetryPolicy retryPolicy;
+    
+    // Token usage reported by the API, guarded by this
+    private long inputTokens;
+    private long cacheReadTokens;
+    private long cacheWriteTokens;
+    private long outputTokens;
     
     public AnthropicReleaseNotesClient(String apiKey) {
         this(apiKey, 0.1, 2000);
     }
     
     public AnthropicReleaseNotesClient(String apiKey, double temperature, int maxTokens) {
-        this.client = AnthropicOkHttpClient.builder()
+        this(apiKey, temperature, maxTokens, null);
+    }
+    
+    /**
+     * Client that answers repeated requests from {@code cache}; null disables caching
+     */
+    public AnthropicReleaseNotesClient(String apiKey, ResponseCache cache) {
+        this(apiKey, 0.1, 2000, cache);
+    }
+    
+    public AnthropicReleaseNotesClient(String apiKey, double temperature, int maxTokens, ResponseCache cache) {
+        this(apiKey, null, temperature, maxTokens, cache);
+    }
+    
+    /**
+     * Client sending requests to {@code baseUrl}, such as a local stub endpoint; null means the
+     * public API
+     */
+    public AnthropicReleaseNotesClient(String apiKey, String baseUrl, double temperature, int maxTokens,
+                                       ResponseCache cache) {
+        // Retries are left to the retry policy, which counts them
+        AnthropicOkHttpClient.Builder builder = AnthropicOkHttpClient.builder()
                 .apiKey(apiKey)
-                .build();
+                .maxRetries(0);
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            builder.baseUrl(baseUrl);
+        }
+        this.client = builder.build();
         this.objectMapper = new ObjectMapper();
         this.temperature = temperature;
         this.maxTokens = maxTokens;
+        this.cache = cache;
+        this.batchApi = new MessageBatchApi(apiKey, baseUrl);
+        this.retryPolicy = new RetryPolicy();
     }
     
     public ReleaseNotes generateReleaseNotes(String systemPrompt, String userPrompt) {
+        return generateReleaseNotes(MODEL, systemPrompt, userPrompt, true);
+    }
+    
+    // Unless lenient, output that is not valid JSON throws instead of being kept as plain text
+    private ReleaseNotes generateReleaseNotes(String model, String systemPrompt, String userPrompt, boolean lenient) {
+        String key = cache != null ? ResponseCache.key(model, temperature, maxTokens, systemPrompt, userPrompt) : null;
+        if (key != null) {
+            ResponseCache.Entry entry = cache.get(key);
+            if (entry != null && entry.getReleaseNotes() != null) {
+                return entry.getReleaseNotes();
+            }
+        }
+        
         try {
-            MessageCreateParams params = MessageCreateParams.builder()
-                    .model("claude-opus-4-1-20250805")
-                    .maxTokens(maxTokens)
-                    .temperature(temperature)
-                    .system(systemPrompt)
-                    .addUserMessage(userPrompt)
-                    .build();
-            
-            Message response = client.messages().create(params);
-            
-            // Extract the content from the response
-            if (response.content() == null || response.content().isEmpty()) {
-                throw new RuntimeException("No content in Anthropic response");
+            return toReleaseNotes(requestText(model, systemPrompt, userPrompt, maxTokens), key, lenient);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate release notes", e);
+        }
+    }
+    
+    // Parse a complete response, caching it under key unless that is null
+    private ReleaseNotes toReleaseNotes(String text, String key, boolean lenient) {
+        // Clean up the text to remove markdown code blocks
+        String cleanText = text.replaceAll("```json\\s*", "").replaceAll("```\\s*", "").trim();
+        
+        // Additional cleanup for any remaining markdown artifacts
+        if (cleanText.startsWith("```") && cleanText.endsWith("```")) {
+            cleanText = cleanText.substring(3, cleanText.length() - 3).trim();
+        }
+        
+        // Try to parse as JSON first
+        try {
+            ReleaseNotes releaseNotes = parseReleaseNotes(cleanText);
+            if (key != null) {
+                cache.put(key, text, releaseNotes);
             }
-            
-            TextBlock textBlock = response.content().get(0).text().orElse(null);
-            if (textBlock == null) {
-                throw new RuntimeException("No text content in response");
+            return releaseNotes;
+        } catch (Exception e) {
+            if (!lenient) {
+                throw new RetryPolicy.MalformedOutputException("Failed to parse JSON response: " + e.getMessage(), text, e);
             }
-            String text = textBlock.text();
-            
-            // Clean up the text to remove markdown code blocks
-            String cleanText = text.replaceAll("```json\\s*", "").replaceAll("```\\s*", "").trim();
-            
-            // Additional cleanup for any remaining markdown artifacts
-            if (cleanText.startsWith("```") && cleanText.endsWith("```")) {
-                cleanText = cleanText.substring(3, cleanText.length() - 3).trim();
+            System.err.println("Failed to parse JSON response: " + e.getMessage());
+            System.err.println("Raw response: " + text);
+            // If not JSON, create a simple release notes object
+            return createSimpleReleaseNotes(text);
+        }
+    }
+    
+    /**
+     * Submit {@code requests} as one Message Batch and return its id. Batched requests are
+     * billed at a discount and do not count against the per-minute rate limits.
+     */
+    public String submitBatch(List<BatchRequest> requests) {
+        ArrayNode items = objectMapper.createArrayNode();
+        for (BatchRequest request : requests) {
+            ObjectNode item = items.addObject();
+            item.put("custom_id", request.getCustomId());
+            ObjectNode params = item.putObject("params");
+            params.put("model", MODEL);
+            params.put("max_tokens", maxTokens);
+            params.put("temperature", temperature);
+            // Same cache breakpoint as a direct call: requests with one configuration share the prefix
+            ObjectNode system = params.putArray("system").addObject()
+                    .put("type", "text")
+                    .put("text", request.getSystemPrompt());
+            if (isCacheable(MODEL, request.getSystemPrompt())) {
+                system.putObject("cache_control").put("type", "ephemeral");
             }
-            
-            // Try to parse as JSON first
+            params.putArray("messages").addObject()
+                    .put("role", "user")
+                    .put("content", request.getUserPrompt());
+        }
+        // Creating a batch is not idempotent: after a dropped connection the batch may exist
+        // already, and sending the request again could create a second one
+        try {
+            return retryPolicy.execute("submit message batch", 3, 
+                    EnumSet.complementOf(EnumSet.of(RetryPolicy.Reason.NETWORK)), () -> {
+                try {
+                    return batchApi.create(items);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (RetryPolicy.classify(e) == RetryPolicy.Reason.NETWORK) {
+                throw new RuntimeException("Failed to submit message batch: the connection failed, so the batch "
+                        + "may have been created; look for it in the Console and collect it with --batch-id "
+                        + "before submitting again", e);
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Poll until the batch has ended, waiting longer between polls each time; works for any
+     * batch id, including one submitted by an earlier run
+     */
+    public void awaitBatch(String batchId) {
+        Duration wait = FIRST_BATCH_POLL;
+        while (true) {
+            JsonNode batch = retrieveBatch(batchId);
+            if ("ended".equals(batch.path("processing_status").asText())) {
+                return;
+            }
+            JsonNode counts = batch.path("request_counts");
+            System.out.println("Batch " + batchId + " " + batch.path("processing_status").asText() 
+                    + ": " + counts.path("processing").asInt() + " processing, " 
+                    + counts.path("succeeded").asInt() + " succeeded, " + counts.path("errored").asInt() + " errored");
             try {
-                return parseReleaseNotes(cleanText);
-            } catch (Exception e) {
-                System.err.println("Failed to parse JSON response: " + e.getMessage());
-                System.err.println("Raw response: " + text);
-                // If not JSON, create a simple release notes object
-                return createSimpleReleaseNotes(text);
+                Thread.sleep(wait.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for message batch " + batchId, e);
+            }
+            wait = wait.multipliedBy(3).dividedBy(2);
+            if (wait.compareTo(MAX_BATCH_POLL) > 0) {
+                wait = MAX_BATCH_POLL;
             }
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate release notes", e);
         }
     }
     
-    public ReleaseNotes generateReleaseNotesWithRetry(String systemPrompt, String userPrompt, int maxRetries) {
-        Exception lastException = null;
-        
-        for (int i = 0; i < maxRetries; i++) {
+    private JsonNode retrieveBatch(String batchId) {
+        return retryPolicy.execute("poll message batch " + batchId, 3, () -> {
             try {
-                return generateReleaseNotes(systemPrompt, userPrompt);
-            } catch (Exception e) {
-                lastException = e;
-                System.err.println("Attempt " + (i + 1) + " failed: " + e.getMessage());
-                
-                if (i < maxRetries - 1) {
-                    try {
-                        Thread.sleep(1000 * (i + 1)); // Exponential backoff
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Interrupted during retry", ie);
+                return batchApi.retrieve(batchId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    /**
+     * Stream the results of an ended batch to {@code listener}, matched to {@code requests} by
+     * custom id; successful results are also stored in the response cache
+     */
+    public void readBatchResults(String batchId, List<BatchRequest> requests, BatchResultListener listener) {
+        Map<String, BatchRequest> byCustomId = new HashMap<>();
+        for (BatchRequest request : requests) {
+            byCustomId.put(request.getCustomId(), request);
+        }
+        try {
+            String resultsUrl = retrieveBatch(batchId).path("results_url").asText(null);
+            if (resultsUrl == null) {
+                throw new RuntimeException("Message batch " + batchId + " has no results yet");
+            }
+            batchApi.results(resultsUrl, line -> {
+                BatchRequest request = byCustomId.get(line.path("custom_id").asText());
+                if (request == null) {
+                    System.err.println("Warning: batch result for unknown request " + line.path("custom_id").asText());
+                    return;
+                }
+                JsonNode result = line.path("result");
+                if (!"succeeded".equals(result.path("type").asText())) {
+                    String reason = result.path("type").asText();
+                    if (result.has("error")) {
+                        reason += ": " + result.path("error").path("error").path("message").asText(result.path("error").toString());
                     }
+                    listener.failed(request, reason);
+                    return;
+                }
+                JsonNode message = result.path("message");
+                JsonNode usage = message.path("usage");
+                recordUsage(usage.path("input_tokens").asLong(), usage.path("cache_read_input_tokens").asLong(),
+                        usage.path("cache_creation_input_tokens").asLong(), usage.path("output_tokens").asLong());
+                StringBuilder text = new StringBuilder();
+                for (JsonNode block : message.path("content")) {
+                    if ("text".equals(block.path("type").asText())) {
+                        text.append(block.path("text").asText());
+                    }
+                }
+                String key = cache != null ? ResponseCache.key(MODEL, temperature, maxTokens, 
+                        request.getSystemPrompt(), request.getUserPrompt()) : null;
+                listener.succeeded(request, toReleaseNotes(text.toString(), key, true));
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read message batch results", e);
+        }
+    }
+    
+    /**
+     * Send one message and return the text of the first content block
+     */
+    public String generateText(String systemPrompt, String userPrompt) {
+        return generateText(systemPrompt, userPrompt, maxTokens);
+    }
+    
+    /**
+     * Send one message with its own output limit, for calls that write one part of the notes
+     */
+    public String generateText(String systemPrompt, String userPrompt, int maxTokens) {
+        return generateText(systemPrompt, userPrompt, maxTokens, text -> text);
+    }
+    
+    /**
+     * Send one message and return {@code parse} of its text. The text is only cached once it
+     * parses, so a response {@code parse} rejects with a {@link RetryPolicy.MalformedOutputException}
+     * is asked for again on retry instead of replayed from the cache.
+     */
+    <T> T generateText(String systemPrompt, String userPrompt, int maxTokens, Function<String, T> parse) {
+        String key = cache != null ? ResponseCache.key(MODEL, temperature, maxTokens, systemPrompt, userPrompt) : null;
+        if (key != null) {
+            ResponseCache.Entry entry = cache.get(key);
+            if (entry != null) {
+                try {
+                    return parse.apply(entry.getText());
+                } catch (RetryPolicy.MalformedOutputException e) {
+                    // Cached before it was checked; ask again
                 }
             }
         }
         
-        throw new RuntimeException("Failed to generate release notes after " + maxRetries + " attempts", lastException);
+        String text = requestText(MODEL, systemPrompt, userPrompt, maxTokens);
+        T result = parse.apply(text);
+        if (key != null) {
+            cache.put(key, text, null);
+        }
+        return result;
+    }
+    
+    // One uncached call to the model
+    private String requestText(String model, String systemPrompt, String userPrompt, int maxTokens) {
+        Message response = client.messages().create(buildParams(model, systemPrompt, userPrompt, maxTokens));
+        recordUsage(response.usage());
+        
+        // Extract the content from the response
+        if (response.content() == null || response.content().isEmpty()) {
+            throw new RuntimeException("No content in Anthropic response");
+        }
+        
+        TextBlock textBlock = response.content().get(0).text().orElse(null);
+        if (textBlock == null) {
+            throw new RuntimeException("No text content in response");
+        }
+        return textBlock.text();
+    }
+    
+    /**
+     * Stream the response and tell {@code listener} about each field as soon as it is complete,
+     * long before the whole response has arrived
+     */
+    public ReleaseNotes generateReleaseNotesStreaming(String systemPrompt, String userPrompt, 
+                                                      ReleaseNotesListener listener) {
+        return generateReleaseNotesStreaming(MODEL, systemPrompt, userPrompt, listener, true);
+    }
+    
+    private ReleaseNotes generateReleaseNotesStreaming(String model, String systemPrompt, String userPrompt, 
+                                                       ReleaseNotesListener listener, boolean lenient) {
+        String key = cache != null ? ResponseCache.key(model, temperature, maxTokens, systemPrompt, userPrompt) : null;
+        if (key != null) {
+            ResponseCache.Entry entry = cache.get(key);
+            if (entry != null && entry.getReleaseNotes() != null) {
+                for (ReleaseNotesField field : ReleaseNotesField.values()) {
+                    listener.fieldCompleted(field, entry.getReleaseNotes());
+                }
+                return entry.getReleaseNotes();
+            }
+        }
+        
+        StringBuilder text = new StringBuilder();
+        StreamingReleaseNotesParser parser = new StreamingReleaseNotesParser(listener);
+        try (StreamResponse<RawMessageStreamEvent> stream = client.messages().createStreaming(
+                buildParams(model, systemPrompt, userPrompt, maxTokens))) {
+            stream.stream().forEach(event -> {
+                event.messageStart().ifPresent(start -> recordUsage(start.message().usage()));
+                event.messageDelta().ifPresent(delta -> recordOutputTokens(delta.usage().outputTokens()));
+                event.contentBlockDelta().flatMap(delta -> delta.delta().text()).ifPresent(delta -> {
+                    text.append(delta.text());
+                    parser.feed(delta.text());
+                });
+            });
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate release notes", e);
+        }
+        
+        ReleaseNotes releaseNotes = parser.finish();
+        if (releaseNotes == null) {
+            if (!lenient) {
+                throw new RetryPolicy.MalformedOutputException("Failed to parse streamed JSON response", 
+                        text.toString(), null);
+            }
+            System.err.println("Failed to parse streamed JSON response");
+            System.err.println("Raw response: " + text);
+            return createSimpleReleaseNotes(text.toString());
+        }
+        if (key != null) {
+            cache.put(key, text.toString(), releaseNotes);
+        }
+        return releaseNotes;
+    }
+    
+    public String generateTextWithRetry(String systemPrompt, String userPrompt, int maxRetries) {
+        return generateTextWithRetry(systemPrompt, userPrompt, maxTokens, maxRetries);
+    }
+    
+    public String generateTextWithRetry(String systemPrompt, String userPrompt, int maxTokens, int maxRetries) {
+        return retryPolicy.execute("generate text", maxRetries, 
+                () -> generateText(systemPrompt, userPrompt, maxTokens));
+    }
+    
+    /**
+     * Generate text within the client's output limit and {@code parse} it, retrying as below
+     */
+    <T> T generateTextWithRetry(String systemPrompt, String userPrompt, int maxRetries, 
+                                Function<String, T> parse) {
+        return generateTextWithRetry(systemPrompt, userPrompt, maxTokens, maxRetries, parse);
+    }
+    
+    /**
+     * Generate text and {@code parse} it, retrying failed calls and text {@code parse} rejects
+     * with a {@link RetryPolicy.MalformedOutputException}
+     */
+    <T> T generateTextWithRetry(String systemPrompt, String userPrompt, int maxTokens, int maxRetries,
+                                Function<String, T> parse) {
+        return retryPolicy.execute("generate text", maxRetries, 
+                () -> generateText(systemPrompt, userPrompt, maxTokens, parse));
+    }
+    
+    /**
+     * Generate release notes, retrying failed calls and output that is not valid JSON; if every
+     * attempt returns unparseable output, the last one is kept as plain text
+     */
+    public ReleaseNotes generateReleaseNotesWithRetry(String systemPrompt, String userPrompt, int maxRetries) {
+        return generateReleaseNotesWithRetry(MODEL, systemPrompt, userPrompt, maxRetries);
+    }
+    
+    /**
+     * Generate release notes with {@code model} instead of the default one
+     */
+    public ReleaseNotes generateReleaseNotesWithRetry(String model, String systemPrompt, String userPrompt, 
+                                                      int maxRetries) {
+        try {
+            return retryPolicy.execute("generate release notes", maxRetries, 
+                    () -> generateReleaseNotes(model, systemPrompt, userPrompt, false));
+        } catch (RuntimeException e) {
+            return fallBackToText(e);
+        }
+    }
+    
+    public ReleaseNotes generateReleaseNotesStreamingWithRetry(String systemPrompt, String userPrompt, 
+                                                               ReleaseNotesListener listener, int maxRetries) {
+        return generateReleaseNotesStreamingWithRetry(MODEL, systemPrompt, userPrompt, listener, maxRetries);
+    }
+    
+    public ReleaseNotes generateReleaseNotesStreamingWithRetry(String model, String systemPrompt, String userPrompt, 
+                                                               ReleaseNotesListener listener, int maxRetries) {
+        try {
+            // Fields completed by a failed attempt are reported again by the next one
+            return retryPolicy.execute("generate release notes", maxRetries, 
+                    () -> generateReleaseNotesStreaming(model, systemPrompt, userPrompt, listener, false));
+        } catch (RuntimeException e) {
+            return fallBackToText(e);
+        }
+    }
+    
+    private ReleaseNotes fallBackToText(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetryPolicy.MalformedOutputException) {
+                String text = ((RetryPolicy.MalformedOutputException) cause).getText();
+                System.err.println("Raw response: " + text);
+                return createSimpleReleaseNotes(text);
+            }
+        }
+        throw e;
+    }
+    
+    /**
+     * Retry policy shared by every call of this client, with its retry and wait counts
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+    
+    // The system prompt holds everything that does not depend on the release and is marked as
+    // a cache breakpoint when it is long enough to be cached; the user message after it carries
+    // the release data
+    private MessageCreateParams buildParams(String model, String systemPrompt, String userPrompt, int maxTokens) {
+        TextBlockParam.Builder system = TextBlockParam.builder().text(systemPrompt);
+        if (isCacheable(model, systemPrompt)) {
+            system.cacheControl(CacheControlEphemeral.builder().build());
+        }
+        return MessageCreateParams.builder()
+                .model(model)
+                .maxTokens(maxTokens)
+                .temperature(temperature)
+                .systemOfTextBlockParams(List.of(system.build()))
+                .addUserMessage(userPrompt)
+                .build();
+    }
+    
+    /**
+     * Whether {@code systemPrompt} reaches the shortest prefix {@code model} caches: 2048 tokens
+     * for Haiku models, 1024 for the others. A shorter prompt is not marked, since the API would
+     * ignore the mark.
+     */
+    static boolean isCacheable(String model, String systemPrompt) {
+        int minimum = model != null && model.contains("haiku") ? MIN_CACHED_TOKENS_HAIKU : MIN_CACHED_TOKENS;
+        return TokenEstimator.estimate(systemPrompt) >= minimum;
+    }
+    
+    /**
+     * Input tokens processed without the prompt cache in this run
+     */
+    public synchronized long getInputTokens() {
+        return inputTokens;
+    }
+    
+    /**
+     * Input tokens read from the prompt cache in this run
+     */
+    public synchronized long getCacheReadTokens() {
+        return cacheReadTokens;
+    }
+    
+    /**
+     * Input tokens written to the prompt cache in this run
+     */
+    public synchronized long getCacheWriteTokens() {
+        return cacheWriteTokens;
+    }
+    
+    public synchronized long getOutputTokens() {
+        return outputTokens;
+    }
+    
+    private void recordUsage(Usage usage) {
+        if (usage != null) {
+            recordUsage(usage.inputTokens(), usage.cacheReadInputTokens().orElse(0L), 
+                    usage.cacheCreationInputTokens().orElse(0L), usage.outputTokens());
+        }
+    }
+    
+    private synchronized void recordUsage(long input, long cacheRead, long cacheWrite, long output) {
+        inputTokens += input;
+        cacheReadTokens += cacheRead;
+        cacheWriteTokens += cacheWrite;
+        outputTokens += output;
+    }
+    
+    // Streamed responses report input usage at the start and the output count at the end
+    private synchronized void recordOutputTokens(long tokens) {
+        outputTokens += tokens;
     }
     
     private ReleaseNotes parseReleaseNotes(String json) {
@@ -123,6 +562,16 @@ public class AnthropicReleaseNotesClient {
         }
     }
     
+    /**
+     * Whether {@code releaseNotes} is output that could not be parsed, kept as the same text in
+     * every field
+     */
+    public static boolean isPlainTextFallback(ReleaseNotes releaseNotes) {
+        return releaseNotes.getChangelogMd() != null
+                && releaseNotes.getChangelogMd().equals(releaseNotes.getReleaseNotesMd())
+                && releaseNotes.getChangelogMd().equals(releaseNotes.getCustomerHighlightsMd());
+    }
+    
     private ReleaseNotes createSimpleReleaseNotes(String text) {
         // If the response is not JSON, create a simple release notes object
         // Clean up the text to remove JSON artifacts
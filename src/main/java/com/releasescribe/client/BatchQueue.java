@@ -0,0 +1,90 @@
+package com.releasescribe.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File of release notes generations waiting to be sent as one Message Batch. Runs for several
+ * ranges or repositories each add their request; one submitting run sends them all. The batch
+ * id is written back as soon as the batch is created, so a restarted run resumes polling that
+ * batch instead of submitting it again.
+ */
+public class BatchQueue {
+
+    // Message Batches allow letters, digits, "-" and "_", up to 64 characters
+    private static final int MAX_CUSTOM_ID_LENGTH = 64;
+
+    private String batchId;
+    private List<BatchRequest> requests = new ArrayList<>();
+
+    public BatchQueue() {}
+
+    /**
+     * The queue stored in {@code file}, or an empty one if there is no such file
+     */
+    public static BatchQueue load(Path file) {
+        if (!Files.exists(file)) {
+            return new BatchQueue();
+        }
+        try {
+            return new ObjectMapper().readValue(file.toFile(), BatchQueue.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read batch file " + file, e);
+        }
+    }
+
+    public void save(Path file) {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "relnotes-batch", ".tmp");
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), this);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write batch file " + file, e);
+        }
+    }
+
+    /**
+     * Queue a generation; its custom id is derived from the repository, range and position
+     */
+    public BatchRequest add(String owner, String repo, String range, String outDir,
+                            String systemPrompt, String userPrompt) {
+        if (batchId != null) {
+            throw new IllegalStateException("Batch " + batchId + " was already submitted; use a new batch file");
+        }
+        String label = (owner + "-" + repo + "-" + range).replaceAll("[^A-Za-z0-9_-]+", "_");
+        String customId = "r" + requests.size() + "-" + label;
+        if (customId.length() > MAX_CUSTOM_ID_LENGTH) {
+            customId = customId.substring(0, MAX_CUSTOM_ID_LENGTH);
+        }
+        BatchRequest request = new BatchRequest(customId, owner, repo, range, outDir, systemPrompt, userPrompt);
+        requests.add(request);
+        return request;
+    }
+
+    /**
+     * The queued request with {@code customId}, or null
+     */
+    public BatchRequest find(String customId) {
+        for (BatchRequest request : requests) {
+            if (request.getCustomId().equals(customId)) {
+                return request;
+            }
+        }
+        return null;
+    }
+
+    // Getters and setters
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+
+    public List<BatchRequest> getRequests() { return requests; }
+    public void setRequests(List<BatchRequest> requests) { this.requests = requests; }
+}
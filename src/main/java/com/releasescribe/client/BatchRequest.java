@@ -0,0 +1,49 @@
+package com.releasescribe.client;
+
+/**
+ * One release notes generation queued for a Message Batch, with where its result goes
+ */
+public class BatchRequest {
+    private String customId;
+    private String owner;
+    private String repo;
+    private String range;
+    private String outDir;
+    private String systemPrompt;
+    private String userPrompt;
+
+    public BatchRequest() {}
+
+    public BatchRequest(String customId, String owner, String repo, String range, String outDir,
+                        String systemPrompt, String userPrompt) {
+        this.customId = customId;
+        this.owner = owner;
+        this.repo = repo;
+        this.range = range;
+        this.outDir = outDir;
+        this.systemPrompt = systemPrompt;
+        this.userPrompt = userPrompt;
+    }
+
+    // Getters and setters
+    public String getCustomId() { return customId; }
+    public void setCustomId(String customId) { this.customId = customId; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public String getRepo() { return repo; }
+    public void setRepo(String repo) { this.repo = repo; }
+
+    public String getRange() { return range; }
+    public void setRange(String range) { this.range = range; }
+
+    public String getOutDir() { return outDir; }
+    public void setOutDir(String outDir) { this.outDir = outDir; }
+
+    public String getSystemPrompt() { return systemPrompt; }
+    public void setSystemPrompt(String systemPrompt) { this.systemPrompt = systemPrompt; }
+
+    public String getUserPrompt() { return userPrompt; }
+    public void setUserPrompt(String userPrompt) { this.userPrompt = userPrompt; }
+}
@@ -0,0 +1,16 @@
+package com.releasescribe.client;
+
+import com.releasescribe.model.ReleaseNotes;
+
+/**
+ * Receives the results of a Message Batch one request at a time, as they are read
+ */
+public interface BatchResultListener {
+
+    void succeeded(BatchRequest request, ReleaseNotes releaseNotes);
+
+    /**
+     * Called for a request that errored, was canceled or expired; {@code reason} says which
+     */
+    void failed(BatchRequest request, String reason);
+}
@@ -0,0 +1,78 @@
+package com.releasescribe.client;
+
+import java.time.Duration;
+
+/**
+ * Stops sending requests after the API has answered with rate limit or overload errors
+ * several times in a row. Once open, calls fail immediately until the cool-down has passed;
+ * then one trial request is let through, and its outcome closes or reopens the breaker.
+ * Shared by all threads of a client, so concurrent calls back off together.
+ */
+public class CircuitBreaker {
+
+    private final int threshold;
+    private final Duration openDuration;
+
+    // Guarded by this
+    private int consecutiveOverloads;
+    private boolean open;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long openCount;
+
+    public CircuitBreaker(int threshold, Duration openDuration) {
+        this.threshold = threshold;
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Whether a request may be sent now; after the cool-down only one trial request is allowed
+     */
+    public synchronized boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        if (trialInFlight || System.nanoTime() - openedAt < openDuration.toNanos()) {
+            return false;
+        }
+        trialInFlight = true;
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveOverloads = 0;
+        open = false;
+        trialInFlight = false;
+    }
+
+    /**
+     * Record a 429 or 529; opens the breaker at the threshold or when the trial request fails
+     */
+    public synchronized void recordOverload() {
+        consecutiveOverloads++;
+        if (trialInFlight || (!open && consecutiveOverloads >= threshold)) {
+            open = true;
+            openedAt = System.nanoTime();
+            openCount++;
+        }
+        trialInFlight = false;
+    }
+
+    /**
+     * Record any other failure; it says nothing about overload, so a trial request may be retried
+     */
+    public synchronized void recordOtherFailure() {
+        trialInFlight = false;
+    }
+
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Times the breaker has opened in this run
+     */
+    public synchronized long getOpenCount() {
+        return openCount;
+    }
+}
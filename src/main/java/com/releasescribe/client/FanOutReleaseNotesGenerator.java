@@ -0,0 +1,219 @@
+package com.releasescribe.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.releasescribe.config.ReleaseScribeConfig;
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.DependencyUpdate;
+import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.model.ReleaseNotesField;
+import com.releasescribe.prompt.PromptBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Writes each part of the release notes with its own concurrent call instead of one call for
+ * all of them. Every call gets a system prompt for its part and audience, the data that part
+ * needs and an output limit sized for it. Wall-clock time is that of the slowest part, and no
+ * part is cut short by sharing one output limit with the others.
+ */
+public class FanOutReleaseNotesGenerator implements AutoCloseable {
+
+    private static final int MAX_RETRIES = 3;
+    private static final int CHANGELOG_TOKENS = 4096;
+    private static final int RELEASE_NOTES_TOKENS = 3072;
+    private static final int HIGHLIGHTS_TOKENS = 1024;
+    private static final int BREAKING_TOKENS = 2048;
+
+    // config.sections names that differ from the normalized category they cover
+    private static final Map<String, String> SECTION_CATEGORIES = Map.of(
+            "features", "feature",
+            "fixes", "fix");
+
+    private final AnthropicReleaseNotesClient client;
+    private final PromptBuilder promptBuilder;
+    private final ReleaseScribeConfig config;
+    private final String owner;
+    private final String repo;
+    private final String range;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor;
+
+    public FanOutReleaseNotesGenerator(AnthropicReleaseNotesClient client, PromptBuilder promptBuilder,
+                                       ReleaseScribeConfig config, String owner, String repo, String range) {
+        this.client = client;
+        this.promptBuilder = promptBuilder;
+        this.config = config;
+        this.owner = owner;
+        this.repo = repo;
+        this.range = range;
+        this.executor = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "relnotes-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Generate every part concurrently and join them; {@code listener}, if not null, is told
+     * about each part as soon as its call returns
+     */
+    public ReleaseNotes generate(List<PullRequest> pullRequests, List<Commit> commits,
+                                 List<DependencyUpdate> dependencyUpdates, ReleaseNotesListener listener) {
+        List<String> audiences = config.getAudiences() != null && !config.getAudiences().isEmpty()
+                ? config.getAudiences() : List.of("dev", "customer");
+        boolean dev = audiences.stream().anyMatch("dev"::equalsIgnoreCase);
+        boolean customer = audiences.stream().anyMatch("customer"::equalsIgnoreCase);
+        List<String> sections = config.getSections() != null ? config.getSections() : List.of();
+
+        // Only categories listed in config.sections are sent; breaking changes always are
+        Set<String> categories = new HashSet<>();
+        for (String section : sections) {
+            categories.add(SECTION_CATEGORIES.getOrDefault(section.toLowerCase(), section.toLowerCase()));
+        }
+        List<PullRequest> listedPullRequests = new ArrayList<>();
+        for (PullRequest pr : pullRequests) {
+            if (categories.isEmpty() || pr.isBreakingChange() || categories.contains(pr.getCategory())) {
+                listedPullRequests.add(pr);
+            }
+        }
+        List<Commit> listedCommits = new ArrayList<>();
+        for (Commit commit : commits) {
+            if (categories.isEmpty() || commit.isBreakingChange() || categories.contains(commit.getCategory())) {
+                listedCommits.add(commit);
+            }
+        }
+
+        ReleaseNotes releaseNotes = new ReleaseNotes("", "", "", new ArrayList<>(), new ArrayList<>());
+        List<CompletableFuture<Void>> parts = new ArrayList<>();
+        String fullData = promptBuilder.buildUserPrompt(owner, repo, range, listedPullRequests, listedCommits, dependencyUpdates);
+
+        // The changelog and release notes speak to engineers unless the only audience is customers
+        String notesAudience = dev || !customer ? "dev" : "customer";
+        parts.add(submit(ReleaseNotesField.CHANGELOG_MD, notesAudience, fullData, CHANGELOG_TOKENS, releaseNotes, 
+                listener));
+        parts.add(submit(ReleaseNotesField.RELEASE_NOTES_MD, notesAudience, fullData, RELEASE_NOTES_TOKENS, 
+                releaseNotes, listener));
+        if (customer) {
+            // Customers are told about merged work, not individual commits or dependency bumps
+            String pullRequestData = promptBuilder.buildUserPrompt(owner, repo, range, listedPullRequests, List.of(), List.of());
+            parts.add(submit(ReleaseNotesField.CUSTOMER_HIGHLIGHTS_MD, "customer", pullRequestData, HIGHLIGHTS_TOKENS,
+                    releaseNotes, listener));
+        } else {
+            skip(ReleaseNotesField.CUSTOMER_HIGHLIGHTS_MD, releaseNotes, listener);
+        }
+        if (sections.isEmpty() || sections.stream().anyMatch(section -> "breaking".equalsIgnoreCase(section)
+                || "upgrade".equalsIgnoreCase(section))) {
+            parts.add(submit(ReleaseNotesField.BREAKING_CHANGES, dev ? "dev" : "customer", fullData, BREAKING_TOKENS,
+                    releaseNotes, listener));
+        } else {
+            skip(ReleaseNotesField.BREAKING_CHANGES, releaseNotes, listener);
+            skip(ReleaseNotesField.UPGRADE_STEPS, releaseNotes, listener);
+        }
+
+        try {
+            CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to generate release notes part", e.getCause());
+        }
+        return releaseNotes;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<Void> submit(ReleaseNotesField field, String audience, String userPrompt, int maxTokens,
+                                           ReleaseNotes releaseNotes, ReleaseNotesListener listener) {
+        String systemPrompt = promptBuilder.buildArtifactSystemPrompt(field, audience, config.getPrompt(),
+                config.getLabelMapping());
+        return CompletableFuture.runAsync(() -> {
+            // Parsed inside the retried call, so a response that does not parse is asked for again
+            // rather than cached and replayed
+            Consumer<ReleaseNotes> part = client.generateTextWithRetry(systemPrompt, userPrompt, maxTokens, 
+                    MAX_RETRIES, text -> parsePart(field, text));
+            // Parts complete on different threads; the joined notes are only touched under their lock
+            synchronized (releaseNotes) {
+                part.accept(releaseNotes);
+                if (listener != null) {
+                    listener.fieldCompleted(field, releaseNotes);
+                    if (field == ReleaseNotesField.BREAKING_CHANGES) {
+                        listener.fieldCompleted(ReleaseNotesField.UPGRADE_STEPS, releaseNotes);
+                    }
+                }
+            }
+        }, executor);
+    }
+
+    // A part left out by the configuration is complete, and empty, from the start
+    private static void skip(ReleaseNotesField field, ReleaseNotes releaseNotes, ReleaseNotesListener listener) {
+        if (listener != null) {
+            synchronized (releaseNotes) {
+                listener.fieldCompleted(field, releaseNotes);
+            }
+        }
+    }
+
+    // The change a part's text makes to the joined notes
+    private Consumer<ReleaseNotes> parsePart(ReleaseNotesField field, String text) {
+        if (field == ReleaseNotesField.BREAKING_CHANGES) {
+            JsonNode root = parseBreakingChanges(text);
+            List<String> breakingChanges = strings(root.path("breaking_changes"));
+            List<String> upgradeSteps = strings(root.path("upgrade_steps"));
+            return notes -> {
+                notes.setBreakingChanges(breakingChanges);
+                notes.setUpgradeSteps(upgradeSteps);
+            };
+        }
+        String markdown = stripFence(text);
+        return switch (field) {
+            case CHANGELOG_MD -> notes -> notes.setChangelogMd(markdown);
+            case RELEASE_NOTES_MD -> notes -> notes.setReleaseNotesMd(markdown);
+            default -> notes -> notes.setCustomerHighlightsMd(markdown);
+        };
+    }
+
+    private JsonNode parseBreakingChanges(String text) {
+        int start = text.indexOf('{');
+        int end = text.lastIndexOf('}');
+        if (start < 0 || end < start) {
+            throw new RetryPolicy.MalformedOutputException("Failed to parse breaking changes: response is not a JSON object", 
+                    text, null);
+        }
+        try {
+            return objectMapper.readTree(text.substring(start, end + 1));
+        } catch (IOException e) {
+            throw new RetryPolicy.MalformedOutputException("Failed to parse breaking changes: " + e.getMessage(), text, e);
+        }
+    }
+
+    private static List<String> strings(JsonNode array) {
+        List<String> values = new ArrayList<>();
+        for (JsonNode item : array) {
+            values.add(item.asText());
+        }
+        return values;
+    }
+
+    // Markdown parts sometimes come wrapped in a code fence despite the instructions
+    private static String stripFence(String text) {
+        String trimmed = text.trim();
+        if (trimmed.startsWith("```") && trimmed.endsWith("```") && trimmed.length() >= 6) {
+            int firstLine = trimmed.indexOf('\n');
+            trimmed = firstLine > 0 ? trimmed.substring(firstLine + 1, trimmed.length() - 3).trim() : trimmed;
+        }
+        return trimmed;
+    }
+}
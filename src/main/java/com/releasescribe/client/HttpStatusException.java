@@ -0,0 +1,30 @@
+package com.releasescribe.client;
+
+import okhttp3.Headers;
+
+import java.io.IOException;
+
+/**
+ * Error response from an endpoint called over plain HTTP, keeping what the retry policy needs
+ */
+class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final Headers headers;
+
+    HttpStatusException(int statusCode, Headers headers, String message) {
+        super(message);
+        this.statusCode = statusCode;
+        this.headers = headers;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    String header(String name) {
+        return headers.get(name);
+    }
+}
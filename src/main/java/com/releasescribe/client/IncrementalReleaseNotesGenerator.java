@@ -0,0 +1,210 @@
+package com.releasescribe.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.DependencyUpdate;
+import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.PullRequestField;
+import com.releasescribe.model.ReleaseDelta;
+import com.releasescribe.model.ReleaseManifest;
+import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.prompt.PromptBuilder;
+import com.releasescribe.prompt.PullRequestReferences;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Updates previously generated release notes instead of writing them again. The inputs of each
+ * run are stored in a manifest next to the notes. A later run over the same release compares its
+ * inputs against that manifest and sends only the added, edited and removed items, together with
+ * the fields they can affect. Fields the model does not return are kept verbatim, so the cost of
+ * a run follows the size of the change rather than the size of the release.
+ */
+public class IncrementalReleaseNotesGenerator {
+
+    private static final int MAX_RETRIES = 3;
+    // Categories that make a pull request a candidate for customer highlights
+    private static final Set<String> HIGHLIGHT_CATEGORIES = Set.of("feature", "perf", "security");
+
+    private final AnthropicReleaseNotesClient client;
+    private final PromptBuilder promptBuilder;
+    private final String owner;
+    private final String repo;
+    private final String range;
+    private final Path manifestFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ReleaseDelta lastDelta;
+
+    public IncrementalReleaseNotesGenerator(AnthropicReleaseNotesClient client, PromptBuilder promptBuilder,
+                                            String owner, String repo, String range, Path manifestFile) {
+        this.client = client;
+        this.promptBuilder = promptBuilder;
+        this.owner = owner;
+        this.repo = repo;
+        this.range = range;
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * Pull request fields the manifest versions PRs by; without {@code updated_at} an edited
+     * PR is only noticed when its title changes
+     */
+    public Set<PullRequestField> requiredPullRequestFields() {
+        return EnumSet.of(PullRequestField.NUMBER, PullRequestField.TITLE, PullRequestField.UPDATED_AT);
+    }
+
+    /**
+     * Patch the stored release notes to the current inputs. Returns null when there is no usable
+     * manifest, or when more than half of the inputs changed and a full generation is cheaper.
+     */
+    public ReleaseNotes generate(List<PullRequest> pullRequests, List<Commit> commits,
+                                 List<DependencyUpdate> dependencyUpdates) {
+        ReleaseManifest manifest = load();
+        if (manifest == null || manifest.getReleaseNotes() == null) {
+            return null;
+        }
+        ReleaseDelta delta = manifest.diff(pullRequests, commits, dependencyUpdates);
+        lastDelta = delta;
+        ReleaseNotes previous = manifest.getReleaseNotes();
+        if (delta.isEmpty()) {
+            return previous;
+        }
+        int items = Math.max(pullRequests.size() + commits.size() + dependencyUpdates.size(), manifest.size());
+        if (delta.size() * 2 > items) {
+            return null;
+        }
+
+        Set<String> fields = affectedFields(previous, delta);
+        // Parsed inside the retried call, so a reply that is not JSON is asked for again, not cached
+        return client.generateTextWithRetry(promptBuilder.buildPatchSystemPrompt(),
+                promptBuilder.buildPatchUserPrompt(owner, repo, range, previous, delta, fields), MAX_RETRIES,
+                text -> applyPatch(previous, text, fields));
+    }
+
+    /**
+     * Delta computed by the last {@link #generate} call, or null when there was no manifest
+     */
+    public ReleaseDelta getLastDelta() {
+        return lastDelta;
+    }
+
+    /**
+     * Record the inputs {@code releaseNotes} were generated from, for the next incremental run
+     */
+    public void save(List<PullRequest> pullRequests, List<Commit> commits,
+                     List<DependencyUpdate> dependencyUpdates, ReleaseNotes releaseNotes) {
+        try {
+            ReleaseManifest manifest = new ReleaseManifest(range, pullRequests, commits, dependencyUpdates, releaseNotes);
+            Path directory = manifestFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "relnotes-manifest", ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), manifest);
+            Files.move(temp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Warning: failed to save release manifest: " + e.getMessage());
+        }
+    }
+
+    // Changelog and release notes list every change; the other fields only some kinds of change
+    private static Set<String> affectedFields(ReleaseNotes previous, ReleaseDelta delta) {
+        Set<String> fields = new LinkedHashSet<>(List.of("changelog_md", "release_notes_md"));
+        List<PullRequest> touched = new ArrayList<>(delta.getAddedPullRequests());
+        touched.addAll(delta.getChangedPullRequests());
+        Set<Integer> removed = delta.getRemovedPullRequests().keySet();
+
+        boolean highlights = touched.stream().anyMatch(pr -> HIGHLIGHT_CATEGORIES.contains(pr.getCategory()))
+                || delta.getAddedDependencyUpdates().stream().anyMatch(DependencyUpdate::isSecurity)
+                || references(previous.getCustomerHighlightsMd(), removed);
+        if (highlights) {
+            fields.add("customer_highlights_md");
+        }
+
+        boolean breaking = touched.stream().anyMatch(PullRequest::isBreakingChange)
+                || delta.getAddedCommits().stream().anyMatch(Commit::isBreakingChange)
+                || references(previous.getBreakingChanges(), removed)
+                || references(previous.getUpgradeSteps(), removed);
+        if (breaking) {
+            fields.add("breaking_changes");
+            fields.add("upgrade_steps");
+        }
+        return fields;
+    }
+
+    private static boolean references(String text, Set<Integer> numbers) {
+        if (text == null || numbers.isEmpty()) {
+            return false;
+        }
+        Set<Integer> referenced = PullRequestReferences.referencedIn(text);
+        return numbers.stream().anyMatch(referenced::contains);
+    }
+
+    private static boolean references(Collection<String> texts, Set<Integer> numbers) {
+        return texts != null && texts.stream().anyMatch(text -> references(text, numbers));
+    }
+
+    // Fields the model returned replace the previous ones; anything else, or any field that was
+    // not offered for patching, is kept as it was
+    private ReleaseNotes applyPatch(ReleaseNotes previous, String text, Set<String> fields) {
+        ReleaseNotes patched = new ReleaseNotes(previous.getChangelogMd(), previous.getReleaseNotesMd(),
+                previous.getCustomerHighlightsMd(), previous.getBreakingChanges(), previous.getUpgradeSteps());
+        int start = text.indexOf('{');
+        int end = text.lastIndexOf('}');
+        if (start < 0 || end < start) {
+            throw new RetryPolicy.MalformedOutputException(
+                    "Failed to parse release notes patch: response is not a JSON object", text, null);
+        }
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(text.substring(start, end + 1));
+        } catch (IOException e) {
+            throw new RetryPolicy.MalformedOutputException("Failed to parse release notes patch: " + e.getMessage(), 
+                    text, e);
+        }
+        if (fields.contains("changelog_md") && root.hasNonNull("changelog_md")) {
+            patched.setChangelogMd(root.get("changelog_md").asText());
+        }
+        if (fields.contains("release_notes_md") && root.hasNonNull("release_notes_md")) {
+            patched.setReleaseNotesMd(root.get("release_notes_md").asText());
+        }
+        if (fields.contains("customer_highlights_md") && root.hasNonNull("customer_highlights_md")) {
+            patched.setCustomerHighlightsMd(root.get("customer_highlights_md").asText());
+        }
+        if (fields.contains("breaking_changes") && root.path("breaking_changes").isArray()) {
+            patched.setBreakingChanges(strings(root.get("breaking_changes")));
+        }
+        if (fields.contains("upgrade_steps") && root.path("upgrade_steps").isArray()) {
+            patched.setUpgradeSteps(strings(root.get("upgrade_steps")));
+        }
+        return patched;
+    }
+
+    private static List<String> strings(JsonNode array) {
+        List<String> values = new ArrayList<>();
+        for (JsonNode item : array) {
+            values.add(item.asText());
+        }
+        return values;
+    }
+
+    private ReleaseManifest load() {
+        try {
+            return objectMapper.readValue(Files.readAllBytes(manifestFile), ReleaseManifest.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: ignoring unreadable release manifest " + manifestFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.releasescribe.client;
+
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.DependencyUpdate;
+import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.prompt.PromptBuilder;
+import com.releasescribe.prompt.TokenEstimator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Map-reduce generation for releases too large for a single call. Pull requests are sharded by
+ * category and component. A shard is summarized as soon as it fills, possibly while collection
+ * is still running. A final reduce call merges the summaries into {@link ReleaseNotes}. If the
+ * summaries together exceed the reduce budget, they are first merged in groups, level by level.
+ */
+public class MapReduceReleaseNotesGenerator implements AutoCloseable {
+
+    private static final int MAX_RETRIES = 3;
+    private static final int MAX_MERGE_LEVELS = 4;
+
+    private final AnthropicReleaseNotesClient client;
+    private final PromptBuilder promptBuilder;
+    private final String owner;
+    private final String repo;
+    private final String range;
+    private final int shardSize;
+    private final int reduceInputTokens;
+    private final ExecutorService executor;
+
+    // Guarded by this
+    private final Map<String, List<PullRequest>> openShards = new HashMap<>();
+    private final Map<String, Integer> shardParts = new HashMap<>();
+    private final Map<String, CompletableFuture<String>> summaries = new TreeMap<>();
+
+    public MapReduceReleaseNotesGenerator(AnthropicReleaseNotesClient client, PromptBuilder promptBuilder,
+                                          String owner, String repo, String range) {
+        this(client, promptBuilder, owner, repo, range, 40, 4, 30000);
+    }
+
+    public MapReduceReleaseNotesGenerator(AnthropicReleaseNotesClient client, PromptBuilder promptBuilder,
+                                          String owner, String repo, String range,
+                                          int shardSize, int concurrency, int reduceInputTokens) {
+        this.client = client;
+        this.promptBuilder = promptBuilder;
+        this.owner = owner;
+        this.repo = repo;
+        this.range = range;
+        this.shardSize = shardSize;
+        this.reduceInputTokens = reduceInputTokens;
+        this.executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "relnotes-map");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Add a normalized pull request; its shard is summarized as soon as it is full
+     */
+    public synchronized void submit(PullRequest pr) {
+        String shard = (pr.getCategory() != null ? pr.getCategory() : "other") + " / "
+                + (pr.getComponent() != null ? pr.getComponent() : "general");
+        List<PullRequest> pullRequests = openShards.computeIfAbsent(shard, key -> new ArrayList<>());
+        pullRequests.add(pr);
+        if (pullRequests.size() >= shardSize) {
+            openShards.remove(shard);
+            dispatch(shard, pullRequests);
+        }
+    }
+
+    /**
+     * Summarize the remaining partial shards, wait for all summaries and run the reduce call;
+     * {@code pullRequests} only supply body evidence, their titles are already in the summaries
+     */
+    public ReleaseNotes finish(Map<String, List<String>> labelMapping, List<PullRequest> pullRequests,
+                               List<Commit> commits, List<DependencyUpdate> dependencyUpdates) {
+        List<CompletableFuture<String>> pending;
+        synchronized (this) {
+            openShards.forEach(this::dispatch);
+            openShards.clear();
+            // Sorted by shard label, so the reduce prompt does not depend on completion order
+            pending = new ArrayList<>(summaries.values());
+        }
+
+        List<String> texts = await(pending);
+        for (int level = 0; level < MAX_MERGE_LEVELS && texts.size() > 1 && tokens(texts) > reduceInputTokens; level++) {
+            texts = merge(texts);
+        }
+
+        String userPrompt = promptBuilder.buildReduceUserPrompt(owner, repo, range,
+                texts, pullRequests, commits, dependencyUpdates);
+        return client.generateReleaseNotesWithRetry(promptBuilder.buildSystemPrompt(labelMapping), userPrompt, MAX_RETRIES);
+    }
+
+    /**
+     * Number of shards dispatched so far
+     */
+    public synchronized int getShardCount() {
+        return summaries.size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void dispatch(String shard, List<PullRequest> pullRequests) {
+        int part = shardParts.merge(shard, 1, Integer::sum);
+        String label = part > 1 ? shard + " (part " + part + ")" : shard;
+        String userPrompt = promptBuilder.buildShardUserPrompt(owner, repo, range, label, pullRequests);
+        summaries.put(String.format("%s\u0000%05d", shard, part), CompletableFuture.supplyAsync(() ->
+                "### " + label + "\n" + client.generateTextWithRetry(promptBuilder.buildShardSystemPrompt(),
+                        userPrompt, MAX_RETRIES).trim(), executor));
+    }
+
+    // One level of the hierarchy: consecutive summaries are grouped up to the budget and merged concurrently
+    private List<String> merge(List<String> texts) {
+        List<List<String>> groups = new ArrayList<>();
+        List<String> group = new ArrayList<>();
+        int groupTokens = 0;
+        for (String text : texts) {
+            int cost = TokenEstimator.estimate(text);
+            if (!group.isEmpty() && groupTokens + cost > reduceInputTokens) {
+                groups.add(group);
+                group = new ArrayList<>();
+                groupTokens = 0;
+            }
+            group.add(text);
+            groupTokens += cost;
+        }
+        groups.add(group);
+
+        List<CompletableFuture<String>> merged = new ArrayList<>();
+        for (List<String> members : groups) {
+            String userPrompt = promptBuilder.buildSummaryMergePrompt(owner, repo, range, members);
+            merged.add(CompletableFuture.supplyAsync(() -> client.generateTextWithRetry(
+                    promptBuilder.buildShardSystemPrompt(), userPrompt, MAX_RETRIES).trim(), executor));
+        }
+        return await(merged);
+    }
+
+    private static int tokens(List<String> texts) {
+        int total = 0;
+        for (String text : texts) {
+            total += TokenEstimator.estimate(text);
+        }
+        return total;
+    }
+
+    private static List<String> await(List<CompletableFuture<String>> futures) {
+        List<String> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<String> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to summarize release shard", e.getCause());
+        }
+        return results;
+    }
+}
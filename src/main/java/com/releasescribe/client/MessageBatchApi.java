@@ -0,0 +1,95 @@
+package com.releasescribe.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.*;
+import okio.BufferedSource;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Minimal client for the Message Batches REST endpoints. It talks to {@code baseUrl}, so a local
+ * stand-in server can take the place of the API.
+ */
+class MessageBatchApi {
+
+    private static final String DEFAULT_BASE_URL = "https://api.anthropic.com";
+    private static final String API_VERSION = "2023-06-01";
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private final OkHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String apiKey;
+    private final String baseUrl;
+
+    MessageBatchApi(String apiKey, String baseUrl) {
+        // Result files can be large and are read as they arrive
+        this.httpClient = new OkHttpClient.Builder()
+                .readTimeout(5, TimeUnit.MINUTES)
+                .build();
+        this.objectMapper = new ObjectMapper();
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl != null && !baseUrl.isBlank() ? baseUrl.replaceAll("/+$", "") : DEFAULT_BASE_URL;
+    }
+
+    /**
+     * Create a batch from {@code requests}, each {custom_id, params}; returns the batch id
+     */
+    String create(ArrayNode requests) throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.set("requests", requests);
+        Request request = newRequest(baseUrl + "/v1/messages/batches")
+                .post(RequestBody.create(objectMapper.writeValueAsBytes(body), JSON))
+                .build();
+        return execute(request).path("id").asText();
+    }
+
+    /**
+     * Current state of a batch, including {@code processing_status} and {@code results_url}
+     */
+    JsonNode retrieve(String batchId) throws IOException {
+        return execute(newRequest(baseUrl + "/v1/messages/batches/" + batchId).get().build());
+    }
+
+    /**
+     * Read the JSONL results at {@code resultsUrl}, passing each line to {@code consumer} as it
+     * is read rather than after the whole file has arrived
+     */
+    void results(String resultsUrl, Consumer<JsonNode> consumer) throws IOException {
+        try (Response response = httpClient.newCall(newRequest(resultsUrl).get().build()).execute()) {
+            if (!response.isSuccessful()) {
+                throw new HttpStatusException(response.code(), response.headers(), 
+                        "Failed to read batch results: " + response.code() + " " + response.message());
+            }
+            BufferedSource source = response.body().source();
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                if (!line.isBlank()) {
+                    consumer.accept(objectMapper.readTree(line));
+                }
+            }
+        }
+    }
+
+    private Request.Builder newRequest(String url) {
+        return new Request.Builder()
+                .url(url)
+                .addHeader("x-api-key", apiKey != null ? apiKey : "")
+                .addHeader("anthropic-version", API_VERSION);
+    }
+
+    private JsonNode execute(Request request) throws IOException {
+        try (Response response = httpClient.newCall(request).execute()) {
+            String body = response.body() != null ? response.body().string() : "";
+            if (!response.isSuccessful()) {
+                throw new HttpStatusException(response.code(), response.headers(), 
+                        "Message Batches request failed: " + response.code() + " " + body);
+            }
+            return objectMapper.readTree(body);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.releasescribe.client;
+
+import com.releasescribe.config.ReleaseScribeConfig;
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.DependencyUpdate;
+import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.prompt.PullRequestReferences;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Picks the model for a release from the tiers in config.routing: the first, cheapest, tier
+ * that accepts the size of the release data, the presence of breaking changes and the
+ * audiences. If that tier's release notes fail validation, the next tier writes them again,
+ * so a larger model is only paid for when a smaller one falls short. Every decision and the
+ * time spent in each tier are recorded.
+ */
+public class ModelRouter {
+
+    private static final int MAX_RETRIES = 3;
+
+    private final AnthropicReleaseNotesClient client;
+    private final List<ReleaseScribeConfig.Tier> tiers;
+    private final List<String> audiences;
+    private final List<String> decisions = new ArrayList<>();
+    private final Map<String, Integer> tierCalls = new LinkedHashMap<>();
+    private final Map<String, Long> tierMillis = new LinkedHashMap<>();
+
+    public ModelRouter(AnthropicReleaseNotesClient client, ReleaseScribeConfig.Routing routing, List<String> audiences) {
+        this.client = client;
+        this.tiers = routing.getTiers();
+        this.audiences = audiences != null && !audiences.isEmpty() ? audiences : List.of("dev", "customer");
+    }
+
+    /**
+     * Whether {@code config} defines any tiers to route between
+     */
+    public static boolean isConfigured(ReleaseScribeConfig config) {
+        return config.getRouting() != null && config.getRouting().getTiers() != null
+                && !config.getRouting().getTiers().isEmpty();
+    }
+
+    /**
+     * Generate release notes with the routed tier, escalating while validation fails. Tiers are
+     * chosen by {@code inputTokens}, the estimated size of the release data before the prompt
+     * limits trimmed it, since the trimmed prompt would fit the smallest tier every time. A
+     * streamed response is not escalated, since its fields have already been handed to
+     * {@code listener}; it is only reported as failing validation.
+     */
+    public ReleaseNotes generate(String systemPrompt, String userPrompt, int inputTokens, 
+                                 List<PullRequest> pullRequests, List<Commit> commits, 
+                                 List<DependencyUpdate> dependencyUpdates, ReleaseNotesListener listener) {
+        boolean breaking = pullRequests.stream().anyMatch(PullRequest::isBreakingChange)
+                || commits.stream().anyMatch(Commit::isBreakingChange);
+        int index = route(inputTokens, breaking);
+        decisions.add("Routed to " + name(tiers.get(index)) + ": ~" + inputTokens + " tokens of release data, "
+                + (breaking ? "breaking changes" : "no breaking changes") + ", audiences " + String.join(", ", audiences));
+
+        while (true) {
+            ReleaseScribeConfig.Tier tier = tiers.get(index);
+            String model = tier.getModel() != null ? tier.getModel() : AnthropicReleaseNotesClient.MODEL;
+            long start = System.currentTimeMillis();
+            ReleaseNotes releaseNotes = listener != null
+                    ? client.generateReleaseNotesStreamingWithRetry(model, systemPrompt, userPrompt, listener, MAX_RETRIES)
+                    : client.generateReleaseNotesWithRetry(model, systemPrompt, userPrompt, MAX_RETRIES);
+            tierCalls.merge(name(tier), 1, Integer::sum);
+            tierMillis.merge(name(tier), System.currentTimeMillis() - start, Long::sum);
+
+            String problem = validate(releaseNotes, breaking, pullRequests, commits, dependencyUpdates);
+            if (problem == null) {
+                return releaseNotes;
+            }
+            if (listener != null || index == tiers.size() - 1) {
+                decisions.add("Kept output of " + name(tier) + " despite validation failure: " + problem);
+                return releaseNotes;
+            }
+            index++;
+            decisions.add("Escalated to " + name(tiers.get(index)) + ": " + name(tier) + " output " + problem);
+        }
+    }
+
+    // The first tier whose limits fit; the last tier takes whatever no tier accepts
+    int route(int inputTokens, boolean breaking) {
+        for (int i = 0; i < tiers.size(); i++) {
+            ReleaseScribeConfig.Tier tier = tiers.get(i);
+            boolean sizeFits = tier.getMaxInputTokens() <= 0 || inputTokens <= tier.getMaxInputTokens();
+            boolean breakingFits = !breaking || tier.isBreakingChanges();
+            boolean audienceFits = tier.getAudiences() == null || tier.getAudiences().isEmpty()
+                    || audiences.stream().allMatch(audience -> tier.getAudiences().stream()
+                            .anyMatch(audience::equalsIgnoreCase));
+            if (sizeFits && breakingFits && audienceFits) {
+                return i;
+            }
+        }
+        return tiers.size() - 1;
+    }
+
+    // A description of what is wrong with the release notes, or null if nothing is
+    String validate(ReleaseNotes releaseNotes, boolean breaking, List<PullRequest> pullRequests,
+                            List<Commit> commits, List<DependencyUpdate> dependencyUpdates) {
+        if (isBlank(releaseNotes.getChangelogMd()) || isBlank(releaseNotes.getReleaseNotesMd())) {
+            return "is missing the changelog or release notes";
+        }
+        if (AnthropicReleaseNotesClient.isPlainTextFallback(releaseNotes)) {
+            return "is not valid JSON";
+        }
+        if (audiences.stream().anyMatch("customer"::equalsIgnoreCase) && isBlank(releaseNotes.getCustomerHighlightsMd())) {
+            return "is missing the customer highlights";
+        }
+        if (breaking && (releaseNotes.getBreakingChanges() == null || releaseNotes.getBreakingChanges().isEmpty())) {
+            return "lists no breaking changes although the input has some";
+        }
+        Set<Integer> unknown = PullRequestReferences.findUnknown(releaseNotes, pullRequests, commits, dependencyUpdates);
+        if (!unknown.isEmpty()) {
+            return "references numbers not in the input: "
+                    + unknown.stream().map(number -> "#" + number).collect(Collectors.joining(", "));
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
+    }
+
+    private static String name(ReleaseScribeConfig.Tier tier) {
+        if (tier.getName() != null) {
+            return tier.getName();
+        }
+        return tier.getModel() != null ? tier.getModel() : AnthropicReleaseNotesClient.MODEL;
+    }
+
+    /**
+     * The tier chosen and every escalation, in order
+     */
+    public List<String> getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * Calls per tier, in the order the tiers were used
+     */
+    public Map<String, Integer> getTierCalls() {
+        return tierCalls;
+    }
+
+    /**
+     * Wall-clock time per tier, including retries
+     */
+    public Map<String, Long> getTierMillis() {
+        return tierMillis;
+    }
+}
@@ -0,0 +1,203 @@
+package com.releasescribe.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.PullRequestField;
+import com.releasescribe.model.ReleaseManifest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a short summary of each pull request once and keeps it in a per-repository file.
+ * Entries are keyed by PR number and {@code updated_at}, so an edited PR is summarized again.
+ * The summary then stands in for the title in release prompts. Release candidates and the
+ * final release of one line share most PRs, so each later run only pays for the new ones.
+ */
+public class PullRequestSummarizer {
+
+    private static final String SYSTEM_PROMPT = """
+        You summarize pull requests for release notes. For each pull request, write one sentence
+        of at most 25 words saying what changed for users or operators, not how it was built.
+        Return ONLY a JSON array: [{"number": 123, "summary": "..."}], one entry per pull request.
+        """;
+
+    private static final int BATCH_SIZE = 25;
+    private static final int MAX_BODY_CHARS = 1500;
+    private static final int MAX_RETRIES = 3;
+
+    private final AnthropicReleaseNotesClient client;
+    private final Path storeFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Integer, StoredSummary> store = new HashMap<>();
+    private int reused;
+    private int generated;
+
+    private static class StoredSummary {
+        final String version;
+        final String summary;
+
+        StoredSummary(String version, String summary) {
+            this.version = version;
+            this.summary = summary;
+        }
+    }
+
+    /**
+     * Summarizer persisting to {@code storeFile}, typically one file per repository
+     */
+    public PullRequestSummarizer(AnthropicReleaseNotesClient client, Path storeFile) {
+        this.client = client;
+        this.storeFile = storeFile;
+        load();
+    }
+
+    /**
+     * Pull request fields summaries are keyed and written from
+     */
+    public Set<PullRequestField> requiredPullRequestFields() {
+        return EnumSet.of(PullRequestField.NUMBER, PullRequestField.TITLE, PullRequestField.UPDATED_AT,
+                PullRequestField.LABELS);
+    }
+
+    /**
+     * Set the summary of every PR, reusing stored ones and writing the rest in batches
+     */
+    public void summarize(List<PullRequest> pullRequests) {
+        List<PullRequest> missing = new ArrayList<>();
+        for (PullRequest pr : pullRequests) {
+            StoredSummary stored = store.get(pr.getNumber());
+            if (stored != null && stored.version.equals(ReleaseManifest.versionOf(pr))) {
+                pr.setSummary(stored.summary);
+                reused++;
+            } else {
+                missing.add(pr);
+            }
+        }
+
+        for (int start = 0; start < missing.size(); start += BATCH_SIZE) {
+            List<PullRequest> batch = missing.subList(start, Math.min(start + BATCH_SIZE, missing.size()));
+            // Parsed inside the retried call: a reply that is not a JSON array is asked for again
+            // and never cached, so it cannot be replayed on later runs
+            Map<Integer, String> summaries;
+            try {
+                summaries = client.generateTextWithRetry(SYSTEM_PROMPT, buildBatchPrompt(batch), MAX_RETRIES,
+                        this::parseSummaries);
+            } catch (RuntimeException e) {
+                if (RetryPolicy.classify(e) != RetryPolicy.Reason.MALFORMED_OUTPUT) {
+                    throw e;
+                }
+                System.err.println("Warning: no usable PR summaries for " + batch.size()
+                        + " pull requests; their titles are used and they are tried again next run");
+                continue;
+            }
+            for (PullRequest pr : batch) {
+                String summary = summaries.get(pr.getNumber());
+                // A PR the model skipped keeps its title and is tried again next run
+                if (summary != null && !summary.isBlank()) {
+                    pr.setSummary(summary);
+                    store.put(pr.getNumber(), new StoredSummary(ReleaseManifest.versionOf(pr), summary));
+                    generated++;
+                }
+            }
+            // Saved per batch, so an interrupted run keeps what it paid for
+            save();
+        }
+    }
+
+    /**
+     * Summaries taken from the store in this run
+     */
+    public int getReusedCount() {
+        return reused;
+    }
+
+    /**
+     * Summaries written by the model in this run
+     */
+    public int getGeneratedCount() {
+        return generated;
+    }
+
+    private String buildBatchPrompt(List<PullRequest> batch) {
+        StringBuilder prompt = new StringBuilder("Pull requests:\n\n");
+        for (PullRequest pr : batch) {
+            prompt.append("#").append(pr.getNumber()).append(": ").append(pr.getTitle()).append('\n');
+            if (pr.getLabels() != null && !pr.getLabels().isEmpty()) {
+                prompt.append("Labels: ").append(String.join(", ", pr.getLabels())).append('\n');
+            }
+            // Only bodies already at hand, which the normalizer has stripped of template text;
+            // one left out of collection is not fetched, since that is a request per PR
+            String body = pr.isBodyLoaded() ? pr.getBody() : null;
+            if (body != null && !body.isBlank()) {
+                prompt.append(body, 0, Math.min(body.length(), MAX_BODY_CHARS)).append('\n');
+            }
+            prompt.append('\n');
+        }
+        return prompt.toString();
+    }
+
+    private Map<Integer, String> parseSummaries(String text) {
+        Map<Integer, String> summaries = new HashMap<>();
+        int start = text.indexOf('[');
+        int end = text.lastIndexOf(']');
+        if (start < 0 || end < start) {
+            throw new RetryPolicy.MalformedOutputException("PR summary response is not a JSON array", text, null);
+        }
+        try {
+            for (JsonNode item : objectMapper.readTree(text.substring(start, end + 1))) {
+                if (item.hasNonNull("number") && item.hasNonNull("summary")) {
+                    summaries.put(item.get("number").asInt(), item.get("summary").asText().trim());
+                }
+            }
+        } catch (IOException e) {
+            throw new RetryPolicy.MalformedOutputException("Failed to parse PR summaries: " + e.getMessage(), text, e);
+        }
+        return summaries;
+    }
+
+    private void load() {
+        try {
+            JsonNode root = objectMapper.readTree(Files.readAllBytes(storeFile));
+            Iterator<Map.Entry<String, JsonNode>> entries = root.path("pull_requests").fields();
+            while (entries.hasNext()) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                store.put(Integer.parseInt(entry.getKey()), new StoredSummary(
+                        entry.getValue().path("version").asText(), entry.getValue().path("summary").asText()));
+            }
+        } catch (NoSuchFileException e) {
+            // First run for this repository
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: ignoring unreadable PR summary store " + storeFile + ": " + e.getMessage());
+        }
+    }
+
+    private void save() {
+        try {
+            ObjectNode root = objectMapper.createObjectNode();
+            ObjectNode pullRequests = root.putObject("pull_requests");
+            store.forEach((number, stored) -> pullRequests.putObject(Integer.toString(number))
+                    .put("version", stored.version)
+                    .put("summary", stored.summary));
+            Path directory = storeFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "pr-summaries", ".tmp");
+            Files.write(temp, objectMapper.writeValueAsBytes(root));
+            Files.move(temp, storeFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Warning: failed to save PR summaries: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.releasescribe.client;
+
+import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.model.ReleaseNotesField;
+
+/**
+ * Receives the fields of streamed release notes one at a time, as each is completed. A field
+ * may come from an attempt that later fails; the retry then reports its fields again, so only
+ * act on them in ways a later report can overwrite.
+ */
+public interface ReleaseNotesListener {
+
+    /**
+     * Called once {@code field} is complete; {@code releaseNotes} holds it and every field
+     * completed before it
+     */
+    void fieldCompleted(ReleaseNotesField field, ReleaseNotes releaseNotes);
+}
@@ -0,0 +1,184 @@
+package com.releasescribe.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.releasescribe.model.ReleaseNotes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Content-addressed cache of model responses on local disk. An entry is keyed by the SHA-256 of
+ * everything that determines a response: model, temperature, max tokens and both prompts. It
+ * holds the raw text and, once parsed, the {@link ReleaseNotes}. Entries expire after a TTL. The
+ * least recently used ones are evicted when the directory outgrows its size limit.
+ */
+public class ResponseCache {
+
+    /**
+     * A cached response; {@code releaseNotes} is null until a caller parsed and stored it
+     */
+    public static class Entry {
+        private final String text;
+        private final ReleaseNotes releaseNotes;
+
+        Entry(String text, ReleaseNotes releaseNotes) {
+            this.text = text;
+            this.releaseNotes = releaseNotes;
+        }
+
+        public String getText() { return text; }
+        public ReleaseNotes getReleaseNotes() { return releaseNotes; }
+    }
+
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+    private final Duration ttl;
+    private final long maxBytes;
+    private final boolean regenerate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private int hits;
+
+    public ResponseCache(Path directory) {
+        this(directory, Duration.ofDays(30), 64L * 1024 * 1024, false);
+    }
+
+    /**
+     * Cache in {@code directory}; with {@code regenerate}, lookups always miss but fresh
+     * responses still replace the stored ones
+     */
+    public ResponseCache(Path directory, Duration ttl, long maxBytes, boolean regenerate) {
+        this.directory = directory;
+        this.ttl = ttl;
+        this.maxBytes = maxBytes;
+        this.regenerate = regenerate;
+    }
+
+    /**
+     * Content address of a request
+     */
+    public static String key(String model, double temperature, int maxTokens, String systemPrompt, String userPrompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // Length-prefixed fields, so no two different requests concatenate to the same input
+            for (String field : new String[] {model, Double.toString(temperature), Integer.toString(maxTokens),
+                    systemPrompt, userPrompt}) {
+                byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+                digest.update((byte) ':');
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to hash cache key", e);
+        }
+    }
+
+    /**
+     * The unexpired entry for {@code key}, or null
+     */
+    public Entry get(String key) {
+        if (regenerate) {
+            return null;
+        }
+        Path file = directory.resolve(key + SUFFIX);
+        try {
+            ObjectNode node = (ObjectNode) objectMapper.readTree(Files.readAllBytes(file));
+            long createdAt = node.path("created_at").asLong();
+            if (System.currentTimeMillis() - createdAt > ttl.toMillis()) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            // The modification time tracks last use for eviction
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            ReleaseNotes releaseNotes = node.hasNonNull("release_notes")
+                    ? objectMapper.treeToValue(node.get("release_notes"), ReleaseNotes.class) : null;
+            synchronized (this) {
+                hits++;
+            }
+            return new Entry(node.path("text").asText(), releaseNotes);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // A damaged entry is a miss; it is overwritten by the next put
+            return null;
+        }
+    }
+
+    /**
+     * Store a response; {@code releaseNotes} may be null for text-only calls
+     */
+    public void put(String key, String text, ReleaseNotes releaseNotes) {
+        try {
+            Files.createDirectories(directory);
+            ObjectNode node = objectMapper.createObjectNode();
+            node.put("created_at", System.currentTimeMillis());
+            node.put("text", text);
+            if (releaseNotes != null) {
+                node.set("release_notes", objectMapper.valueToTree(releaseNotes));
+            }
+            // Write then rename, so a concurrent reader never sees half an entry
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, objectMapper.writeValueAsBytes(node));
+            Files.move(temp, directory.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            evict();
+        } catch (IOException e) {
+            // Caching is best effort; the response itself is still returned
+            System.err.println("Warning: failed to cache response: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lookups answered from the cache in this run
+     */
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    // Drop least recently used entries until the directory fits in maxBytes
+    private synchronized void evict() throws IOException {
+        List<Path> files = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+                total += Files.size(file);
+            }
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        files.sort(Comparator.comparing(ResponseCache::lastModified));
+        for (Path file : files) {
+            if (total <= maxBytes) {
+                break;
+            }
+            long size = Files.size(file);
+            Files.deleteIfExists(file);
+            total -= size;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.releasescribe.client;
+
+import com.anthropic.errors.AnthropicIoException;
+import com.anthropic.errors.AnthropicServiceException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retries model calls that failed for a reason worth retrying: rate limits (429), overload
+ * (529), other server errors, network failures and output that could not be parsed. Client
+ * errors such as 400 fail at once. A server's {@code retry-after} is waited out as given;
+ * otherwise the wait is exponential backoff with full jitter, so concurrent calls that failed
+ * together do not retry together. Overload errors feed a shared {@link CircuitBreaker}.
+ * Attempts, retries and time spent waiting are counted for the run summary.
+ */
+public class RetryPolicy {
+
+    /**
+     * Why a failed call is retried
+     */
+    public enum Reason {
+        RATE_LIMITED, OVERLOADED, SERVER_ERROR, NETWORK, MALFORMED_OUTPUT
+    }
+
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final Duration maxRetryAfter;
+    private final CircuitBreaker circuitBreaker;
+
+    // Metrics, guarded by this
+    private long attempts;
+    private final Map<Reason, Long> retries = new EnumMap<>(Reason.class);
+    private long waitMillis;
+    private long retryAfterWaits;
+    private long rejectedCalls;
+
+    public RetryPolicy() {
+        this(Duration.ofSeconds(1), Duration.ofSeconds(30), Duration.ofMinutes(2),
+                new CircuitBreaker(5, Duration.ofSeconds(30)));
+    }
+
+    /**
+     * Policy whose backoff starts at {@code baseDelay} and doubles up to {@code maxDelay};
+     * a {@code retry-after} longer than {@code maxRetryAfter} ends the retries instead
+     */
+    public RetryPolicy(Duration baseDelay, Duration maxDelay, Duration maxRetryAfter, CircuitBreaker circuitBreaker) {
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.maxRetryAfter = maxRetryAfter;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Run {@code call} up to {@code maxAttempts} times; {@code description} completes
+     * "Failed to ..." in the error thrown when it does not succeed
+     */
+    public <T> T execute(String description, int maxAttempts, Supplier<T> call) {
+        return execute(description, maxAttempts, EnumSet.allOf(Reason.class), call);
+    }
+    
+    /**
+     * Run {@code call} up to {@code maxAttempts} times, retrying only failures for one of
+     * {@code retried}; others are thrown at once, as for a call that must not be sent twice
+     */
+    public <T> T execute(String description, int maxAttempts, Set<Reason> retried, Supplier<T> call) {
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.allowRequest()) {
+                synchronized (this) {
+                    rejectedCalls++;
+                }
+                throw new IllegalStateException("Failed to " + description
+                        + ": circuit breaker is open after repeated rate limit or overload errors");
+            }
+            synchronized (this) {
+                attempts++;
+            }
+
+            try {
+                T result = call.get();
+                circuitBreaker.recordSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                Reason reason = classify(e);
+                if (reason == Reason.RATE_LIMITED || reason == Reason.OVERLOADED) {
+                    circuitBreaker.recordOverload();
+                } else {
+                    circuitBreaker.recordOtherFailure();
+                }
+                if (reason == null || !retried.contains(reason)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    throw new RuntimeException("Failed to " + description + " after " + maxAttempts + " attempts", e);
+                }
+
+                Duration retryAfter = retryAfter(e);
+                if (retryAfter != null && retryAfter.compareTo(maxRetryAfter) > 0) {
+                    throw new RuntimeException("Failed to " + description + ": server asked to retry after "
+                            + retryAfter.toSeconds() + " s", e);
+                }
+                Duration wait = retryAfter != null ? retryAfter : backoff(attempt);
+                synchronized (this) {
+                    retries.merge(reason, 1L, Long::sum);
+                    waitMillis += wait.toMillis();
+                    if (retryAfter != null) {
+                        retryAfterWaits++;
+                    }
+                }
+                System.err.println("Attempt " + attempt + " failed (" + reason.name().toLowerCase() + "): "
+                        + e.getMessage() + "; retrying in " + wait.toMillis() + " ms");
+                try {
+                    Thread.sleep(wait.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted during retry", ie);
+                }
+            }
+        }
+    }
+
+    /**
+     * The reason to retry {@code error}, or null if retrying cannot help
+     */
+    public static Reason classify(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MalformedOutputException) {
+                return Reason.MALFORMED_OUTPUT;
+            }
+            int status = statusCode(cause);
+            if (status == 429) {
+                return Reason.RATE_LIMITED;
+            }
+            if (status == 529) {
+                return Reason.OVERLOADED;
+            }
+            if (status == 408 || status == 409 || status >= 500) {
+                return Reason.SERVER_ERROR;
+            }
+            if (status > 0) {
+                return null;
+            }
+            // Timeouts and dropped connections; a JSON error is not a network failure
+            if (cause instanceof AnthropicIoException
+                    || (cause instanceof IOException && !(cause instanceof JsonProcessingException))) {
+                return Reason.NETWORK;
+            }
+        }
+        return null;
+    }
+
+    // Full jitter: a uniform wait between zero and the exponential ceiling for this attempt
+    private Duration backoff(int attempt) {
+        long ceiling = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(attempt - 1, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    private static int statusCode(Throwable error) {
+        if (error instanceof AnthropicServiceException) {
+            return ((AnthropicServiceException) error).statusCode();
+        }
+        if (error instanceof HttpStatusException) {
+            return ((HttpStatusException) error).getStatusCode();
+        }
+        return 0;
+    }
+
+    // retry-after-ms is more precise; retry-after holds seconds or an HTTP date
+    private static Duration retryAfter(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AnthropicServiceException) {
+                AnthropicServiceException serviceError = (AnthropicServiceException) cause;
+                return parseRetryAfter(first(serviceError.headers().values("retry-after-ms")),
+                        first(serviceError.headers().values("retry-after")));
+            }
+            if (cause instanceof HttpStatusException) {
+                HttpStatusException statusError = (HttpStatusException) cause;
+                return parseRetryAfter(statusError.header("retry-after-ms"), statusError.header("retry-after"));
+            }
+        }
+        return null;
+    }
+
+    static Duration parseRetryAfter(String milliseconds, String value) {
+        try {
+            if (milliseconds != null) {
+                return Duration.ofMillis((long) Double.parseDouble(milliseconds.trim()));
+            }
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Duration.ofMillis((long) (Double.parseDouble(value.trim()) * 1000));
+            } catch (NumberFormatException e) {
+                Duration untilDate = Duration.between(ZonedDateTime.now(),
+                        ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String first(List<String> values) {
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Calls sent, including retries
+     */
+    public synchronized long getAttempts() {
+        return attempts;
+    }
+
+    public synchronized long getRetries() {
+        return retries.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public synchronized Map<Reason, Long> getRetriesByReason() {
+        return new EnumMap<>(retries);
+    }
+
+    /**
+     * Time spent waiting between attempts
+     */
+    public synchronized long getWaitMillis() {
+        return waitMillis;
+    }
+
+    /**
+     * Waits whose length the server set with retry-after
+     */
+    public synchronized long getRetryAfterWaits() {
+        return retryAfterWaits;
+    }
+
+    /**
+     * Calls refused without being sent because the circuit breaker was open
+     */
+    public synchronized long getRejectedCalls() {
+        return rejectedCalls;
+    }
+
+    /**
+     * Response that arrived but could not be parsed; asking again usually helps
+     */
+    static class MalformedOutputException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+
+        MalformedOutputException(String message, String text, Throwable cause) {
+            super(message, cause);
+            this.text = text;
+        }
+
+        String getText() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.releasescribe.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.model.ReleaseNotesField;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses release notes JSON while it is still being streamed. Text is fed as it arrives to
+ * Jackson's non-blocking parser, and the listener is told about each top-level field as soon as
+ * its value is closed. Text before the opening brace, such as a code fence, is skipped, and so
+ * is everything after the closing one. Pieces may split escapes and multibyte characters.
+ */
+class StreamingReleaseNotesParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ReleaseNotesListener listener;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final ReleaseNotes releaseNotes = new ReleaseNotes();
+    private boolean started;
+    private boolean done;
+    private boolean failed;
+    // First half of a surrogate pair that ended the previous piece; encoded alone it would be '?'
+    private String pendingHighSurrogate = "";
+    private int depth;
+    private ReleaseNotesField field;
+    private List<String> items;
+
+    StreamingReleaseNotesParser(ReleaseNotesListener listener) {
+        this.listener = listener;
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create streaming JSON parser", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Parse the next piece of response text
+     */
+    void feed(String text) {
+        if (done || failed) {
+            return;
+        }
+        if (!started) {
+            int start = text.indexOf('{');
+            if (start < 0) {
+                return;
+            }
+            text = text.substring(start);
+            started = true;
+        }
+        text = pendingHighSurrogate + text;
+        pendingHighSurrogate = "";
+        if (!text.isEmpty() && Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+            pendingHighSurrogate = text.substring(text.length() - 1);
+            text = text.substring(0, text.length() - 1);
+        }
+        try {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            feeder.feedInput(bytes, 0, bytes.length);
+            JsonToken token;
+            while (!done && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                handle(token);
+            }
+        } catch (IOException e) {
+            // The caller falls back to the complete text, as for a non-streamed response
+            failed = true;
+        }
+    }
+
+    /**
+     * The parsed release notes, or null if the response was not one complete JSON object
+     */
+    ReleaseNotes finish() {
+        if (!done) {
+            return null;
+        }
+        // Missing fields read as empty, as in a non-streamed response
+        if (releaseNotes.getChangelogMd() == null) {
+            releaseNotes.setChangelogMd("");
+        }
+        if (releaseNotes.getReleaseNotesMd() == null) {
+            releaseNotes.setReleaseNotesMd("");
+        }
+        if (releaseNotes.getCustomerHighlightsMd() == null) {
+            releaseNotes.setCustomerHighlightsMd("");
+        }
+        if (releaseNotes.getBreakingChanges() == null) {
+            releaseNotes.setBreakingChanges(new ArrayList<>());
+        }
+        if (releaseNotes.getUpgradeSteps() == null) {
+            releaseNotes.setUpgradeSteps(new ArrayList<>());
+        }
+        return releaseNotes;
+    }
+
+    private void handle(JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+            case START_ARRAY:
+                depth++;
+                if (depth == 2 && token == JsonToken.START_ARRAY && field != null) {
+                    items = new ArrayList<>();
+                }
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                depth--;
+                if (depth == 1 && items != null) {
+                    complete(items);
+                    items = null;
+                } else if (depth == 0) {
+                    done = true;
+                }
+                break;
+            case FIELD_NAME:
+                if (depth == 1) {
+                    // Fields outside the schema are skipped
+                    field = ReleaseNotesField.fromJsonName(parser.currentName());
+                }
+                break;
+            default:
+                if (depth == 1 && field != null) {
+                    complete(parser.getText());
+                } else if (depth == 2 && items != null) {
+                    items.add(parser.getText());
+                }
+                break;
+        }
+    }
+
+    // Types follow a non-streamed response: a list field given as text reads as empty, and so
+    // does a text field given as a list
+    private void complete(String value) {
+        switch (field) {
+            case CHANGELOG_MD -> releaseNotes.setChangelogMd(value);
+            case RELEASE_NOTES_MD -> releaseNotes.setReleaseNotesMd(value);
+            case CUSTOMER_HIGHLIGHTS_MD -> releaseNotes.setCustomerHighlightsMd(value);
+            case BREAKING_CHANGES -> releaseNotes.setBreakingChanges(new ArrayList<>());
+            case UPGRADE_STEPS -> releaseNotes.setUpgradeSteps(new ArrayList<>());
+        }
+        listener.fieldCompleted(field, releaseNotes);
+    }
+
+    private void complete(List<String> values) {
+        switch (field) {
+            case BREAKING_CHANGES -> releaseNotes.setBreakingChanges(values);
+            case UPGRADE_STEPS -> releaseNotes.setUpgradeSteps(values);
+            case CHANGELOG_MD -> releaseNotes.setChangelogMd("");
+            case RELEASE_NOTES_MD -> releaseNotes.setReleaseNotesMd("");
+            case CUSTOMER_HIGHLIGHTS_MD -> releaseNotes.setCustomerHighlightsMd("");
+        }
+        listener.fieldCompleted(field, releaseNotes);
+    }
+}
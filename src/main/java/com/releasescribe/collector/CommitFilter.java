@@ -0,0 +1,207 @@
+package com.releasescribe.collector;
+
+import com.releasescribe.config.ReleaseScribeConfig;
+import com.releasescribe.model.Commit;
+import com.releasescribe.normalizer.DependencyAggregator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Early-prune rules from the {@code filters} section of {@code .relnotes.yml}, compiled once.
+ * Collectors apply it right after walking commits, before any per-commit PR lookup or diff.
+ */
+public class CommitFilter {
+
+    public static final CommitFilter NONE = new CommitFilter(List.of(), Set.of(), List.of(), List.of(), false);
+
+    private final List<Pattern> excludeAuthors;
+    private final Set<String> excludeTypes;
+    private final List<Pattern> excludeMessages;
+    private final List<Pattern> excludePathsOnly;
+    private final boolean excludeMerges;
+
+    // Guarded by itself: a streamed commit walk can run alongside the PR collection walk
+    private final Set<String> prunedHashes = new HashSet<>();
+
+    private CommitFilter(List<Pattern> excludeAuthors, Set<String> excludeTypes, List<Pattern> excludeMessages,
+                         List<Pattern> excludePathsOnly, boolean excludeMerges) {
+        this.excludeAuthors = excludeAuthors;
+        this.excludeTypes = excludeTypes;
+        this.excludeMessages = excludeMessages;
+        this.excludePathsOnly = excludePathsOnly;
+        this.excludeMerges = excludeMerges;
+    }
+
+    public static CommitFilter compile(ReleaseScribeConfig.Filters filters) {
+        if (filters == null) {
+            return NONE;
+        }
+
+        Set<String> types = new HashSet<>();
+        if (filters.getExcludeTypes() != null) {
+            for (String type : filters.getExcludeTypes()) {
+                types.add(type.toLowerCase());
+            }
+        }
+
+        List<Pattern> messages = new ArrayList<>();
+        if (filters.getExcludeMessages() != null) {
+            for (String message : filters.getExcludeMessages()) {
+                messages.add(Pattern.compile(message));
+            }
+        }
+
+        return new CommitFilter(
+                compileGlobs(filters.getExcludeAuthors(), Pattern.CASE_INSENSITIVE),
+                types,
+                messages,
+                compileGlobs(filters.getExcludePathsOnly(), 0),
+                filters.isExcludeMerges());
+    }
+
+    /**
+     * Whether any rule is configured
+     */
+    public boolean isEnabled() {
+        return excludeMerges || !excludeAuthors.isEmpty() || !excludeTypes.isEmpty()
+                || !excludeMessages.isEmpty() || !excludePathsOnly.isEmpty();
+    }
+
+    /**
+     * Whether the path-only rules are configured; collectors only compute changed files when this is true
+     */
+    public boolean needsChangedFiles() {
+        return !excludePathsOnly.isEmpty();
+    }
+
+    /**
+     * Test the metadata rules (merge, author, conventional type, message) against a collected commit.
+     * The commit must already be lexed so its type is known.
+     */
+    public boolean excludesMetadata(Commit commit) {
+        boolean excluded = (excludeMerges && commit.isMerge())
+                || ((matchesAny(excludeAuthors, commit.getAuthor())
+                        || (commit.getType() != null && excludeTypes.contains(commit.getType())))
+                    && !isDependencyBump(commit))
+                || findsAny(excludeMessages, commit.getMessage());
+        if (excluded) {
+            recordPruned(commit);
+        }
+        return excluded;
+    }
+
+    /**
+     * Test the path-only rules: a commit is excluded when every one of its changed files matches one of them.
+     * Commits without a known file list are kept.
+     */
+    public boolean excludesPaths(Commit commit) {
+        List<String> changedFiles = commit.getChangedFiles();
+        if (excludePathsOnly.isEmpty() || changedFiles == null || changedFiles.isEmpty()) {
+            return false;
+        }
+        for (String file : changedFiles) {
+            if (!matchesAny(excludePathsOnly, file)) {
+                return false;
+            }
+        }
+        recordPruned(commit);
+        return true;
+    }
+
+    /**
+     * Number of distinct commits pruned so far
+     */
+    public int getPrunedCount() {
+        synchronized (prunedHashes) {
+            return prunedHashes.size();
+        }
+    }
+
+    private void recordPruned(Commit commit) {
+        synchronized (prunedHashes) {
+            prunedHashes.add(commit.getHash());
+        }
+    }
+
+    // Bot bumps are exempt from the author and type rules: the dependency aggregator needs their PRs
+    private static boolean isDependencyBump(Commit commit) {
+        String message = commit.getMessage();
+        if (message == null) {
+            return false;
+        }
+        int end = message.indexOf('\n');
+        return DependencyAggregator.isDependencyUpdate(commit.getAuthor(), end >= 0 ? message.substring(0, end) : message);
+    }
+
+    private static boolean matchesAny(List<Pattern> patterns, String value) {
+        if (value == null) {
+            return false;
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(value).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean findsAny(List<Pattern> patterns, String value) {
+        if (value == null) {
+            return false;
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(value).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Pattern> compileGlobs(List<String> globs, int flags) {
+        List<Pattern> patterns = new ArrayList<>();
+        if (globs != null) {
+            for (String glob : globs) {
+                patterns.add(Pattern.compile(globToRegex(glob), flags));
+            }
+        }
+        return patterns;
+    }
+
+    // "**" crosses directories, "*" stays within one, "?" is a single character; everything else is literal
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() + 8);
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                if (c == '?') {
+                    regex.append("[^/]");
+                } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    regex.append(".*");
+                    i++;
+                    // "**/" also matches zero directories
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '/') {
+                        regex.append("/?");
+                        i++;
+                    }
+                } else {
+                    regex.append("[^/]*");
+                }
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+}
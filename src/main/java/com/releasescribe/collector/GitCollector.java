@@ -1,6 +1,8 @@
 package com.releasescribe.collector;
 
 import com.releasescribe.model.Commit;
+import com.releasescribe.model.CommitBatch;
+import com.releasescribe.model.ConventionalCommit;
 import com.releasescribe.model.PullRequest;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.LogCommand;
@@ -8,26 +10,44 @@ import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.Flow;
 
-public class GitCollector implements ScmCollector {
+public class GitCollector implements StreamingScmCollector {
     
-    private static final Pattern CONVENTIONAL_COMMIT = Pattern.compile(
-        "^(feat|fix|docs|style|refactor|perf|test|chore|security)(\\(([^)]+)\\))?: (.+)$"
-    );
+    // Commits per streamed page and pages walked ahead of the normalizer
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_BUFFERED_PAGES = 4;
     
     private final String repoPath;
+    private final CommitFilter commitFilter;
+    
+    // Message bodies reloaded most recently; stages tend to read the same commit more than once
+    private static final int MESSAGE_CACHE_SIZE = 256;
+    
+    // Kept open for lazily loading message bodies dropped by CommitBatch, until close()
+    private Repository messageRepository;
+    private final Map<String, String> loadedMessages = new LinkedHashMap<>(16, 0.75f, true);
     
     public GitCollector(String repoPath) {
+        this(repoPath, CommitFilter.NONE);
+    }
+    
+    public GitCollector(String repoPath, CommitFilter commitFilter) {
         this.repoPath = repoPath;
+        this.commitFilter = commitFilter;
     }
     
     @Override
@@ -66,18 +86,19 @@ public class GitCollector implements ScmCollector {
             
             Iterable<RevCommit> commits = logCommand.call();
             
-            List<Commit> result = new ArrayList<>();
+            CommitBatch result = new CommitBatch(this::loadMessage);
             for (RevCommit revCommit : commits) {
                 Commit commit = parseCommit(revCommit);
                 
                 // Filter by date range manually
                 if (commit.getDate().isAfter(since.minusSeconds(1)) && 
-                    commit.getDate().isBefore(until.plusSeconds(1))) {
+                    commit.getDate().isBefore(until.plusSeconds(1)) &&
+                    !isPruned(repository, revCommit, commit)) {
                     result.add(commit);
                 }
             }
             
-            return result;
+            return result.asList();
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to collect commits", e);
@@ -102,13 +123,15 @@ public class GitCollector implements ScmCollector {
             
             Iterable<RevCommit> commits = logCommand.call();
             
-            List<Commit> result = new ArrayList<>();
+            CommitBatch result = new CommitBatch(this::loadMessage);
             for (RevCommit revCommit : commits) {
                 Commit commit = parseCommit(revCommit);
-                result.add(commit);
+                if (!isPruned(repository, revCommit, commit)) {
+                    result.add(commit);
+                }
             }
             
-            return result;
+            return result.asList();
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to collect commits by tags", e);
@@ -133,19 +156,111 @@ public class GitCollector implements ScmCollector {
             
             Iterable<RevCommit> commits = logCommand.call();
             
-            List<Commit> result = new ArrayList<>();
+            CommitBatch result = new CommitBatch(this::loadMessage);
             for (RevCommit revCommit : commits) {
                 Commit commit = parseCommit(revCommit);
-                result.add(commit);
+                if (!isPruned(repository, revCommit, commit)) {
+                    result.add(commit);
+                }
             }
             
-            return result;
+            return result.asList();
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to collect commits by range", e);
         }
     }
     
+    @Override
+    public Flow.Publisher<List<Commit>> streamCommits(String owner, String repo, 
+                                                      LocalDateTime since, LocalDateTime until) {
+        return new PagePublisher<>("git-log", () -> {
+            Repository repository = openRepository();
+            try {
+                Iterator<RevCommit> commits = new Git(repository).log().call().iterator();
+                return new CommitPages(repository, commits, since, until);
+            } catch (Exception e) {
+                repository.close();
+                throw e;
+            }
+        }, MAX_BUFFERED_PAGES);
+    }
+    
+    @Override
+    public Flow.Publisher<List<Commit>> streamCommitsByTags(String owner, String repo, 
+                                                            String sinceTag, String untilTag) {
+        return streamCommitsByRange(owner, repo, sinceTag, untilTag);
+    }
+    
+    @Override
+    public Flow.Publisher<List<Commit>> streamCommitsByRange(String owner, String repo, 
+                                                             String base, String head) {
+        return new PagePublisher<>("git-log", () -> {
+            Repository repository = openRepository();
+            try {
+                ObjectId baseId = repository.resolve(base);
+                ObjectId headId = repository.resolve(head);
+                
+                if (baseId == null || headId == null) {
+                    throw new RuntimeException("Could not resolve refs: " + base + " or " + head);
+                }
+                
+                Iterator<RevCommit> commits = new Git(repository).log().addRange(baseId, headId).call().iterator();
+                return new CommitPages(repository, commits, null, null);
+            } catch (Exception e) {
+                repository.close();
+                throw e;
+            }
+        }, MAX_BUFFERED_PAGES);
+    }
+    
+    @Override
+    public Flow.Publisher<List<PullRequest>> streamPullRequests(String owner, String repo, 
+                                                                Flow.Publisher<List<Commit>> commitPages,
+                                                                LocalDateTime since, LocalDateTime until) {
+        // Git collector doesn't have PR information, publish nothing and leave the commits alone
+        return new PagePublisher<>("git-pulls", () -> () -> null, 1);
+    }
+    
+    @Override
+    public CommitBatch.MessageLoader getMessageLoader() {
+        return this::loadMessage;
+    }
+    
+    private synchronized String loadMessage(String hash) {
+        String message = loadedMessages.get(hash);
+        if (message != null) {
+            return message;
+        }
+        try {
+            if (messageRepository == null) {
+                messageRepository = openRepository();
+            }
+            message = messageRepository.parseCommit(ObjectId.fromString(hash)).getFullMessage();
+            loadedMessages.put(hash, message);
+            if (loadedMessages.size() > MESSAGE_CACHE_SIZE) {
+                // Access order: the first entry is the least recently read
+                loadedMessages.remove(loadedMessages.keySet().iterator().next());
+            }
+            return message;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load commit message for " + hash, e);
+        }
+    }
+    
+    /**
+     * Close the repository opened for message bodies; bodies of collected commits cannot be
+     * reloaded afterwards
+     */
+    @Override
+    public synchronized void close() {
+        if (messageRepository != null) {
+            messageRepository.close();
+            messageRepository = null;
+        }
+        loadedMessages.clear();
+    }
+    
     private Repository openRepository() throws IOException {
         FileRepositoryBuilder builder = new FileRepositoryBuilder();
         return builder.setGitDir(new File(repoPath, ".git"))
@@ -154,6 +269,79 @@ public class GitCollector implements ScmCollector {
                      .build();
     }
     
+    private boolean isPruned(Repository repository, RevCommit revCommit, Commit commit) throws IOException {
+        if (commitFilter.excludesMetadata(commit)) {
+            return true;
+        }
+        // Only diff when path rules are configured and the cheap rules kept the commit
+        if (commitFilter.needsChangedFiles()) {
+            commit.setChangedFiles(listChangedFiles(repository, revCommit));
+            return commitFilter.excludesPaths(commit);
+        }
+        return false;
+    }
+    
+    private List<String> listChangedFiles(Repository repository, RevCommit revCommit) throws IOException {
+        try (TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(TreeFilter.ANY_DIFF);
+            if (revCommit.getParentCount() > 0) {
+                treeWalk.addTree(repository.parseCommit(revCommit.getParent(0)).getTree());
+            } else {
+                treeWalk.addTree(new EmptyTreeIterator());
+            }
+            treeWalk.addTree(revCommit.getTree());
+            
+            List<String> files = new ArrayList<>();
+            while (treeWalk.next()) {
+                files.add(treeWalk.getPathString());
+            }
+            return files;
+        }
+    }
+    
+    /**
+     * Walks the log in fixed-size pages; the repository stays open until the walk ends
+     */
+    private class CommitPages implements PagePublisher.PageSource<Commit> {
+        
+        private final Repository repository;
+        private final Iterator<RevCommit> commits;
+        private final LocalDateTime since;
+        private final LocalDateTime until;
+        
+        CommitPages(Repository repository, Iterator<RevCommit> commits, LocalDateTime since, LocalDateTime until) {
+            this.repository = repository;
+            this.commits = commits;
+            this.since = since;
+            this.until = until;
+        }
+        
+        @Override
+        public List<Commit> nextPage() throws IOException {
+            if (!commits.hasNext()) {
+                return null;
+            }
+            List<Commit> page = new ArrayList<>(PAGE_SIZE);
+            while (page.size() < PAGE_SIZE && commits.hasNext()) {
+                RevCommit revCommit = commits.next();
+                Commit commit = parseCommit(revCommit);
+                if (since != null && (commit.getDate().isBefore(since) || commit.getDate().isAfter(until))) {
+                    continue;
+                }
+                if (!isPruned(repository, revCommit, commit)) {
+                    page.add(commit);
+                }
+            }
+            return page;
+        }
+        
+        @Override
+        public void close() {
+            repository.close();
+        }
+    }
+    
     private Commit parseCommit(RevCommit revCommit) {
         Commit commit = new Commit();
         commit.setHash(revCommit.getId().getName());
@@ -163,59 +351,10 @@ public class GitCollector implements ScmCollector {
             revCommit.getAuthorIdent().getWhen().toInstant(), 
             ZoneOffset.UTC
         ));
+        commit.setMerge(revCommit.getParentCount() > 1);
         
-        // Parse conventional commit format
-        String message = revCommit.getShortMessage();
-        Matcher matcher = CONVENTIONAL_COMMIT.matcher(message);
-        
-        if (matcher.matches()) {
-            String type = matcher.group(1);
-            String scope = matcher.group(3);
-            String description = matcher.group(4);
-            
-            // Map conventional commit types to categories
-            switch (type) {
-                case "feat":
-                    commit.setCategory("feature");
-                    break;
-                case "fix":
-                    commit.setCategory("fix");
-                    break;
-                case "docs":
-                    commit.setCategory("docs");
-                    break;
-                case "perf":
-                    commit.setCategory("perf");
-                    break;
-                case "security":
-                    commit.setCategory("security");
-                    break;
-                case "refactor":
-                    commit.setCategory("refactor");
-                    break;
-                default:
-                    commit.setCategory("other");
-            }
-            
-            commit.setComponent(scope);
-        } else {
-            // Fallback heuristics
-            if (message.toLowerCase().startsWith("feat") || 
-                message.toLowerCase().contains("feature")) {
-                commit.setCategory("feature");
-            } else if (message.toLowerCase().startsWith("fix") || 
-                      message.toLowerCase().contains("bug")) {
-                commit.setCategory("fix");
-            } else if (message.toLowerCase().contains("security") || 
-                      message.toLowerCase().contains("cve")) {
-                commit.setCategory("security");
-            } else if (message.toLowerCase().contains("perf") || 
-                      message.toLowerCase().contains("performance")) {
-                commit.setCategory("perf");
-            } else {
-                commit.setCategory("other");
-            }
-        }
+        // Lex the conventional commit header once; the normalizer reuses it
+        ConventionalCommit.annotate(commit);
         
         return commit;
     }
@@ -1,9 +1,15 @@
 package com.releasescribe.collector;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.releasescribe.model.Commit;
+import com.releasescribe.model.ConventionalCommit;
 import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.PullRequestField;
+import com.releasescribe.model.Trailers;
+import com.releasescribe.util.IntHashSet;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -12,22 +18,50 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
 
-public class GitHubCollector implements ScmCollector {
+public class GitHubCollector implements StreamingScmCollector {
     
     private static final String GITHUB_API_BASE = "https://api.github.com";
     private static final String GITHUB_API_VERSION = "application/vnd.github.v3+json";
     
+    // Pages fetched ahead of the normalizer before streaming blocks
+    private static final int MAX_BUFFERED_PAGES = 4;
+    
+    // Lazily fetched bodies are only scanned for footers and migration notes
+    private static final int MAX_LAZY_BODY_CHARS = 8000;
+    
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
     private final String token;
+    private final CommitFilter commitFilter;
+    private final Set<PullRequestField> fields;
+    // Set once GitHub refuses a lazy body fetch for auth or rate limits
+    private volatile boolean bodyFetchesDisabled;
     
     public GitHubCollector(String token) {
+        this(token, CommitFilter.NONE);
+    }
+    
+    public GitHubCollector(String token, CommitFilter commitFilter) {
+        this(token, commitFilter, EnumSet.allOf(PullRequestField.class));
+    }
+    
+    /**
+     * Collector that reads only {@code fields} of each pull request; bodies outside the
+     * projection are fetched on first access
+     */
+    public GitHubCollector(String token, CommitFilter commitFilter, Set<PullRequestField> fields) {
         this.httpClient = new OkHttpClient();
         this.objectMapper = new ObjectMapper();
         this.token = token;
+        this.commitFilter = commitFilter;
+        this.fields = EnumSet.noneOf(PullRequestField.class);
+        this.fields.addAll(fields);
     }
     
     @Override
@@ -38,15 +72,10 @@ public class GitHubCollector implements ScmCollector {
             List<Commit> commits = collectCommits(owner, repo, since, until);
             
             // For each commit, get associated PRs
-            List<PullRequest> allPRs = new ArrayList<>();
-            for (Commit commit : commits) {
-                List<PullRequest> prs = getPullRequestsForCommit(owner, repo, commit.getHash());
-                allPRs.addAll(prs);
-            }
+            List<PullRequest> allPRs = collectPullRequestsForCommits(owner, repo, commits);
             
-            // Remove duplicates and filter by date range
+            // Filter by date range
             return allPRs.stream()
-                    .distinct()
                     .filter(pr -> pr.getMergedAt() != null)
                     .filter(pr -> !pr.getMergedAt().isBefore(since) && !pr.getMergedAt().isAfter(until))
                     .collect(Collectors.toList());
@@ -64,13 +93,7 @@ public class GitHubCollector implements ScmCollector {
             List<Commit> commits = collectCommitsByTags(owner, repo, sinceTag, untilTag);
             
             // For each commit, get associated PRs
-            List<PullRequest> allPRs = new ArrayList<>();
-            for (Commit commit : commits) {
-                List<PullRequest> prs = getPullRequestsForCommit(owner, repo, commit.getHash());
-                allPRs.addAll(prs);
-            }
-            
-            return allPRs.stream().distinct().collect(Collectors.toList());
+            return collectPullRequestsForCommits(owner, repo, commits);
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to collect pull requests by tags", e);
@@ -85,13 +108,7 @@ public class GitHubCollector implements ScmCollector {
             List<Commit> commits = collectCommitsByRange(owner, repo, base, head);
             
             // For each commit, get associated PRs
-            List<PullRequest> allPRs = new ArrayList<>();
-            for (Commit commit : commits) {
-                List<PullRequest> prs = getPullRequestsForCommit(owner, repo, commit.getHash());
-                allPRs.addAll(prs);
-            }
-            
-            return allPRs.stream().distinct().collect(Collectors.toList());
+            return collectPullRequestsForCommits(owner, repo, commits);
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to collect pull requests by range", e);
@@ -108,7 +125,7 @@ public class GitHubCollector implements ScmCollector {
             String url = String.format("%s/repos/%s/%s/commits?since=%s&until=%s&per_page=100",
                     GITHUB_API_BASE, owner, repo, sinceStr, untilStr);
             
-            return fetchCommits(url);
+            return fetchAllCommits(url, false);
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to collect commits", e);
@@ -122,7 +139,7 @@ public class GitHubCollector implements ScmCollector {
             String url = String.format("%s/repos/%s/%s/compare/%s...%s?per_page=100",
                     GITHUB_API_BASE, owner, repo, sinceTag, untilTag);
             
-            return fetchCommitsFromCompare(url);
+            return fetchAllCommits(url, true);
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to collect commits by tags", e);
@@ -136,13 +153,81 @@ public class GitHubCollector implements ScmCollector {
             String url = String.format("%s/repos/%s/%s/compare/%s...%s?per_page=100",
                     GITHUB_API_BASE, owner, repo, base, head);
             
-            return fetchCommitsFromCompare(url);
+            return fetchAllCommits(url, true);
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to collect commits by range", e);
         }
     }
     
+    @Override
+    public Flow.Publisher<List<Commit>> streamCommits(String owner, String repo, 
+                                                      LocalDateTime since, LocalDateTime until) {
+        String sinceStr = since.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "Z";
+        String untilStr = until.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "Z";
+        
+        String url = String.format("%s/repos/%s/%s/commits?since=%s&until=%s&per_page=100",
+                GITHUB_API_BASE, owner, repo, sinceStr, untilStr);
+        
+        return new PagePublisher<>("github-commits", () -> new CommitPages(url, false), MAX_BUFFERED_PAGES);
+    }
+    
+    @Override
+    public Flow.Publisher<List<Commit>> streamCommitsByTags(String owner, String repo, 
+                                                            String sinceTag, String untilTag) {
+        return streamCommitsByRange(owner, repo, sinceTag, untilTag);
+    }
+    
+    @Override
+    public Flow.Publisher<List<Commit>> streamCommitsByRange(String owner, String repo, 
+                                                             String base, String head) {
+        String url = String.format("%s/repos/%s/%s/compare/%s...%s?per_page=100",
+                GITHUB_API_BASE, owner, repo, base, head);
+        
+        return new PagePublisher<>("github-compare", () -> new CommitPages(url, true), MAX_BUFFERED_PAGES);
+    }
+    
+    @Override
+    public Flow.Publisher<List<PullRequest>> streamPullRequests(String owner, String repo, 
+                                                                Flow.Publisher<List<Commit>> commitPages,
+                                                                LocalDateTime since, LocalDateTime until) {
+        if (!(commitPages instanceof PagePublisher)) {
+            throw new IllegalArgumentException("Commit pages must come from streamCommits");
+        }
+        // Share the commit pages with the normalizer instead of paging the commits again
+        ((PagePublisher<?>) commitPages).expectSubscriber();
+        return new PagePublisher<>("github-pulls",
+                () -> new PullRequestPages(owner, repo, new SubscribedPageSource<>(commitPages), since, until), 
+                MAX_BUFFERED_PAGES);
+    }
+    
+    private List<PullRequest> collectPullRequestsForCommits(String owner, String repo, List<Commit> commits) {
+        // Merge PRs by number, remembering which commits in the range each PR covers
+        IntHashSet prNumbers = new IntHashSet();
+        List<PullRequest> prs = new ArrayList<>();
+        for (Commit commit : commits) {
+            mergePullRequestsForCommit(owner, repo, commit, prNumbers, prs);
+        }
+        return prs;
+    }
+    
+    // Adds PRs not seen before to prs and returns them; known PRs only gain the commit hash
+    private List<PullRequest> mergePullRequestsForCommit(String owner, String repo, Commit commit,
+                                                         IntHashSet prNumbers, List<PullRequest> prs) {
+        List<PullRequest> added = new ArrayList<>();
+        for (PullRequest pr : getPullRequestsForCommit(owner, repo, commit.getHash())) {
+            if (prNumbers.add(pr.getNumber())) {
+                prs.add(pr);
+                added.add(pr);
+            }
+            PullRequest merged = prs.get(prNumbers.indexOf(pr.getNumber()));
+            if (!merged.getCommitHashes().contains(commit.getHash())) {
+                merged.getCommitHashes().add(commit.getHash());
+            }
+        }
+        return added;
+    }
+    
     private List<PullRequest> getPullRequestsForCommit(String owner, String repo, String commitHash) {
         try {
             String url = String.format("%s/repos/%s/%s/commits/%s/pulls",
@@ -159,13 +244,14 @@ public class GitHubCollector implements ScmCollector {
                     return new ArrayList<>();
                 }
                 
-                String responseBody = response.body().string();
-                JsonNode jsonNode = objectMapper.readTree(responseBody);
-                
+                // Stream the array so unprojected fields are skipped instead of built into a tree
                 List<PullRequest> prs = new ArrayList<>();
-                for (JsonNode prNode : jsonNode) {
-                    PullRequest pr = parsePullRequest(prNode);
-                    prs.add(pr);
+                try (JsonParser parser = objectMapper.getFactory().createParser(response.body().byteStream())) {
+                    if (parser.nextToken() == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            prs.add(parsePullRequest(parser, owner, repo));
+                        }
+                    }
                 }
                 
                 return prs;
@@ -176,86 +262,273 @@ public class GitHubCollector implements ScmCollector {
         }
     }
     
-    private List<Commit> fetchCommits(String url) throws IOException {
-        Request request = new Request.Builder()
-                .url(url)
-                .addHeader("Accept", GITHUB_API_VERSION)
-                .addHeader("Authorization", "token " + token)
-                .build();
-        
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("Failed to fetch commits: " + response.code());
-            }
+    // Fetches a body left out by the projection, truncated around the middle. Returns "" for a
+    // PR without a body and null if the fetch failed; the failure is reported, not thrown, since
+    // the body only refines the notes
+    private String fetchPullRequestBody(String owner, String repo, int number) {
+        if (bodyFetchesDisabled) {
+            return null;
+        }
+        try {
+            String url = String.format("%s/repos/%s/%s/pulls/%d", GITHUB_API_BASE, owner, repo, number);
             
-            String responseBody = response.body().string();
-            JsonNode jsonNode = objectMapper.readTree(responseBody);
+            Request request = new Request.Builder()
+                    .url(url)
+                    .addHeader("Accept", GITHUB_API_VERSION)
+                    .addHeader("Authorization", "token " + token)
+                    .build();
             
-            List<Commit> commits = new ArrayList<>();
-            for (JsonNode commitNode : jsonNode) {
-                Commit commit = parseCommit(commitNode);
-                commits.add(commit);
+            try (Response response = httpClient.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    // Auth and rate-limit errors would fail every later fetch the same way
+                    if (response.code() == 401 || response.code() == 403 || response.code() == 429) {
+                        bodyFetchesDisabled = true;
+                        System.err.println("Warning: failed to fetch body of PR #" + number + ": HTTP " 
+                                + response.code() + "; skipping the remaining PR bodies");
+                    } else {
+                        System.err.println("Warning: failed to fetch body of PR #" + number + ": HTTP " + response.code());
+                    }
+                    return null;
+                }
+                try (JsonParser parser = objectMapper.getFactory().createParser(response.body().byteStream())) {
+                    String body = parser.nextToken() == JsonToken.START_OBJECT ? readTextField(parser, "body") : null;
+                    if (body == null) {
+                        return "";
+                    }
+                    if (body.length() <= MAX_LAZY_BODY_CHARS) {
+                        return body;
+                    }
+                    // Keep both ends: migration notes tend to lead, trailers always close the body
+                    int half = MAX_LAZY_BODY_CHARS / 2;
+                    return body.substring(0, half) + "\n\n" + body.substring(body.length() - half);
+                }
             }
             
-            return commits;
+        } catch (IOException e) {
+            System.err.println("Warning: failed to fetch body of PR #" + number + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    // Reads every page through the same Link-following reader as the streamed path
+    private List<Commit> fetchAllCommits(String url, boolean compare) throws IOException {
+        List<Commit> commits = new ArrayList<>();
+        CommitPages pages = new CommitPages(url, compare);
+        List<Commit> page;
+        while ((page = pages.nextPage()) != null) {
+            commits.addAll(page);
+        }
+        return commits;
+    }
+    
+    private List<Commit> parseCommitPage(JsonNode commitsNode) {
+        List<Commit> commits = new ArrayList<>();
+        for (JsonNode commitNode : commitsNode) {
+            Commit commit = parseCommit(commitNode);
+            // Prune before any per-commit PR lookup; list responses carry no file lists
+            if (!commitFilter.excludesMetadata(commit)) {
+                commits.add(commit);
+            }
+        }
+        return commits;
+    }
+    
+    // Extracts the rel="next" target from a Link header, or null on the last page
+    private static String nextPageUrl(String linkHeader) {
+        if (linkHeader == null) {
+            return null;
         }
+        for (String link : linkHeader.split(",")) {
+            int open = link.indexOf('<');
+            int close = link.indexOf('>', open + 1);
+            if (open >= 0 && close > open && link.substring(close).contains("rel=\"next\"")) {
+                return link.substring(open + 1, close);
+            }
+        }
+        return null;
     }
     
-    private List<Commit> fetchCommitsFromCompare(String url) throws IOException {
-        Request request = new Request.Builder()
-                .url(url)
-                .addHeader("Accept", GITHUB_API_VERSION)
-                .addHeader("Authorization", "token " + token)
-                .build();
+    /**
+     * Follows Link pagination one page per request, so only the pages in flight are held
+     */
+    private class CommitPages implements PagePublisher.PageSource<Commit> {
         
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("Failed to fetch commits: " + response.code());
+        private final boolean compare;
+        private String nextUrl;
+        
+        CommitPages(String url, boolean compare) {
+            this.nextUrl = url;
+            this.compare = compare;
+        }
+        
+        @Override
+        public List<Commit> nextPage() throws IOException {
+            if (nextUrl == null) {
+                return null;
             }
+            Request request = new Request.Builder()
+                    .url(nextUrl)
+                    .addHeader("Accept", GITHUB_API_VERSION)
+                    .addHeader("Authorization", "token " + token)
+                    .build();
             
-            String responseBody = response.body().string();
-            JsonNode jsonNode = objectMapper.readTree(responseBody);
-            JsonNode commitsNode = jsonNode.get("commits");
-            
-            List<Commit> commits = new ArrayList<>();
-            for (JsonNode commitNode : commitsNode) {
-                Commit commit = parseCommit(commitNode);
-                commits.add(commit);
+            try (Response response = httpClient.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    throw new IOException("Failed to fetch commits: " + response.code());
+                }
+                nextUrl = nextPageUrl(response.header("Link"));
+                
+                JsonNode jsonNode = objectMapper.readTree(response.body().string());
+                return parseCommitPage(compare ? jsonNode.get("commits") : jsonNode);
             }
-            
-            return commits;
         }
     }
     
-    private PullRequest parsePullRequest(JsonNode prNode) {
-        PullRequest pr = new PullRequest();
-        pr.setNumber(prNode.get("number").asInt());
-        pr.setTitle(prNode.get("title").asText());
-        pr.setBody(prNode.has("body") ? prNode.get("body").asText() : "");
-        pr.setAuthor(prNode.get("user").get("login").asText());
+    /**
+     * Looks up the PRs of one page of commits at a time and publishes those not seen before.
+     * Commit hashes found later are still recorded on PRs that were already published.
+     */
+    private class PullRequestPages implements PagePublisher.PageSource<PullRequest> {
         
-        if (prNode.has("merged_at") && !prNode.get("merged_at").isNull()) {
-            String mergedAtStr = prNode.get("merged_at").asText();
-            pr.setMergedAt(LocalDateTime.parse(mergedAtStr.substring(0, 19)));
+        private final String owner;
+        private final String repo;
+        private final PagePublisher.PageSource<Commit> commitPages;
+        private final LocalDateTime since;
+        private final LocalDateTime until;
+        private final IntHashSet prNumbers = new IntHashSet();
+        private final List<PullRequest> prs = new ArrayList<>();
+        
+        PullRequestPages(String owner, String repo, PagePublisher.PageSource<Commit> commitPages, 
+                         LocalDateTime since, LocalDateTime until) {
+            this.owner = owner;
+            this.repo = repo;
+            this.commitPages = commitPages;
+            this.since = since;
+            this.until = until;
         }
         
-        // Parse labels
+        @Override
+        public List<PullRequest> nextPage() throws Exception {
+            List<Commit> commits = commitPages.nextPage();
+            if (commits == null) {
+                return null;
+            }
+            List<PullRequest> page = new ArrayList<>();
+            for (Commit commit : commits) {
+                for (PullRequest pr : mergePullRequestsForCommit(owner, repo, commit, prNumbers, prs)) {
+                    // Same merged-date filter as collectPullRequests
+                    if (since == null || (pr.getMergedAt() != null 
+                            && !pr.getMergedAt().isBefore(since) && !pr.getMergedAt().isAfter(until))) {
+                        page.add(pr);
+                    }
+                }
+            }
+            return page;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            commitPages.close();
+        }
+    }
+    
+    // Reads only the projected fields; string values that are skipped are never decoded
+    private PullRequest parsePullRequest(JsonParser parser, String owner, String repo) throws IOException {
+        PullRequest pr = new PullRequest();
         List<String> labels = new ArrayList<>();
-        if (prNode.has("labels")) {
-            for (JsonNode labelNode : prNode.get("labels")) {
-                labels.add(labelNode.get("name").asText());
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "number":
+                    pr.setNumber(parser.getIntValue());
+                    break;
+                case "title":
+                    if (fields.contains(PullRequestField.TITLE)) {
+                        pr.setTitle(parser.getText());
+                    }
+                    break;
+                case "body":
+                    if (fields.contains(PullRequestField.BODY)) {
+                        pr.setBody(parser.getText());
+                    }
+                    break;
+                case "user":
+                    if (fields.contains(PullRequestField.AUTHOR)) {
+                        pr.setAuthor(readTextField(parser, "login"));
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "merged_at":
+                    pr.setMergedAt(LocalDateTime.parse(parser.getText().substring(0, 19)));
+                    break;
+                case "updated_at":
+                    if (fields.contains(PullRequestField.UPDATED_AT)) {
+                        pr.setUpdatedAt(LocalDateTime.parse(parser.getText().substring(0, 19)));
+                    }
+                    break;
+                case "merge_commit_sha":
+                    if (fields.contains(PullRequestField.MERGE_COMMIT_SHA)) {
+                        pr.setMergeCommitSha(parser.getText());
+                    }
+                    break;
+                case "labels":
+                    if (fields.contains(PullRequestField.LABELS)) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            labels.add(readTextField(parser, "name"));
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
             }
         }
         pr.setLabels(labels);
         
+        if (fields.contains(PullRequestField.BODY)) {
+            if (pr.getBody() == null) {
+                pr.setBody("");
+            }
+            // Index the footer block once for breaking-change and issue references
+            Trailers trailers = Trailers.parse(pr.getBody());
+            pr.setTrailers(trailers);
+            pr.setLinkedIssues(new ArrayList<>(trailers.getLinkedIssues()));
+        } else {
+            // Fetched on first access, for the PRs the normalizer decides need it
+            pr.setBodyLoader(number -> fetchPullRequestBody(owner, repo, number));
+        }
+        
         // Check for breaking change label
+        String title = pr.getTitle() != null ? pr.getTitle() : "";
         pr.setBreakingChange(labels.contains("breaking-change") || 
                            labels.contains("breaking") ||
-                           pr.getTitle().toLowerCase().contains("breaking"));
+                           title.toLowerCase().contains("breaking") ||
+                           (pr.getTrailers() != null && pr.getTrailers().isBreaking()));
         
         return pr;
     }
     
+    // Returns the text of one field of the current object and consumes the rest of it
+    private static String readTextField(JsonParser parser, String name) throws IOException {
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (field.equals(name) && token != JsonToken.VALUE_NULL) {
+                value = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+    
     private Commit parseCommit(JsonNode commitNode) {
         Commit commit = new Commit();
         commit.setHash(commitNode.get("sha").asText());
@@ -266,6 +539,10 @@ public class GitHubCollector implements ScmCollector {
         
         String dateStr = commitInfo.get("author").get("date").asText();
         commit.setDate(LocalDateTime.parse(dateStr.substring(0, 19)));
+        commit.setMerge(commitNode.has("parents") && commitNode.get("parents").size() > 1);
+        
+        // Lex the conventional commit header once; the normalizer reuses it
+        ConventionalCommit.annotate(commit);
         
         return commit;
     }
@@ -0,0 +1,113 @@
+package com.releasescribe.collector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Publisher that pulls pages from a {@link PageSource} on its own thread. It serves one
+ * subscriber unless more are announced with {@link #expectSubscriber()}; production starts once
+ * all have subscribed, and each receives every page. At most {@code maxBufferedPages}
+ * undelivered pages are held per subscriber; beyond that the producer blocks until the
+ * subscriber requests more, so the slowest consumer throttles collection.
+ */
+class PagePublisher<T> implements Flow.Publisher<List<T>> {
+
+    /**
+     * Source of pages, opened and closed on the producer thread
+     */
+    interface PageSource<T> extends AutoCloseable {
+
+        /**
+         * Next page, or null once the range is exhausted
+         */
+        List<T> nextPage() throws Exception;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    private final String name;
+    private final Callable<PageSource<T>> opener;
+    private final int maxBufferedPages;
+    private final List<Flow.Subscriber<? super List<T>>> subscribers = new ArrayList<>();
+    private int expectedSubscribers = 1;
+
+    PagePublisher(String name, Callable<PageSource<T>> opener, int maxBufferedPages) {
+        this.name = name;
+        this.opener = opener;
+        this.maxBufferedPages = maxBufferedPages;
+    }
+
+    /**
+     * Wait for one more subscriber before producing, so a second consumer shares the pages
+     * instead of fetching them again
+     */
+    synchronized void expectSubscriber() {
+        if (subscribers.size() >= expectedSubscribers) {
+            throw new IllegalStateException(name + " is already producing");
+        }
+        expectedSubscribers++;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<T>> subscriber) {
+        boolean accepted;
+        boolean complete;
+        synchronized (this) {
+            accepted = subscribers.size() < expectedSubscribers;
+            if (accepted) {
+                subscribers.add(subscriber);
+            }
+            complete = subscribers.size() == expectedSubscribers;
+        }
+        if (!accepted) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException(name + " supports " + expectedSubscribers 
+                    + (expectedSubscribers == 1 ? " subscriber" : " subscribers")));
+            return;
+        }
+        if (!complete) {
+            return;
+        }
+
+        // Subscribe everyone before producing so no page misses a subscriber
+        SubmissionPublisher<List<T>> publisher = new SubmissionPublisher<>(ForkJoinPool.commonPool(), maxBufferedPages);
+        for (Flow.Subscriber<? super List<T>> each : subscribers) {
+            publisher.subscribe(each);
+        }
+
+        Thread producer = new Thread(() -> produce(publisher), name);
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    private void produce(SubmissionPublisher<List<T>> publisher) {
+        try (PageSource<T> source = opener.call()) {
+            List<T> page;
+            // Stop early once the subscriber cancels
+            while (publisher.hasSubscribers() && (page = source.nextPage()) != null) {
+                if (!page.isEmpty()) {
+                    // Blocks while the subscriber's buffer is full
+                    publisher.submit(page);
+                }
+            }
+            publisher.close();
+        } catch (Exception e) {
+            publisher.closeExceptionally(e);
+        }
+    }
+}
@@ -6,7 +6,7 @@ import com.releasescribe.model.PullRequest;
 import java.time.LocalDateTime;
 import java.util.List;
 
-public interface ScmCollector {
+public interface ScmCollector extends AutoCloseable {
     
     /**
      * Collect pull requests within the specified range
@@ -43,5 +43,11 @@ public interface ScmCollector {
      */
     List<Commit> collectCommitsByRange(String owner, String repo, 
                                       String base, String head);
+    
+    /**
+     * Release anything the collector kept open for lazily loaded data
+     */
+    @Override
+    default void close() {}
 }
 
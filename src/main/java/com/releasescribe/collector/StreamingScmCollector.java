@@ -0,0 +1,53 @@
+package com.releasescribe.collector;
+
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.CommitBatch;
+import com.releasescribe.model.PullRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * Page-at-a-time variant of {@link ScmCollector}. Pages are published as soon as they are
+ * fetched, and collection pauses while the subscriber is behind. Each publisher accepts a
+ * single subscriber and starts collecting when it subscribes.
+ */
+public interface StreamingScmCollector extends ScmCollector {
+
+    /**
+     * Stream commits within the specified range
+     */
+    Flow.Publisher<List<Commit>> streamCommits(String owner, String repo,
+                                               LocalDateTime since, LocalDateTime until);
+
+    /**
+     * Stream commits between tags
+     */
+    Flow.Publisher<List<Commit>> streamCommitsByTags(String owner, String repo,
+                                                     String sinceTag, String untilTag);
+
+    /**
+     * Stream commits between commits/branches
+     */
+    Flow.Publisher<List<Commit>> streamCommitsByRange(String owner, String repo,
+                                                      String base, String head);
+
+    /**
+     * Stream the pull requests of the commits {@code commitPages} publishes; each is published
+     * once, when first found. {@code commitPages} must come from this collector and not be
+     * subscribed to yet: it gains a second subscriber, so its pages are fetched only once.
+     * With {@code since} and {@code until}, only PRs merged in between are published.
+     */
+    Flow.Publisher<List<PullRequest>> streamPullRequests(String owner, String repo,
+                                                         Flow.Publisher<List<Commit>> commitPages,
+                                                         LocalDateTime since, LocalDateTime until);
+
+    /**
+     * Reloads the full message of a streamed commit, so subscribers can drop message bodies;
+     * null if this collector cannot reload one cheaply
+     */
+    default CommitBatch.MessageLoader getMessageLoader() {
+        return null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.releasescribe.collector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Reads a page publisher as a {@link PagePublisher.PageSource}, requesting one page at a time,
+ * so one stream of pages can feed another source without being fetched twice
+ */
+class SubscribedPageSource<T> implements PagePublisher.PageSource<T>, Flow.Subscriber<List<T>> {
+
+    // Compared by identity: queued after the last page or an error
+    private final List<T> end = new ArrayList<>();
+    private final BlockingQueue<List<T>> pages = new LinkedBlockingQueue<>();
+
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable error;
+    private boolean done;
+
+    SubscribedPageSource(Flow.Publisher<List<T>> publisher) {
+        publisher.subscribe(this);
+    }
+
+    @Override
+    public List<T> nextPage() throws Exception {
+        if (done) {
+            return null;
+        }
+        List<T> page = pages.take();
+        if (page == end) {
+            done = true;
+            if (error instanceof Exception) {
+                throw (Exception) error;
+            }
+            if (error != null) {
+                throw new IOException("Page stream failed", error);
+            }
+            return null;
+        }
+        subscription.request(1);
+        return page;
+    }
+
+    @Override
+    public void close() {
+        if (!done && subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<T> page) {
+        pages.add(page);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        pages.add(end);
+    }
+
+    @Override
+    public void onComplete() {
+        pages.add(end);
+    }
+}
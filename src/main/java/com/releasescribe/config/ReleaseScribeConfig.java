@@ -11,6 +11,8 @@ public class ReleaseScribeConfig {
     private Map<String, List<String>> labelMapping;
     private Prompt prompt;
     private Limits limits;
+    private Filters filters;
+    private Routing routing;
     
     public ReleaseScribeConfig() {}
     
@@ -36,6 +38,12 @@ public class ReleaseScribeConfig {
     public Limits getLimits() { return limits; }
     public void setLimits(Limits limits) { this.limits = limits; }
     
+    public Filters getFilters() { return filters; }
+    public void setFilters(Filters filters) { this.filters = filters; }
+    
+    public Routing getRouting() { return routing; }
+    public void setRouting(Routing routing) { this.routing = routing; }
+    
     public static class Conventions {
         private String commitStyle = "conventional";
         private Map<String, List<String>> componentPaths;
@@ -66,9 +74,13 @@ public class ReleaseScribeConfig {
         public void setForbid(List<String> forbid) { this.forbid = forbid; }
     }
     
+    /**
+     * Caps on the release data in the prompt; without a limits section nothing is trimmed. The
+     * default token budget is sized to the context window, not to keep prompts small.
+     */
     public static class Limits {
         private int maxPrs = 200;
-        private int maxTokens = 2000;
+        private int maxTokens = 100000;
         
         public Limits() {}
         
@@ -78,4 +90,71 @@ public class ReleaseScribeConfig {
         public int getMaxTokens() { return maxTokens; }
         public void setMaxTokens(int maxTokens) { this.maxTokens = maxTokens; }
     }
+    
+    public static class Filters {
+        private List<String> excludeAuthors;
+        private List<String> excludeTypes;
+        private List<String> excludeMessages;
+        private List<String> excludePathsOnly;
+        private boolean excludeMerges = false;
+        
+        public Filters() {}
+        
+        public List<String> getExcludeAuthors() { return excludeAuthors; }
+        public void setExcludeAuthors(List<String> excludeAuthors) { this.excludeAuthors = excludeAuthors; }
+        
+        public List<String> getExcludeTypes() { return excludeTypes; }
+        public void setExcludeTypes(List<String> excludeTypes) { this.excludeTypes = excludeTypes; }
+        
+        public List<String> getExcludeMessages() { return excludeMessages; }
+        public void setExcludeMessages(List<String> excludeMessages) { this.excludeMessages = excludeMessages; }
+        
+        public List<String> getExcludePathsOnly() { return excludePathsOnly; }
+        public void setExcludePathsOnly(List<String> excludePathsOnly) { this.excludePathsOnly = excludePathsOnly; }
+        
+        public boolean isExcludeMerges() { return excludeMerges; }
+        public void setExcludeMerges(boolean excludeMerges) { this.excludeMerges = excludeMerges; }
+    }
+    
+    /**
+     * Model tiers, cheapest first; without tiers every release uses the default model
+     */
+    public static class Routing {
+        private List<Tier> tiers;
+        
+        public Routing() {}
+        
+        public List<Tier> getTiers() { return tiers; }
+        public void setTiers(List<Tier> tiers) { this.tiers = tiers; }
+    }
+    
+    /**
+     * A model and the releases it may write: at most maxInputTokens of release data, measured
+     * before limits trim the prompt (0 for no limit), with breaking changes only if
+     * breakingChanges is set, and only for the listed audiences (all if none are listed)
+     */
+    public static class Tier {
+        private String name;
+        private String model;
+        private int maxInputTokens = 0;
+        private boolean breakingChanges = true;
+        private List<String> audiences;
+        
+        public Tier() {}
+        
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        
+        public String getModel() { return model; }
+        public void setModel(String model) { this.model = model; }
+        
+        public int getMaxInputTokens() { return maxInputTokens; }
+        public void setMaxInputTokens(int maxInputTokens) { this.maxInputTokens = maxInputTokens; }
+        
+        public boolean isBreakingChanges() { return breakingChanges; }
+        public void setBreakingChanges(boolean breakingChanges) { this.breakingChanges = breakingChanges; }
+        
+        public List<String> getAudiences() { return audiences; }
+        public void setAudiences(List<String> audiences) { this.audiences = audiences; }
+    }
 }
@@ -1,6 +1,7 @@
 package com.releasescribe.model;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
 
 public class Commit {
@@ -10,6 +11,13 @@ public class Commit {
     private LocalDateTime date;
     private String component;
     private String category;
+    private String type;
+    private String scope;
+    private boolean breakingChange;
+    private String subject;
+    private Trailers trailers;
+    private boolean merge;
+    private List<String> changedFiles;
 
     public Commit() {}
 
@@ -39,27 +47,47 @@ public class Commit {
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
 
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getScope() { return scope; }
+    public void setScope(String scope) { this.scope = scope; }
+
+    public boolean isBreakingChange() { return breakingChange; }
+    public void setBreakingChange(boolean breakingChange) { this.breakingChange = breakingChange; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public Trailers getTrailers() { return trailers; }
+    public void setTrailers(Trailers trailers) { this.trailers = trailers; }
+
+    public boolean isMerge() { return merge; }
+    public void setMerge(boolean merge) { this.merge = merge; }
+
+    public List<String> getChangedFiles() { return changedFiles; }
+    public void setChangedFiles(List<String> changedFiles) { this.changedFiles = changedFiles; }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Commit)) return false;
         Commit commit = (Commit) o;
-        return Objects.equals(hash, commit.hash);
+        return Objects.equals(getHash(), commit.getHash());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(hash);
+        return Objects.hash(getHash());
     }
 
     @Override
     public String toString() {
         return "Commit{" +
-                "hash='" + hash + '\'' +
-                ", message='" + message + '\'' +
-                ", author='" + author + '\'' +
-                ", date=" + date +
+                "hash='" + getHash() + '\'' +
+                ", message='" + getMessage() + '\'' +
+                ", author='" + getAuthor() + '\'' +
+                ", date=" + getDate() +
                 '}';
     }
 }
-
@@ -0,0 +1,508 @@
+package com.releasescribe.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Columnar store for large numbers of collected commits.
+ *
+ * <p>Hashes are kept as two longs plus an int (160 bits), dates as epoch seconds, and
+ * authors, categories, components, types and scopes as codes into a shared dictionary.
+ * Header lines live in a UTF-8 byte arena; message bodies are either stored in the same
+ * arena and decoded on demand, or not stored at all and fetched through a
+ * {@link MessageLoader} when a caller asks for the full message or its trailers.
+ *
+ * <p>{@link #addIfAbsent(Commit)} deduplicates by hash against the hash columns themselves,
+ * through an open-addressing table of row numbers, so no hash string is kept per commit.
+ *
+ * <p>{@link #asList()} exposes the batch as flyweight {@link Commit} views, so existing
+ * code keeps working; setters on a view write back into the columns.
+ */
+public final class CommitBatch {
+
+    /**
+     * Loads the full message of a commit that was stored without its body
+     */
+    public interface MessageLoader {
+        String load(String hash);
+    }
+
+    private static final byte BREAKING = 1;
+    private static final byte MERGE = 2;
+    private static final byte HAS_BODY = 4;
+    private static final byte IRREGULAR_HASH = 8;
+    private static final byte BODY_STORED = 16;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int NO_SUBJECT = -1;
+    private static final int SUBJECT_OVERRIDDEN = -2;
+    private static final int NO_MESSAGE = -1;
+
+    private final MessageLoader messageLoader;
+    private final StringDictionary dictionary = new StringDictionary();
+
+    private int size;
+    private long[] hashHigh;
+    private long[] hashMid;
+    private int[] hashLow;
+    private long[] epochSeconds;
+    private int[] authors;
+    private int[] categories;
+    private int[] components;
+    private int[] types;
+    private int[] scopes;
+    private byte[] flags;
+    private int[] headerStart;
+    private int[] headerLength;
+    private int[] subjectLength;
+    private int[] bodyStart;
+    private int[] bodyLength;
+    private Trailers[] trailers;
+
+    private byte[] arena;
+    private int arenaUsed;
+
+    // Row + 1 per slot, 0 marks an empty slot; built on the first addIfAbsent, dropped when stale
+    private int[] hashIndex;
+
+    // Rare values that do not fit the columns
+    private final Map<Integer, String> irregularHashes = new HashMap<>();
+    private final Map<Integer, String> subjectOverrides = new HashMap<>();
+    private final Map<Integer, List<String>> changedFiles = new HashMap<>();
+
+    /**
+     * Batch that keeps message bodies as UTF-8 bytes
+     */
+    public CommitBatch() {
+        this(null, 1024);
+    }
+
+    /**
+     * Batch that drops message bodies and reloads them through {@code messageLoader} on demand
+     */
+    public CommitBatch(MessageLoader messageLoader) {
+        this(messageLoader, 1024);
+    }
+
+    public CommitBatch(MessageLoader messageLoader, int initialCapacity) {
+        this.messageLoader = messageLoader;
+        int capacity = Math.max(16, initialCapacity);
+        hashHigh = new long[capacity];
+        hashMid = new long[capacity];
+        hashLow = new int[capacity];
+        epochSeconds = new long[capacity];
+        authors = new int[capacity];
+        categories = new int[capacity];
+        components = new int[capacity];
+        types = new int[capacity];
+        scopes = new int[capacity];
+        flags = new byte[capacity];
+        headerStart = new int[capacity];
+        headerLength = new int[capacity];
+        subjectLength = new int[capacity];
+        bodyStart = new int[capacity];
+        bodyLength = new int[capacity];
+        trailers = new Trailers[capacity];
+        arena = new byte[capacity * 48];
+    }
+
+    /**
+     * Copy a commit into the columns and return its index
+     */
+    public int add(Commit commit) {
+        ensureCapacity(size + 1);
+        int index = size++;
+        writeHash(index, commit.getHash());
+        writeDate(index, commit.getDate());
+        authors[index] = dictionary.encode(commit.getAuthor());
+        categories[index] = dictionary.encode(commit.getCategory());
+        components[index] = dictionary.encode(commit.getComponent());
+        types[index] = dictionary.encode(commit.getType());
+        scopes[index] = dictionary.encode(commit.getScope());
+        writeFlag(index, BREAKING, commit.isBreakingChange());
+        writeFlag(index, MERGE, commit.isMerge());
+        writeMessage(index, commit.getMessage(), messageLoader == null);
+        writeSubject(index, commit.getSubject());
+        // With a loader, trailers are re-parsed from the reloaded message on demand
+        trailers[index] = messageLoader == null ? commit.getTrailers() : null;
+        if (commit.getChangedFiles() != null) {
+            changedFiles.put(index, commit.getChangedFiles());
+        }
+        if (hashIndex != null) {
+            if (size * 2 > hashIndex.length) {
+                hashIndex = null;
+            } else {
+                insertIntoIndex(index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Copy a commit into the columns unless one with the same hash is already there; returns its
+     * index, or -1 for a copy
+     */
+    public int addIfAbsent(Commit commit) {
+        return indexOf(commit.getHash()) >= 0 ? -1 : add(commit);
+    }
+
+    /**
+     * Index of the first commit with {@code hash}, or -1 if there is none
+     */
+    public int indexOf(String hash) {
+        if (hashIndex == null) {
+            buildIndex();
+        }
+        boolean regular = isSha1(hash);
+        long high = regular ? parseHex(hash, 0, 16) : 0;
+        long mid = regular ? parseHex(hash, 16, 32) : 0;
+        int low = regular ? (int) parseHex(hash, 32, 40) : 0;
+        int mask = hashIndex.length - 1;
+        int slot = (regular ? mix(high, mid, low) : mix(Objects.hashCode(hash), 0, 0)) & mask;
+        while (hashIndex[slot] != 0) {
+            int row = hashIndex[slot] - 1;
+            boolean irregularRow = (flags[row] & IRREGULAR_HASH) != 0;
+            if (regular
+                    ? !irregularRow && hashHigh[row] == high && hashMid[row] == mid && hashLow[row] == low
+                    : irregularRow && Objects.equals(irregularHashes.get(row), hash)) {
+                return row;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Flyweight view of the commit at {@code index}
+     */
+    public Commit get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return new CommitView(this, index);
+    }
+
+    /**
+     * The batch as a read-only list of flyweight views; views are created on access
+     */
+    public List<Commit> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Commit get(int index) {
+                return CommitBatch.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Approximate retained heap of the columns, for diagnostics
+     */
+    public long estimatedBytes() {
+        long perRow = 8 + 8 + 4 + 8 + 5 * 4 + 1 + 5 * 4 + 4;
+        long index = hashIndex != null ? 4L * hashIndex.length : 0;
+        return (long) hashHigh.length * perRow + arena.length + index;
+    }
+
+    // Column accessors used by CommitView
+
+    String hash(int index) {
+        if ((flags[index] & IRREGULAR_HASH) != 0) {
+            return irregularHashes.get(index);
+        }
+        char[] hex = new char[40];
+        writeHex(hex, 0, hashHigh[index], 16);
+        writeHex(hex, 16, hashMid[index], 16);
+        writeHex(hex, 32, hashLow[index] & 0xFFFFFFFFL, 8);
+        return new String(hex);
+    }
+
+    void setHash(int index, String hash) {
+        writeHash(index, hash);
+        hashIndex = null;
+    }
+
+    String message(int index) {
+        int length = headerLength[index];
+        if (length == NO_MESSAGE) {
+            return null;
+        }
+        String header = new String(arena, headerStart[index], length, StandardCharsets.UTF_8);
+        if ((flags[index] & HAS_BODY) == 0) {
+            return header;
+        }
+        if ((flags[index] & BODY_STORED) == 0) {
+            return messageLoader.load(hash(index));
+        }
+        return header + new String(arena, bodyStart[index], bodyLength[index], StandardCharsets.UTF_8);
+    }
+
+    void setMessage(int index, String message) {
+        String subject = subject(index);
+        // An edited message cannot be reloaded, so its body is always kept
+        writeMessage(index, message, true);
+        writeSubject(index, subject);
+    }
+
+    String subject(int index) {
+        int length = subjectLength[index];
+        if (length == NO_SUBJECT) {
+            return null;
+        }
+        if (length == SUBJECT_OVERRIDDEN) {
+            return subjectOverrides.get(index);
+        }
+        int end = headerContentEnd(index);
+        return new String(arena, end - length, length, StandardCharsets.UTF_8);
+    }
+
+    void setSubject(int index, String subject) {
+        writeSubject(index, subject);
+    }
+
+    LocalDateTime date(int index) {
+        long seconds = epochSeconds[index];
+        return seconds == NO_DATE ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    void setDate(int index, LocalDateTime date) {
+        writeDate(index, date);
+    }
+
+    String author(int index) { return dictionary.decode(authors[index]); }
+    void setAuthor(int index, String author) { authors[index] = dictionary.encode(author); }
+
+    String category(int index) { return dictionary.decode(categories[index]); }
+    void setCategory(int index, String category) { categories[index] = dictionary.encode(category); }
+
+    String component(int index) { return dictionary.decode(components[index]); }
+    void setComponent(int index, String component) { components[index] = dictionary.encode(component); }
+
+    String type(int index) { return dictionary.decode(types[index]); }
+    void setType(int index, String type) { types[index] = dictionary.encode(type); }
+
+    String scope(int index) { return dictionary.decode(scopes[index]); }
+    void setScope(int index, String scope) { scopes[index] = dictionary.encode(scope); }
+
+    boolean breaking(int index) { return (flags[index] & BREAKING) != 0; }
+    void setBreaking(int index, boolean breaking) { writeFlag(index, BREAKING, breaking); }
+
+    boolean merge(int index) { return (flags[index] & MERGE) != 0; }
+    void setMerge(int index, boolean merge) { writeFlag(index, MERGE, merge); }
+
+    Trailers trailers(int index) {
+        Trailers value = trailers[index];
+        if (value == null && messageLoader != null && headerLength[index] != NO_MESSAGE) {
+            String message = message(index);
+            int bodyOffset = message.indexOf('\n') + 1;
+            value = bodyOffset > 0 ? Trailers.parse(message, bodyOffset) : Trailers.EMPTY;
+            // Parsed once; later calls must not reload the body again
+            trailers[index] = value;
+        }
+        return value;
+    }
+    void setTrailers(int index, Trailers value) { trailers[index] = value; }
+
+    List<String> changedFiles(int index) { return changedFiles.get(index); }
+
+    void setChangedFiles(int index, List<String> files) {
+        if (files == null) {
+            changedFiles.remove(index);
+        } else {
+            changedFiles.put(index, files);
+        }
+    }
+
+    // Column writers
+
+    private void writeHash(int index, String hash) {
+        if ((flags[index] & IRREGULAR_HASH) != 0) {
+            irregularHashes.remove(index);
+        }
+        writeFlag(index, IRREGULAR_HASH, false);
+        if (isSha1(hash)) {
+            hashHigh[index] = parseHex(hash, 0, 16);
+            hashMid[index] = parseHex(hash, 16, 32);
+            hashLow[index] = (int) parseHex(hash, 32, 40);
+        } else {
+            hashHigh[index] = 0;
+            hashMid[index] = 0;
+            hashLow[index] = 0;
+            writeFlag(index, IRREGULAR_HASH, true);
+            irregularHashes.put(index, hash);
+        }
+    }
+
+    private void writeDate(int index, LocalDateTime date) {
+        epochSeconds[index] = date == null ? NO_DATE : date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private void writeMessage(int index, String message, boolean storeBody) {
+        writeFlag(index, BODY_STORED, false);
+        if (message == null) {
+            headerLength[index] = NO_MESSAGE;
+            writeFlag(index, HAS_BODY, false);
+            return;
+        }
+        int newline = message.indexOf('\n');
+        String header = newline < 0 ? message : message.substring(0, newline);
+        byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+        headerStart[index] = append(headerBytes);
+        headerLength[index] = headerBytes.length;
+
+        writeFlag(index, HAS_BODY, newline >= 0);
+        if (newline >= 0 && storeBody) {
+            byte[] bodyBytes = message.substring(newline).getBytes(StandardCharsets.UTF_8);
+            bodyStart[index] = append(bodyBytes);
+            bodyLength[index] = bodyBytes.length;
+            writeFlag(index, BODY_STORED, true);
+        }
+    }
+
+    private void writeSubject(int index, String subject) {
+        if (subjectLength[index] == SUBJECT_OVERRIDDEN) {
+            subjectOverrides.remove(index);
+        }
+        if (subject == null) {
+            subjectLength[index] = NO_SUBJECT;
+            return;
+        }
+        // The lexed subject is normally a suffix of the header line, so only its length is kept
+        if (headerLength[index] != NO_MESSAGE) {
+            int end = headerContentEnd(index);
+            byte[] subjectBytes = subject.getBytes(StandardCharsets.UTF_8);
+            int start = end - subjectBytes.length;
+            if (start >= headerStart[index]
+                    && Arrays.equals(arena, start, end, subjectBytes, 0, subjectBytes.length)) {
+                subjectLength[index] = subjectBytes.length;
+                return;
+            }
+        }
+        subjectLength[index] = SUBJECT_OVERRIDDEN;
+        subjectOverrides.put(index, subject);
+    }
+
+    private void writeFlag(int index, byte flag, boolean value) {
+        if (value) {
+            flags[index] |= flag;
+        } else {
+            flags[index] &= (byte) ~flag;
+        }
+    }
+
+    private int headerContentEnd(int index) {
+        int end = headerStart[index] + headerLength[index];
+        if (end > headerStart[index] && arena[end - 1] == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    private int append(byte[] bytes) {
+        if (arenaUsed + bytes.length > arena.length) {
+            long grown = Math.max((long) arena.length * 2, (long) arenaUsed + bytes.length);
+            if (grown > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Commit batch text exceeds 2 GB; split the range into several batches");
+            }
+            arena = Arrays.copyOf(arena, (int) grown);
+        }
+        int start = arenaUsed;
+        System.arraycopy(bytes, 0, arena, start, bytes.length);
+        arenaUsed += bytes.length;
+        return start;
+    }
+
+    // Twice the rows, rounded up to a power of two, keeps probe runs short
+    private void buildIndex() {
+        int capacity = Integer.highestOneBit(Math.max(16, size * 4 - 1));
+        hashIndex = new int[capacity];
+        for (int row = 0; row < size; row++) {
+            insertIntoIndex(row);
+        }
+    }
+
+    private void insertIntoIndex(int row) {
+        int mask = hashIndex.length - 1;
+        int slot = ((flags[row] & IRREGULAR_HASH) != 0
+                ? mix(Objects.hashCode(irregularHashes.get(row)), 0, 0)
+                : mix(hashHigh[row], hashMid[row], hashLow[row])) & mask;
+        while (hashIndex[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        hashIndex[slot] = row + 1;
+    }
+
+    // All three parts count: synthetic or padded ids can leave the high bits zero
+    private static int mix(long high, long mid, int low) {
+        long h = (high ^ Long.rotateLeft(mid, 21) ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= hashHigh.length) {
+            return;
+        }
+        int capacity = Math.max(required, hashHigh.length * 2);
+        hashHigh = Arrays.copyOf(hashHigh, capacity);
+        hashMid = Arrays.copyOf(hashMid, capacity);
+        hashLow = Arrays.copyOf(hashLow, capacity);
+        epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+        authors = Arrays.copyOf(authors, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        components = Arrays.copyOf(components, capacity);
+        types = Arrays.copyOf(types, capacity);
+        scopes = Arrays.copyOf(scopes, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        headerStart = Arrays.copyOf(headerStart, capacity);
+        headerLength = Arrays.copyOf(headerLength, capacity);
+        subjectLength = Arrays.copyOf(subjectLength, capacity);
+        bodyStart = Arrays.copyOf(bodyStart, capacity);
+        bodyLength = Arrays.copyOf(bodyLength, capacity);
+        trailers = Arrays.copyOf(trailers, capacity);
+    }
+
+    // A full 40-character lowercase hex SHA-1; anything else is kept as a string
+    private static boolean isSha1(String hash) {
+        if (hash == null || hash.length() != 40) {
+            return false;
+        }
+        for (int i = 0; i < 40; i++) {
+            char c = hash.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Up to 16 hex characters of a validated id, parsed without substrings
+    private static long parseHex(String hash, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = (value << 4) | Character.digit(hash.charAt(i), 16);
+        }
+        return value;
+    }
+
+    private static void writeHex(char[] target, int offset, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            target[offset + i] = Character.forDigit((int) (value & 0xF), 16);
+            value >>>= 4;
+        }
+    }
+}
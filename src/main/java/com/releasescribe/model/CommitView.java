@@ -0,0 +1,57 @@
+package com.releasescribe.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Flyweight {@link Commit} backed by one row of a {@link CommitBatch}.
+ * Holds no commit data itself; every getter and setter goes to the batch columns.
+ */
+final class CommitView extends Commit {
+    private final CommitBatch batch;
+    private final int index;
+
+    CommitView(CommitBatch batch, int index) {
+        this.batch = batch;
+        this.index = index;
+    }
+
+    @Override public String getHash() { return batch.hash(index); }
+    @Override public void setHash(String hash) { batch.setHash(index, hash); }
+
+    @Override public String getMessage() { return batch.message(index); }
+    @Override public void setMessage(String message) { batch.setMessage(index, message); }
+
+    @Override public String getAuthor() { return batch.author(index); }
+    @Override public void setAuthor(String author) { batch.setAuthor(index, author); }
+
+    @Override public LocalDateTime getDate() { return batch.date(index); }
+    @Override public void setDate(LocalDateTime date) { batch.setDate(index, date); }
+
+    @Override public String getComponent() { return batch.component(index); }
+    @Override public void setComponent(String component) { batch.setComponent(index, component); }
+
+    @Override public String getCategory() { return batch.category(index); }
+    @Override public void setCategory(String category) { batch.setCategory(index, category); }
+
+    @Override public String getType() { return batch.type(index); }
+    @Override public void setType(String type) { batch.setType(index, type); }
+
+    @Override public String getScope() { return batch.scope(index); }
+    @Override public void setScope(String scope) { batch.setScope(index, scope); }
+
+    @Override public boolean isBreakingChange() { return batch.breaking(index); }
+    @Override public void setBreakingChange(boolean breakingChange) { batch.setBreaking(index, breakingChange); }
+
+    @Override public String getSubject() { return batch.subject(index); }
+    @Override public void setSubject(String subject) { batch.setSubject(index, subject); }
+
+    @Override public Trailers getTrailers() { return batch.trailers(index); }
+    @Override public void setTrailers(Trailers trailers) { batch.setTrailers(index, trailers); }
+
+    @Override public boolean isMerge() { return batch.merge(index); }
+    @Override public void setMerge(boolean merge) { batch.setMerge(index, merge); }
+
+    @Override public List<String> getChangedFiles() { return batch.changedFiles(index); }
+    @Override public void setChangedFiles(List<String> changedFiles) { batch.setChangedFiles(index, changedFiles); }
+}
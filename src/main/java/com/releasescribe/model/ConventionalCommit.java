@@ -0,0 +1,156 @@
+package com.releasescribe.model;
+
+/**
+ * Header of a conventional commit message: {@code type(scope)!: subject}.
+ * Parsed with a single hand-written scan over the first line of the message.
+ */
+public final class ConventionalCommit {
+    private final String type;
+    private final String scope;
+    private final boolean breaking;
+    private final String subject;
+
+    private ConventionalCommit(String type, String scope, boolean breaking, String subject) {
+        this.type = type;
+        this.scope = scope;
+        this.breaking = breaking;
+        this.subject = subject;
+    }
+
+    /**
+     * Parse the header line of a commit message or PR title.
+     * Returns null when the text does not follow the conventional commit format.
+     */
+    public static ConventionalCommit parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        int end = text.indexOf('\n');
+        if (end < 0) {
+            end = text.length();
+        }
+        if (end > 0 && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+
+        // type: one or more ASCII letters
+        int pos = 0;
+        while (pos < end && isLetter(text.charAt(pos))) {
+            pos++;
+        }
+        if (pos == 0 || pos == end) {
+            return null;
+        }
+        String type = text.substring(0, pos).toLowerCase();
+
+        // optional (scope)
+        String scope = null;
+        if (text.charAt(pos) == '(') {
+            int close = pos + 1;
+            while (close < end && text.charAt(close) != ')' && text.charAt(close) != '(') {
+                close++;
+            }
+            if (close >= end || text.charAt(close) != ')' || close == pos + 1) {
+                return null;
+            }
+            scope = text.substring(pos + 1, close).trim();
+            pos = close + 1;
+        }
+
+        // optional breaking marker
+        boolean breaking = false;
+        if (pos < end && text.charAt(pos) == '!') {
+            breaking = true;
+            pos++;
+        }
+
+        // ": " separator followed by a non-empty subject
+        if (pos + 1 >= end || text.charAt(pos) != ':' || text.charAt(pos + 1) != ' ') {
+            return null;
+        }
+        pos += 2;
+        while (pos < end && text.charAt(pos) == ' ') {
+            pos++;
+        }
+        if (pos == end) {
+            return null;
+        }
+
+        return new ConventionalCommit(type, scope, breaking, text.substring(pos, end));
+    }
+
+    /**
+     * Lex the commit message once and store the header and footer fields on the commit.
+     * Non-conventional messages keep their first line as the subject.
+     */
+    public static void annotate(Commit commit) {
+        String message = commit.getMessage();
+        ConventionalCommit header = parse(message);
+        if (header != null) {
+            commit.setType(header.getType());
+            commit.setScope(header.getScope());
+            commit.setSubject(header.getSubject());
+        } else {
+            commit.setSubject(firstLine(message));
+        }
+
+        // Footers live below the header line
+        int bodyStart = message != null ? message.indexOf('\n') + 1 : 0;
+        Trailers trailers = bodyStart > 0 ? Trailers.parse(message, bodyStart) : Trailers.EMPTY;
+        commit.setTrailers(trailers);
+        commit.setBreakingChange((header != null && header.isBreaking()) || trailers.isBreaking());
+    }
+
+    /**
+     * Map a conventional commit type to a release notes category.
+     * Returns null for types outside the conventional set so callers can fall back to heuristics.
+     */
+    public static String categoryOf(String type) {
+        switch (type) {
+            case "feat":
+                return "feature";
+            case "fix":
+                return "fix";
+            case "docs":
+                return "docs";
+            case "perf":
+                return "perf";
+            case "security":
+                return "security";
+            case "refactor":
+                return "refactor";
+            case "style":
+            case "test":
+            case "chore":
+                return "other";
+            default:
+                return null;
+        }
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "";
+        }
+        int end = message.indexOf('\n');
+        if (end < 0) {
+            return message;
+        }
+        if (end > 0 && message.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return message.substring(0, end);
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    public String getType() { return type; }
+
+    public String getScope() { return scope; }
+
+    public boolean isBreaking() { return breaking; }
+
+    public String getSubject() { return subject; }
+}
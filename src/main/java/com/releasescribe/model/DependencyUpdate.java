@@ -0,0 +1,68 @@
+package com.releasescribe.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class DependencyUpdate {
+    private String ecosystem;
+    private String packageName;
+    private String fromVersion;
+    private String toVersion;
+    private boolean security;
+    private List<Integer> pullRequests = new ArrayList<>();
+
+    public DependencyUpdate() {}
+
+    public DependencyUpdate(String ecosystem, String packageName, boolean security) {
+        this.ecosystem = ecosystem;
+        this.packageName = packageName;
+        this.security = security;
+    }
+
+    // Getters and setters
+    public String getEcosystem() { return ecosystem; }
+    public void setEcosystem(String ecosystem) { this.ecosystem = ecosystem; }
+
+    public String getPackageName() { return packageName; }
+    public void setPackageName(String packageName) { this.packageName = packageName; }
+
+    public String getFromVersion() { return fromVersion; }
+    public void setFromVersion(String fromVersion) { this.fromVersion = fromVersion; }
+
+    public String getToVersion() { return toVersion; }
+    public void setToVersion(String toVersion) { this.toVersion = toVersion; }
+
+    public boolean isSecurity() { return security; }
+    public void setSecurity(boolean security) { this.security = security; }
+
+    public List<Integer> getPullRequests() { return pullRequests; }
+    public void setPullRequests(List<Integer> pullRequests) { this.pullRequests = pullRequests; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DependencyUpdate that = (DependencyUpdate) o;
+        return security == that.security &&
+               Objects.equals(ecosystem, that.ecosystem) &&
+               Objects.equals(packageName, that.packageName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ecosystem, packageName, security);
+    }
+
+    @Override
+    public String toString() {
+        return "DependencyUpdate{" +
+                "ecosystem='" + ecosystem + '\'' +
+                ", packageName='" + packageName + '\'' +
+                ", fromVersion='" + fromVersion + '\'' +
+                ", toVersion='" + toVersion + '\'' +
+                ", security=" + security +
+                ", pullRequests=" + pullRequests +
+                '}';
+    }
+}
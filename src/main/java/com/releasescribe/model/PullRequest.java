@@ -1,20 +1,36 @@
 package com.releasescribe.model;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 public class PullRequest {
+
+    /**
+     * Fetches a body that was left out of collection, possibly truncated. Returns "" for a pull
+     * request without a body and null if it could not be fetched.
+     */
+    public interface BodyLoader {
+        String load(int number);
+    }
+
     private int number;
     private String title;
     private String body;
     private String author;
     private LocalDateTime mergedAt;
+    private LocalDateTime updatedAt;
     private List<String> labels;
     private List<String> linkedIssues;
     private String component;
     private String category;
     private boolean breakingChange;
+    private String mergeCommitSha;
+    private List<String> commitHashes = new ArrayList<>();
+    private Trailers trailers;
+    private String summary;
+    private transient BodyLoader bodyLoader;
 
     public PullRequest() {}
 
@@ -36,8 +52,20 @@ public class PullRequest {
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
-    public String getBody() { return body; }
-    public void setBody(String body) { this.body = body; }
+    public String getBody() {
+        if (body == null && bodyLoader != null) {
+            body = bodyLoader.load(number);
+            bodyLoader = null;
+        }
+        return body;
+    }
+    public void setBody(String body) { this.body = body; this.bodyLoader = null; }
+
+    /**
+     * Whether the body is available without a fetch
+     */
+    public boolean isBodyLoaded() { return body != null || bodyLoader == null; }
+    public void setBodyLoader(BodyLoader bodyLoader) { this.bodyLoader = bodyLoader; }
 
     public String getAuthor() { return author; }
     public void setAuthor(String author) { this.author = author; }
@@ -45,6 +73,9 @@ public class PullRequest {
     public LocalDateTime getMergedAt() { return mergedAt; }
     public void setMergedAt(LocalDateTime mergedAt) { this.mergedAt = mergedAt; }
 
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
     public List<String> getLabels() { return labels; }
     public void setLabels(List<String> labels) { this.labels = labels; }
 
@@ -60,6 +91,21 @@ public class PullRequest {
     public boolean isBreakingChange() { return breakingChange; }
     public void setBreakingChange(boolean breakingChange) { this.breakingChange = breakingChange; }
 
+    public String getMergeCommitSha() { return mergeCommitSha; }
+    public void setMergeCommitSha(String mergeCommitSha) { this.mergeCommitSha = mergeCommitSha; }
+
+    public List<String> getCommitHashes() { return commitHashes; }
+    public void setCommitHashes(List<String> commitHashes) { this.commitHashes = commitHashes; }
+
+    public Trailers getTrailers() { return trailers; }
+    public void setTrailers(Trailers trailers) { this.trailers = trailers; }
+
+    /**
+     * Short model-written summary that stands in for the title in prompts, or null
+     */
+    public String getSummary() { return summary; }
+    public void setSummary(String summary) { this.summary = summary; }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
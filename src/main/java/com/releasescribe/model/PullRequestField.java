@@ -0,0 +1,16 @@
+package com.releasescribe.model;
+
+/**
+ * Pull request fields a pipeline stage reads. Collectors fetch only the union of the fields
+ * declared by the stages they feed.
+ */
+public enum PullRequestField {
+    NUMBER,
+    TITLE,
+    AUTHOR,
+    MERGED_AT,
+    UPDATED_AT,
+    MERGE_COMMIT_SHA,
+    LABELS,
+    BODY
+}
@@ -0,0 +1,59 @@
+package com.releasescribe.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What changed in the inputs of a release since its notes were last generated
+ */
+public class ReleaseDelta {
+    private final List<PullRequest> addedPullRequests;
+    private final List<PullRequest> changedPullRequests;
+    private final Map<Integer, String> removedPullRequests;
+    private final List<Commit> addedCommits;
+    private final List<String> removedCommits;
+    private final List<DependencyUpdate> addedDependencyUpdates;
+    private final List<String> removedDependencyUpdates;
+
+    public ReleaseDelta(List<PullRequest> addedPullRequests, List<PullRequest> changedPullRequests,
+                        Map<Integer, String> removedPullRequests, List<Commit> addedCommits,
+                        List<String> removedCommits, List<DependencyUpdate> addedDependencyUpdates,
+                        List<String> removedDependencyUpdates) {
+        this.addedPullRequests = addedPullRequests;
+        this.changedPullRequests = changedPullRequests;
+        this.removedPullRequests = removedPullRequests;
+        this.addedCommits = addedCommits;
+        this.removedCommits = removedCommits;
+        this.addedDependencyUpdates = addedDependencyUpdates;
+        this.removedDependencyUpdates = removedDependencyUpdates;
+    }
+
+    /**
+     * Number of added, changed and removed items of every kind
+     */
+    public int size() {
+        return addedPullRequests.size() + changedPullRequests.size() + removedPullRequests.size()
+                + addedCommits.size() + removedCommits.size()
+                + addedDependencyUpdates.size() + removedDependencyUpdates.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Getters
+    public List<PullRequest> getAddedPullRequests() { return addedPullRequests; }
+
+    public List<PullRequest> getChangedPullRequests() { return changedPullRequests; }
+
+    /** Removed PR numbers with the titles they were generated from */
+    public Map<Integer, String> getRemovedPullRequests() { return removedPullRequests; }
+
+    public List<Commit> getAddedCommits() { return addedCommits; }
+
+    public List<String> getRemovedCommits() { return removedCommits; }
+
+    public List<DependencyUpdate> getAddedDependencyUpdates() { return addedDependencyUpdates; }
+
+    public List<String> getRemovedDependencyUpdates() { return removedDependencyUpdates; }
+}
@@ -0,0 +1,166 @@
+package com.releasescribe.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The inputs a set of release notes was generated from, stored next to them so that a later
+ * run over the same release can regenerate incrementally
+ */
+public class ReleaseManifest {
+
+    private static final String TITLE_VERSION = "title:";
+
+    /**
+     * What the manifest remembers about one pull request
+     */
+    public static class PullRequestEntry {
+        private String version;
+        private String title;
+
+        public PullRequestEntry() {}
+
+        public PullRequestEntry(String version, String title) {
+            this.version = version;
+            this.title = title;
+        }
+
+        public String getVersion() { return version; }
+        public void setVersion(String version) { this.version = version; }
+
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+    }
+
+    private String range;
+    private Map<Integer, PullRequestEntry> pullRequests = new LinkedHashMap<>();
+    private List<String> commits = new ArrayList<>();
+    private List<String> dependencyUpdates = new ArrayList<>();
+    private ReleaseNotes releaseNotes;
+
+    public ReleaseManifest() {}
+
+    public ReleaseManifest(String range, List<PullRequest> pullRequests, List<Commit> commits,
+                           List<DependencyUpdate> dependencyUpdates, ReleaseNotes releaseNotes) {
+        this.range = range;
+        for (PullRequest pr : pullRequests) {
+            this.pullRequests.put(pr.getNumber(), new PullRequestEntry(versionOf(pr), pr.getTitle()));
+        }
+        for (Commit commit : commits) {
+            this.commits.add(commit.getHash());
+        }
+        for (DependencyUpdate update : dependencyUpdates) {
+            this.dependencyUpdates.add(describe(update));
+        }
+        this.releaseNotes = releaseNotes;
+    }
+
+    /**
+     * Compare the current inputs of the release against the ones this manifest recorded
+     */
+    public ReleaseDelta diff(List<PullRequest> currentPullRequests, List<Commit> currentCommits,
+                             List<DependencyUpdate> currentDependencyUpdates) {
+        List<PullRequest> added = new ArrayList<>();
+        List<PullRequest> changed = new ArrayList<>();
+        Map<Integer, String> removed = new LinkedHashMap<>();
+        Set<Integer> seen = new HashSet<>();
+        for (PullRequest pr : currentPullRequests) {
+            seen.add(pr.getNumber());
+            PullRequestEntry entry = pullRequests.get(pr.getNumber());
+            if (entry == null) {
+                added.add(pr);
+            } else if (isChanged(entry, pr)) {
+                changed.add(pr);
+            }
+        }
+        pullRequests.forEach((number, entry) -> {
+            if (!seen.contains(number)) {
+                removed.put(number, entry.getTitle());
+            }
+        });
+
+        Set<String> knownCommits = new HashSet<>(commits);
+        Set<String> currentHashes = new HashSet<>();
+        List<Commit> addedCommits = new ArrayList<>();
+        for (Commit commit : currentCommits) {
+            currentHashes.add(commit.getHash());
+            if (!knownCommits.contains(commit.getHash())) {
+                addedCommits.add(commit);
+            }
+        }
+        List<String> removedCommits = new ArrayList<>(commits);
+        removedCommits.removeAll(currentHashes);
+
+        Set<String> knownUpdates = new HashSet<>(dependencyUpdates);
+        Set<String> currentDescriptions = new HashSet<>();
+        List<DependencyUpdate> addedUpdates = new ArrayList<>();
+        for (DependencyUpdate update : currentDependencyUpdates) {
+            String description = describe(update);
+            currentDescriptions.add(description);
+            if (!knownUpdates.contains(description)) {
+                addedUpdates.add(update);
+            }
+        }
+        List<String> removedUpdates = new ArrayList<>(dependencyUpdates);
+        removedUpdates.removeAll(currentDescriptions);
+
+        return new ReleaseDelta(added, changed, removed, addedCommits, removedCommits, addedUpdates, removedUpdates);
+    }
+
+    // Versions of different kinds, one from updated_at and one from the title, say nothing about
+    // each other; the title both know decides instead
+    private static boolean isChanged(PullRequestEntry entry, PullRequest pr) {
+        String version = versionOf(pr);
+        if (entry.getVersion() == null || isTitleVersion(entry.getVersion()) != isTitleVersion(version)) {
+            return !Objects.equals(entry.getTitle(), pr.getTitle());
+        }
+        return !entry.getVersion().equals(version);
+    }
+
+    private static boolean isTitleVersion(String version) {
+        return version.startsWith(TITLE_VERSION);
+    }
+
+    /**
+     * Number of pull requests, commits and dependency updates recorded
+     */
+    public int size() {
+        return pullRequests.size() + commits.size() + dependencyUpdates.size();
+    }
+
+    /**
+     * Identifies one state of a PR: its {@code updated_at}, or its title when that is unknown
+     */
+    public static String versionOf(PullRequest pr) {
+        return pr.getUpdatedAt() != null ? pr.getUpdatedAt().toString() : TITLE_VERSION + pr.getTitle();
+    }
+
+    /**
+     * One-line description a dependency update is compared by
+     */
+    public static String describe(DependencyUpdate update) {
+        return update.getEcosystem() + " " + update.getPackageName() + " "
+                + (update.getToVersion() != null ? update.getToVersion() : "");
+    }
+
+    // Getters and setters
+    public String getRange() { return range; }
+    public void setRange(String range) { this.range = range; }
+
+    public Map<Integer, PullRequestEntry> getPullRequests() { return pullRequests; }
+    public void setPullRequests(Map<Integer, PullRequestEntry> pullRequests) { this.pullRequests = pullRequests; }
+
+    public List<String> getCommits() { return commits; }
+    public void setCommits(List<String> commits) { this.commits = commits; }
+
+    public List<String> getDependencyUpdates() { return dependencyUpdates; }
+    public void setDependencyUpdates(List<String> dependencyUpdates) { this.dependencyUpdates = dependencyUpdates; }
+
+    public ReleaseNotes getReleaseNotes() { return releaseNotes; }
+    public void setReleaseNotes(ReleaseNotes releaseNotes) { this.releaseNotes = releaseNotes; }
+}
@@ -0,0 +1,38 @@
+package com.releasescribe.model;
+
+/**
+ * Top-level fields of generated release notes, in the order the model is asked to write them.
+ * Short fields come first, so that the artifacts built from them can be written early.
+ */
+public enum ReleaseNotesField {
+    CUSTOMER_HIGHLIGHTS_MD("customer_highlights_md"),
+    BREAKING_CHANGES("breaking_changes"),
+    UPGRADE_STEPS("upgrade_steps"),
+    RELEASE_NOTES_MD("release_notes_md"),
+    CHANGELOG_MD("changelog_md");
+
+    private final String jsonName;
+
+    ReleaseNotesField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    /**
+     * Name of the field in the model's JSON response
+     */
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * Field with the given JSON name, or null for a name outside the schema
+     */
+    public static ReleaseNotesField fromJsonName(String jsonName) {
+        for (ReleaseNotesField field : values()) {
+            if (field.jsonName.equals(jsonName)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,253 @@
+package com.releasescribe.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Trailing {@code Key: value} footer block of a commit message or PR body.
+ * Only the recognised keys are kept: BREAKING CHANGE, Refs, Fixes/Closes/Resolves
+ * and Co-authored-by.
+ */
+public final class Trailers {
+
+    public static final Trailers EMPTY = new Trailers(null, Collections.emptyList(),
+            Collections.emptyList(), Collections.emptyList());
+
+    private final String breakingChange;
+    private final List<String> fixes;
+    private final List<String> refs;
+    private final List<String> coAuthors;
+
+    private Trailers(String breakingChange, List<String> fixes, List<String> refs, List<String> coAuthors) {
+        this.breakingChange = breakingChange;
+        this.fixes = fixes;
+        this.refs = refs;
+        this.coAuthors = coAuthors;
+    }
+
+    /**
+     * Parse the footer block of a PR body
+     */
+    public static Trailers parse(String text) {
+        return parse(text, 0);
+    }
+
+    /**
+     * Parse the footer block of {@code text}, ignoring everything before {@code from}
+     * (used to skip the header line of a commit message).
+     * Lines are read backwards from the end until the first blank line above the block.
+     */
+    public static Trailers parse(String text, int from) {
+        if (text == null || from >= text.length()) {
+            return EMPTY;
+        }
+
+        String breakingChange = null;
+        List<String> fixes = null;
+        List<String> refs = null;
+        List<String> coAuthors = null;
+        StringBuilder continuation = null;
+        boolean inBlock = false;
+
+        int end = text.length();
+        while (end > from) {
+            int start = text.lastIndexOf('\n', end - 1) + 1;
+            if (start < from) {
+                start = from;
+            }
+            int lineEnd = end;
+            if (lineEnd > start && text.charAt(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            int nextEnd = start - 1;
+
+            if (isBlank(text, start, lineEnd)) {
+                if (inBlock) {
+                    break;
+                }
+                end = nextEnd;
+                continue;
+            }
+
+            // Indented lines continue the value of the trailer above them
+            char first = text.charAt(start);
+            if (first == ' ' || first == '\t') {
+                if (continuation == null) {
+                    continuation = new StringBuilder();
+                }
+                continuation.insert(0, text.substring(start, lineEnd).trim()).insert(0, ' ');
+                inBlock = true;
+                end = nextEnd;
+                continue;
+            }
+
+            int keyEnd = keyEnd(text, start, lineEnd);
+            if (keyEnd < 0) {
+                break;
+            }
+            String key = text.substring(start, keyEnd);
+            int valueStart = keyEnd + (text.charAt(keyEnd) == ':' ? 1 : 0);
+            String value = text.substring(valueStart, lineEnd).trim();
+            if (continuation != null) {
+                value = value + continuation;
+                continuation = null;
+            }
+            inBlock = true;
+
+            if (key.equals("BREAKING CHANGE") || key.equals("BREAKING-CHANGE")) {
+                breakingChange = value.isEmpty() ? key : value;
+            } else if (isFixesKey(key)) {
+                fixes = addIssueRefs(fixes, value);
+            } else if (key.equalsIgnoreCase("Refs") || key.equalsIgnoreCase("Ref")) {
+                refs = addIssueRefs(refs, value);
+            } else if (key.equalsIgnoreCase("Co-authored-by")) {
+                if (coAuthors == null) {
+                    coAuthors = new ArrayList<>(2);
+                }
+                coAuthors.add(0, value);
+            }
+            end = nextEnd;
+        }
+
+        if (breakingChange == null && fixes == null && refs == null && coAuthors == null) {
+            return EMPTY;
+        }
+        return new Trailers(breakingChange, orEmpty(fixes), orEmpty(refs), orEmpty(coAuthors));
+    }
+
+    /**
+     * Returns the index of the key/value separator (":" or " "), or -1 if the line is not a trailer
+     */
+    private static int keyEnd(String text, int start, int end) {
+        if (text.startsWith("BREAKING CHANGE:", start)) {
+            return start + "BREAKING CHANGE".length();
+        }
+        int pos = start;
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-') {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (pos == start || pos >= end) {
+            return -1;
+        }
+        if (text.charAt(pos) == ':') {
+            return pos;
+        }
+        // "Fixes #12" and GitHub's "Closes owner/repo#12" use a space instead of a colon
+        if (text.charAt(pos) == ' ' && pos + 1 < end
+                && (text.charAt(pos + 1) == '#' || isFixesKey(text.substring(start, pos)))) {
+            return pos;
+        }
+        return -1;
+    }
+
+    private static boolean isFixesKey(String key) {
+        switch (key.toLowerCase()) {
+            case "fix":
+            case "fixes":
+            case "fixed":
+            case "close":
+            case "closes":
+            case "closed":
+            case "resolve":
+            case "resolves":
+            case "resolved":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Collects "#123", "owner/repo#123" and "PROJ-123" style references from a trailer value
+    private static List<String> addIssueRefs(List<String> target, String value) {
+        List<String> result = target != null ? target : new ArrayList<>(2);
+        int insertAt = 0;
+        int pos = 0;
+        int length = value.length();
+        while (pos < length) {
+            while (pos < length && (value.charAt(pos) == ',' || value.charAt(pos) == ' ')) {
+                pos++;
+            }
+            int tokenStart = pos;
+            while (pos < length && value.charAt(pos) != ',' && value.charAt(pos) != ' ') {
+                pos++;
+            }
+            if (pos > tokenStart) {
+                int tokenEnd = pos;
+                while (tokenEnd > tokenStart && (value.charAt(tokenEnd - 1) == '.' || value.charAt(tokenEnd - 1) == ')')) {
+                    tokenEnd--;
+                }
+                String token = value.substring(tokenStart, tokenEnd);
+                if (!token.isEmpty() && isIssueRef(token)) {
+                    // Lines are read bottom-up; keep references in document order
+                    result.add(insertAt++, token);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isIssueRef(String token) {
+        int hash = token.indexOf('#');
+        if (hash >= 0) {
+            return hash + 1 < token.length() && Character.isDigit(token.charAt(hash + 1));
+        }
+        if (token.startsWith("https://") || token.startsWith("http://")) {
+            return true;
+        }
+        int dash = token.lastIndexOf('-');
+        if (dash <= 0 || dash == token.length() - 1) {
+            return false;
+        }
+        for (int i = dash + 1; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> orEmpty(List<String> list) {
+        return list != null ? list : Collections.emptyList();
+    }
+
+    public boolean isBreaking() { return breakingChange != null; }
+
+    public String getBreakingChange() { return breakingChange; }
+
+    public List<String> getFixes() { return fixes; }
+
+    public List<String> getRefs() { return refs; }
+
+    public List<String> getCoAuthors() { return coAuthors; }
+
+    /**
+     * Issues fixed or referenced by this footer, in footer order
+     */
+    public List<String> getLinkedIssues() {
+        if (refs.isEmpty()) {
+            return fixes;
+        }
+        if (fixes.isEmpty()) {
+            return refs;
+        }
+        List<String> linked = new ArrayList<>(fixes.size() + refs.size());
+        linked.addAll(fixes);
+        linked.addAll(refs);
+        return linked;
+    }
+}
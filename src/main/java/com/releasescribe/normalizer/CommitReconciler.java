@@ -0,0 +1,137 @@
+package com.releasescribe.normalizer;
+
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.PullRequest;
+import com.releasescribe.util.IntHashSet;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Reduces the commit list to orphan commits: commits already covered by a
+ * collected PR are dropped, and commit/revert pairs within the range cancel out.
+ */
+public class CommitReconciler {
+
+    private static final Pattern REVERTED_HASH = Pattern.compile(
+        "This reverts commit ([0-9a-fA-F]{7,40})"
+    );
+
+    // Squash merges ("Title (#123)") and merge commits ("Merge pull request #123 from ...")
+    private static final Pattern PR_REFERENCE = Pattern.compile(
+        "^(?:Merge pull request #(\\d+)\\b.*|.*\\(#(\\d+)\\)\\s*)$"
+    );
+
+    public List<Commit> reconcile(List<Commit> commits, List<PullRequest> pullRequests) {
+        List<Commit> orphans = dropCoveredCommits(commits, pullRequests);
+        return cancelRevertPairs(orphans);
+    }
+
+    private List<Commit> dropCoveredCommits(List<Commit> commits, List<PullRequest> pullRequests) {
+        if (pullRequests.isEmpty()) {
+            return commits;
+        }
+        Predicate<Commit> covered = coveredBy(pullRequests);
+        return commits.stream()
+                .filter(covered.negate())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Matches commits that one of {@code pullRequests} already covers, by hash or by a
+     * squash or merge subject naming its number
+     */
+    public Predicate<Commit> coveredBy(List<PullRequest> pullRequests) {
+        Set<String> coveredHashes = new HashSet<>();
+        IntHashSet prNumbers = new IntHashSet(pullRequests.size());
+        for (PullRequest pr : pullRequests) {
+            prNumbers.add(pr.getNumber());
+            if (pr.getCommitHashes() != null) {
+                coveredHashes.addAll(pr.getCommitHashes());
+            }
+            if (pr.getMergeCommitSha() != null) {
+                coveredHashes.add(pr.getMergeCommitSha());
+            }
+        }
+
+        return commit -> coveredHashes.contains(commit.getHash()) || referencesPullRequest(commit, prNumbers);
+    }
+
+    private boolean referencesPullRequest(Commit commit, IntHashSet prNumbers) {
+        Matcher matcher = PR_REFERENCE.matcher(subjectOf(commit));
+        if (!matcher.matches()) {
+            return false;
+        }
+        String number = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+        return prNumbers.contains(Integer.parseInt(number));
+    }
+
+    private List<Commit> cancelRevertPairs(List<Commit> commits) {
+        Map<String, Commit> byHash = new HashMap<>();
+        List<Commit> reverts = new ArrayList<>();
+        for (Commit commit : commits) {
+            byHash.put(commit.getHash(), commit);
+            if (revertedHash(commit) != null) {
+                reverts.add(commit);
+            }
+        }
+        if (reverts.isEmpty()) {
+            return commits;
+        }
+
+        // Newest revert first, so a revert of a revert restores the original commit
+        reverts.sort(Comparator.comparing(Commit::getDate, Comparator.nullsFirst(Comparator.naturalOrder())).reversed());
+
+        Set<String> cancelled = new HashSet<>();
+        for (Commit revert : reverts) {
+            if (cancelled.contains(revert.getHash())) {
+                continue;
+            }
+            Commit target = findCommit(byHash, revertedHash(revert));
+            if (target != null && !cancelled.contains(target.getHash())) {
+                cancelled.add(revert.getHash());
+                cancelled.add(target.getHash());
+            }
+        }
+
+        return commits.stream()
+                .filter(commit -> !cancelled.contains(commit.getHash()))
+                .collect(Collectors.toList());
+    }
+
+    private Commit findCommit(Map<String, Commit> byHash, String hash) {
+        Commit exact = byHash.get(hash);
+        if (exact != null || hash.length() == 40) {
+            return exact;
+        }
+        // Abbreviated hash in a hand-written revert message
+        for (Map.Entry<String, Commit> entry : byHash.entrySet()) {
+            if (entry.getKey().startsWith(hash)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private String revertedHash(Commit commit) {
+        // Check the header first so message bodies are only read for reverts
+        if (!subjectOf(commit).startsWith("Revert \"")) {
+            return null;
+        }
+        String message = commit.getMessage();
+        Matcher matcher = REVERTED_HASH.matcher(message);
+        return matcher.find() ? matcher.group(1).toLowerCase() : null;
+    }
+
+    private String subjectOf(Commit commit) {
+        if (commit.getSubject() != null) {
+            return commit.getSubject();
+        }
+        String message = commit.getMessage() != null ? commit.getMessage() : "";
+        int newline = message.indexOf('\n');
+        return newline >= 0 ? message.substring(0, newline) : message;
+    }
+}
@@ -0,0 +1,110 @@
+package com.releasescribe.normalizer;
+
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.CommitBatch;
+import com.releasescribe.model.PullRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Normalizes and deduplicates each page as it arrives, requesting the next page only once the
+ * current one is done. Survivors are appended to a {@link CommitBatch}, which drops their message
+ * bodies when the collector can reload them and deduplicates them against its own hash columns,
+ * so raw pages can be collected as soon as they are processed. Under a memory budget they go to an
+ * {@link ExternalCommitSorter} instead, which is only merged once the pull requests are known,
+ * so commits they cover do not use up the retained share.
+ */
+class CommitStreamSubscriber implements Flow.Subscriber<List<Commit>> {
+    
+    private final Normalizer normalizer;
+    private final Map<String, List<String>> componentPaths;
+    private final CommitBatch batch;
+    // Set when a memory budget applies; it then owns dedup and storage
+    private final ExternalCommitSorter sorter;
+    private final CompletableFuture<List<PullRequest>> pullRequests;
+    private final Function<List<PullRequest>, Predicate<Commit>> coveredBy;
+    private final CompletableFuture<List<Commit>> result = new CompletableFuture<>();
+    
+    private Flow.Subscription subscription;
+    
+    CommitStreamSubscriber(Normalizer normalizer, Map<String, List<String>> componentPaths,
+                           CommitBatch.MessageLoader messageLoader) {
+        this(normalizer, componentPaths, messageLoader, null, null, null);
+    }
+    
+    CommitStreamSubscriber(Normalizer normalizer, Map<String, List<String>> componentPaths,
+                           ExternalCommitSorter sorter, CompletableFuture<List<PullRequest>> pullRequests,
+                           Function<List<PullRequest>, Predicate<Commit>> coveredBy) {
+        this(normalizer, componentPaths, null, sorter, pullRequests, coveredBy);
+    }
+    
+    private CommitStreamSubscriber(Normalizer normalizer, Map<String, List<String>> componentPaths,
+                                   CommitBatch.MessageLoader messageLoader, ExternalCommitSorter sorter,
+                                   CompletableFuture<List<PullRequest>> pullRequests,
+                                   Function<List<PullRequest>, Predicate<Commit>> coveredBy) {
+        this.normalizer = normalizer;
+        this.componentPaths = componentPaths;
+        this.batch = sorter == null ? new CommitBatch(messageLoader) : null;
+        this.sorter = sorter;
+        this.pullRequests = pullRequests;
+        this.coveredBy = coveredBy;
+    }
+    
+    CompletableFuture<List<Commit>> getResult() {
+        return result;
+    }
+    
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+    
+    @Override
+    public void onNext(List<Commit> page) {
+        try {
+            for (Commit commit : normalizer.normalizeCommits(page, componentPaths)) {
+                if (sorter != null) {
+                    sorter.add(commit);
+                } else {
+                    batch.addIfAbsent(commit);
+                }
+            }
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            result.completeExceptionally(e);
+            return;
+        }
+        subscription.request(1);
+    }
+    
+    @Override
+    public void onError(Throwable throwable) {
+        result.completeExceptionally(throwable);
+    }
+    
+    @Override
+    public void onComplete() {
+        if (sorter == null) {
+            result.complete(batch.asList());
+            return;
+        }
+        // Runs on whichever thread finishes last, the producer or the pull request collection
+        pullRequests.whenComplete((prs, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            try {
+                result.complete(sorter.finish(coveredBy.apply(prs)));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+}
@@ -1,42 +1,96 @@
 package com.releasescribe.normalizer;
 
 import com.releasescribe.model.Commit;
+import com.releasescribe.model.CommitBatch;
+import com.releasescribe.model.ConventionalCommit;
+import com.releasescribe.model.DependencyUpdate;
 import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.PullRequestField;
+import com.releasescribe.model.Trailers;
+import com.releasescribe.util.IntHashSet;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-public class DefaultNormalizer implements Normalizer {
+public class DefaultNormalizer implements StreamingNormalizer {
     
-    private static final Pattern CONVENTIONAL_COMMIT = Pattern.compile(
-        "^(feat|fix|docs|style|refactor|perf|test|chore|security)(\\(([^)]+)\\))?: (.+)$"
-    );
+    private final CommitReconciler commitReconciler = new CommitReconciler();
+    private final DependencyAggregator dependencyAggregator = new DependencyAggregator();
+    private final PullRequestBodyCleaner bodyCleaner = new PullRequestBodyCleaner();
+    private final long memoryBudgetBytes;
+    private volatile long omittedCommitCount;
     
-    private static final Pattern BREAKING_CHANGE = Pattern.compile(
-        "(?i)(breaking|breaking.?change|major)"
-    );
+    public DefaultNormalizer() {
+        this(0);
+    }
+    
+    /**
+     * Normalizer whose streamed commits stay within {@code memoryBudgetBytes}, spilling to disk
+     * beyond it; 0 means unbounded
+     */
+    public DefaultNormalizer(long memoryBudgetBytes) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+    
+    @Override
+    public Set<PullRequestField> requiredPullRequestFields() {
+        return EnumSet.of(PullRequestField.NUMBER, PullRequestField.TITLE, PullRequestField.AUTHOR,
+                PullRequestField.MERGED_AT, PullRequestField.MERGE_COMMIT_SHA, PullRequestField.LABELS);
+    }
     
     @Override
     public List<PullRequest> normalizePullRequests(List<PullRequest> pullRequests, 
                                                   Map<String, List<String>> labelMapping,
                                                   Map<String, List<String>> componentPaths) {
+        // Bodies that were not collected are only fetched for likely breaking or migration PRs
+        List<String> rawBodies = new ArrayList<>(pullRequests.size());
+        List<String> collectedBodies = new ArrayList<>(pullRequests.size());
+        for (PullRequest pr : pullRequests) {
+            boolean collected = pr.isBodyLoaded();
+            String body = collected || needsBody(pr) ? pr.getBody() : null;
+            rawBodies.add(body);
+            if (collected) {
+                collectedBodies.add(body);
+            }
+        }
+        // Learn the PR template before stripping it from any body; bodies fetched only because
+        // they look breaking are a skewed sample, so just the collected ones are learned from
+        bodyCleaner.learn(collectedBodies);
+        
+        Iterator<String> rawBodyIterator = rawBodies.iterator();
         return pullRequests.stream()
                 .map(pr -> {
+                    String rawBody = rawBodyIterator.next();
+                    String body = rawBody != null ? bodyCleaner.clean(rawBody) : null;
+                    if (body != null) {
+                        pr.setBody(body);
+                    }
+                    
                     // Categorize based on labels and title
-                    String category = categorize(pr.getTitle(), pr.getBody(), pr.getLabels(), labelMapping);
+                    String category = categorize(pr.getTitle(), body, pr.getLabels(), labelMapping);
                     pr.setCategory(category);
                     
-                    // Detect breaking changes
-                    boolean isBreaking = pr.getLabels().contains("breaking-change") ||
+                    // Detect breaking changes from the title marker, labels and the footer block,
+                    // which is read before template stripping could cut it
+                    if (pr.getTrailers() == null) {
+                        pr.setTrailers(rawBody != null ? Trailers.parse(rawBody) : Trailers.EMPTY);
+                    }
+                    if (pr.getLinkedIssues() == null || pr.getLinkedIssues().isEmpty()) {
+                        pr.setLinkedIssues(new ArrayList<>(pr.getTrailers().getLinkedIssues()));
+                    }
+                    ConventionalCommit header = ConventionalCommit.parse(pr.getTitle());
+                    boolean isBreaking = (header != null && header.isBreaking()) ||
+                                       pr.getLabels().contains("breaking-change") ||
                                        pr.getLabels().contains("breaking") ||
-                                       BREAKING_CHANGE.matcher(pr.getTitle()).find() ||
-                                       BREAKING_CHANGE.matcher(pr.getBody()).find();
+                                       pr.getTitle().toLowerCase().contains("breaking") ||
+                                       pr.getTrailers().isBreaking();
                     pr.setBreakingChange(isBreaking);
                     
                     // Detect component from title (conventional commit scope)
-                    String component = detectComponentFromTitle(pr.getTitle());
+                    String component = header != null ? header.getScope() : null;
                     if (component == null) {
                         component = "general";
                     }
@@ -52,44 +106,19 @@ public class DefaultNormalizer implements Normalizer {
                                         Map<String, List<String>> componentPaths) {
         return commits.stream()
                 .map(commit -> {
-                    // Parse conventional commit format
-                    String message = commit.getMessage();
-                    Matcher matcher = CONVENTIONAL_COMMIT.matcher(message);
+                    // Reuse the header lexed at collection time; lex here only if no collector did
+                    if (commit.getSubject() == null) {
+                        ConventionalCommit.annotate(commit);
+                    }
                     
-                    if (matcher.matches()) {
-                        String type = matcher.group(1);
-                        String scope = matcher.group(3);
-                        String description = matcher.group(4);
-                        
-                        // Map conventional commit types to categories
-                        switch (type) {
-                            case "feat":
-                                commit.setCategory("feature");
-                                break;
-                            case "fix":
-                                commit.setCategory("fix");
-                                break;
-                            case "docs":
-                                commit.setCategory("docs");
-                                break;
-                            case "perf":
-                                commit.setCategory("perf");
-                                break;
-                            case "security":
-                                commit.setCategory("security");
-                                break;
-                            case "refactor":
-                                commit.setCategory("refactor");
-                                break;
-                            default:
-                                commit.setCategory("other");
-                        }
-                        
-                        commit.setComponent(scope != null ? scope : "general");
-                    } else {
-                        // Fallback heuristics
-                        String category = categorizeFromMessage(message);
+                    String category = commit.getType() != null ? ConventionalCommit.categoryOf(commit.getType()) : null;
+                    if (category != null) {
                         commit.setCategory(category);
+                        commit.setComponent(commit.getScope() != null ? commit.getScope() : "general");
+                    } else {
+                        // Fallback heuristics on the header line, so dropped bodies are not reloaded
+                        commit.setCategory(categorizeFromMessage(commit.getSubject() != null 
+                                ? commit.getSubject() : commit.getMessage()));
                         commit.setComponent("general");
                     }
                     
@@ -98,6 +127,47 @@ public class DefaultNormalizer implements Normalizer {
                 .collect(Collectors.toList());
     }
     
+    @Override
+    public CompletableFuture<List<Commit>> normalizeCommitStream(Flow.Publisher<List<Commit>> pages,
+                                                                 Map<String, List<String>> componentPaths,
+                                                                 CompletableFuture<List<PullRequest>> pullRequests,
+                                                                 CommitBatch.MessageLoader messageLoader) {
+        if (memoryBudgetBytes <= 0) {
+            CommitStreamSubscriber subscriber = new CommitStreamSubscriber(this, componentPaths, messageLoader);
+            pages.subscribe(subscriber);
+            return subscriber.getResult();
+        }
+        // A quarter of the budget buffers commits before a spill and an eighth holds the retained
+        // summary; the rest is left for in-flight pages, pull requests and prompt building
+        ExternalCommitSorter sorter = new ExternalCommitSorter(memoryBudgetBytes / 4, memoryBudgetBytes / 8);
+        CommitStreamSubscriber subscriber = new CommitStreamSubscriber(this, componentPaths, sorter, pullRequests,
+                commitReconciler::coveredBy);
+        pages.subscribe(subscriber);
+        return subscriber.getResult().whenComplete((commits, error) -> omittedCommitCount = sorter.getOmittedCommits());
+    }
+    
+    @Override
+    public CompletableFuture<List<PullRequest>> normalizePullRequestStream(Flow.Publisher<List<PullRequest>> pages,
+                                                                           Map<String, List<String>> labelMapping,
+                                                                           Map<String, List<String>> componentPaths,
+                                                                           Consumer<PullRequest> listener) {
+        PullRequestStreamSubscriber subscriber = new PullRequestStreamSubscriber(this, labelMapping, componentPaths, listener);
+        pages.subscribe(subscriber);
+        return subscriber.getResult();
+    }
+    
+    @Override
+    public long getOmittedCommitCount() {
+        return omittedCommitCount;
+    }
+    
+    /**
+     * Cleaner applied to PR bodies, for reporting how much boilerplate was stripped
+     */
+    public PullRequestBodyCleaner getBodyCleaner() {
+        return bodyCleaner;
+    }
+    
     @Override
     public String detectComponent(List<String> changedFiles, 
                                  Map<String, List<String>> componentPaths) {
@@ -166,7 +236,7 @@ public class DefaultNormalizer implements Normalizer {
     @Override
     public List<PullRequest> deduplicatePullRequests(List<PullRequest> pullRequests) {
         // Remove exact duplicates (same PR number)
-        Set<Integer> seen = new HashSet<>();
+        IntHashSet seen = new IntHashSet(pullRequests.size());
         return pullRequests.stream()
                 .filter(pr -> seen.add(pr.getNumber()))
                 .collect(Collectors.toList());
@@ -181,12 +251,62 @@ public class DefaultNormalizer implements Normalizer {
                 .collect(Collectors.toList());
     }
     
-    private String detectComponentFromTitle(String title) {
-        Matcher matcher = CONVENTIONAL_COMMIT.matcher(title);
-        if (matcher.matches()) {
-            return matcher.group(3); // scope
+    @Override
+    public List<Commit> reconcileCommits(List<Commit> commits, List<PullRequest> pullRequests) {
+        return commitReconciler.reconcile(commits, pullRequests);
+    }
+    
+    @Override
+    public List<DependencyUpdate> aggregateDependencyUpdates(List<PullRequest> pullRequests) {
+        return dependencyAggregator.aggregate(pullRequests);
+    }
+    
+    @Override
+    public boolean isDependencyUpdate(PullRequest pullRequest) {
+        return dependencyAggregator.isDependencyUpdate(pullRequest);
+    }
+    
+    @Override
+    public List<PullRequest> removeDependencyUpdates(List<PullRequest> pullRequests, 
+                                                     List<DependencyUpdate> dependencyUpdates) {
+        if (dependencyUpdates.isEmpty()) {
+            return pullRequests;
+        }
+        IntHashSet aggregated = new IntHashSet();
+        for (DependencyUpdate update : dependencyUpdates) {
+            for (int number : update.getPullRequests()) {
+                aggregated.add(number);
+            }
+        }
+        return pullRequests.stream()
+                .filter(pr -> !aggregated.contains(pr.getNumber()))
+                .collect(Collectors.toList());
+    }
+    
+    // Title or labels hint at a breaking change or upgrade work worth reading the body for
+    private boolean needsBody(PullRequest pr) {
+        ConventionalCommit header = ConventionalCommit.parse(pr.getTitle());
+        if (header != null && header.isBreaking()) {
+            return true;
+        }
+        if (mentionsMigration(pr.getTitle())) {
+            return true;
+        }
+        for (String label : pr.getLabels()) {
+            if (mentionsMigration(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean mentionsMigration(String text) {
+        if (text == null) {
+            return false;
         }
-        return null;
+        String lower = text.toLowerCase();
+        return lower.contains("breaking") || lower.contains("migrat") || lower.contains("deprecat")
+                || lower.contains("upgrade");
     }
     
     private String categorizeFromMessage(String message) {
@@ -0,0 +1,201 @@
+package com.releasescribe.normalizer;
+
+import com.releasescribe.model.DependencyUpdate;
+import com.releasescribe.model.PullRequest;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collapses Dependabot/Renovate version bump PRs into one {@link DependencyUpdate} per
+ * ecosystem and package, keeping the lowest starting and the highest target version.
+ * Security bumps are grouped separately from routine ones.
+ */
+public class DependencyAggregator {
+
+    private static final Pattern BOT_AUTHOR = Pattern.compile(
+        "(?i)^(dependabot|renovate)(\\[bot]|-bot|-preview)?$"
+    );
+
+    // Optional conventional prefix, e.g. "chore(deps): " or "build(deps-dev): "
+    private static final String PREFIX = "^(?:[A-Za-z]+(?:\\([^)]*\\))?!?: )?";
+
+    // Dependabot: "Bump lodash from 4.17.20 to 4.17.21 in /web"
+    private static final Pattern DEPENDABOT_BUMP = Pattern.compile(
+        PREFIX + "[Bb]ump (\\S+) from (\\S+) to (\\S+)(?: in (\\S+))?\\s*$"
+    );
+
+    // Dependabot grouped updates: "Bump the npm_and_yarn group across 1 directory with 3 updates"
+    private static final Pattern DEPENDABOT_GROUP = Pattern.compile(
+        PREFIX + "[Bb]ump the (\\S+) group\\b.*$"
+    );
+
+    // Renovate: "Update dependency foo to v1.2.3", "Update actions/checkout action to v4"
+    private static final Pattern RENOVATE_UPDATE = Pattern.compile(
+        PREFIX + "[Uu]pdate (?:dependency |module |plugin )?(\\S+)(?: (?:action|image|digest))? to v?(\\S+)(?: \\[SECURITY])?\\s*$"
+    );
+
+    private static final Set<String> ECOSYSTEM_LABELS = Set.of(
+        "java", "maven", "gradle", "javascript", "npm", "yarn", "python", "pip", "go", "golang",
+        "ruby", "bundler", "docker", "github_actions", "rust", "cargo", "nuget", "composer",
+        "terraform", "helm", "elixir", "dart", "swift"
+    );
+
+    public List<DependencyUpdate> aggregate(List<PullRequest> pullRequests) {
+        Map<String, DependencyUpdate> groups = new LinkedHashMap<>();
+
+        for (PullRequest pr : pullRequests) {
+            String[] bump = parseBump(pr);
+            if (bump == null) {
+                continue;
+            }
+
+            String packageName = bump[0];
+            String ecosystem = detectEcosystem(pr.getLabels(), packageName);
+            boolean security = isSecurity(pr);
+
+            DependencyUpdate update = groups.computeIfAbsent(
+                    ecosystem + '\u0000' + packageName + '\u0000' + security,
+                    key -> new DependencyUpdate(ecosystem, packageName, security));
+            update.getPullRequests().add(pr.getNumber());
+
+            String from = bump[1];
+            String to = bump[2];
+            if (from != null && (update.getFromVersion() == null || compareVersions(from, update.getFromVersion()) < 0)) {
+                update.setFromVersion(from);
+            }
+            if (to != null && (update.getToVersion() == null || compareVersions(to, update.getToVersion()) > 0)) {
+                update.setToVersion(to);
+            }
+        }
+
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * Whether the PR is a bot bump that {@link #aggregate} folds into an update
+     */
+    public boolean isDependencyUpdate(PullRequest pr) {
+        return parseBump(pr) != null;
+    }
+
+    /**
+     * Whether a commit or PR by {@code author} titled {@code title} is a bot bump this aggregator
+     * recognises; commit filters use it to keep such commits for the PR lookup
+     */
+    public static boolean isDependencyUpdate(String author, String title) {
+        return parseBump(author, title) != null;
+    }
+
+    private String[] parseBump(PullRequest pr) {
+        return parseBump(pr.getAuthor(), pr.getTitle());
+    }
+
+    private static String[] parseBump(String author, String title) {
+        if (author == null || !BOT_AUTHOR.matcher(author).matches()) {
+            return null;
+        }
+        return parseTitle(title);
+    }
+
+    /**
+     * Returns {package, from, to} for a bump title, or null. Versions may be null for grouped updates.
+     */
+    private static String[] parseTitle(String title) {
+        if (title == null) {
+            return null;
+        }
+        Matcher matcher = DEPENDABOT_BUMP.matcher(title);
+        if (matcher.matches()) {
+            return new String[] {matcher.group(1), stripV(matcher.group(2)), stripV(matcher.group(3))};
+        }
+        matcher = RENOVATE_UPDATE.matcher(title);
+        if (matcher.matches()) {
+            return new String[] {matcher.group(1), null, stripV(matcher.group(2))};
+        }
+        matcher = DEPENDABOT_GROUP.matcher(title);
+        if (matcher.matches()) {
+            return new String[] {matcher.group(1) + " group", null, null};
+        }
+        return null;
+    }
+
+    private String detectEcosystem(List<String> labels, String packageName) {
+        if (labels != null) {
+            for (String label : labels) {
+                String lower = label.toLowerCase();
+                if (ECOSYSTEM_LABELS.contains(lower)) {
+                    return lower;
+                }
+            }
+        }
+        // Fall back to the shape of the package coordinate
+        if (packageName.indexOf(':') > 0) {
+            return "maven";
+        } else if (packageName.startsWith("@")) {
+            return "npm";
+        } else if (packageName.startsWith("github.com/") || packageName.startsWith("golang.org/")) {
+            return "go";
+        } else if (packageName.startsWith("actions/")) {
+            return "github_actions";
+        }
+        return "other";
+    }
+
+    private boolean isSecurity(PullRequest pr) {
+        if ("security".equals(pr.getCategory())) {
+            return true;
+        }
+        if (pr.getLabels() != null) {
+            for (String label : pr.getLabels()) {
+                if (label.toLowerCase().contains("security")) {
+                    return true;
+                }
+            }
+        }
+        return pr.getTitle().contains("[SECURITY]");
+    }
+
+    private static String stripV(String version) {
+        if (version.length() > 1 && (version.charAt(0) == 'v' || version.charAt(0) == 'V')
+                && Character.isDigit(version.charAt(1))) {
+            return version.substring(1);
+        }
+        return version;
+    }
+
+    // Compares dotted versions numerically where possible ("1.10.0" > "1.9.2"); falls back to text
+    static int compareVersions(String a, String b) {
+        String[] left = a.split("[.\\-+_]");
+        String[] right = b.split("[.\\-+_]");
+        int length = Math.max(left.length, right.length);
+        for (int i = 0; i < length; i++) {
+            String l = i < left.length ? left[i] : "0";
+            String r = i < right.length ? right[i] : "0";
+            int result;
+            if (isNumeric(l) && isNumeric(r)) {
+                result = new BigInteger(l).compareTo(new BigInteger(r));
+            } else {
+                result = l.compareTo(r);
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isNumeric(String part) {
+        if (part.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < part.length(); i++) {
+            if (!Character.isDigit(part.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,265 @@
+package com.releasescribe.normalizer;
+
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.CommitBatch;
+import com.releasescribe.model.ConventionalCommit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Keeps normalized commits within a memory budget. Commits are buffered in a {@link CommitBatch};
+ * when it grows past the spill threshold it is sorted by category, component, newest first and
+ * hash, and written to a temporary run file. {@link #finish} k-way merges the runs. Copies of a
+ * commit share every sort field, so they end up adjacent and are dropped in the same pass that
+ * groups commits. Only a per-group share of each group is kept in memory.
+ */
+class ExternalCommitSorter {
+
+    private static final Comparator<Commit> ORDER = Comparator
+            .comparing(Commit::getCategory, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Commit::getComponent, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Commit::getDate, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(Commit::getHash);
+
+    private final long spillThresholdBytes;
+    private final long retainBytes;
+    private final List<Path> runs = new ArrayList<>();
+
+    private CommitBatch buffer = new CommitBatch();
+    private long spilledCommits;
+    private long spilledBytes;
+    private long omittedCommits;
+
+    ExternalCommitSorter(long spillThresholdBytes, long retainBytes) {
+        this.spillThresholdBytes = spillThresholdBytes;
+        this.retainBytes = retainBytes;
+    }
+
+    /**
+     * Buffer a commit, spilling the buffer once it passes the threshold. Copies already in the
+     * buffer are ignored; copies in earlier runs are dropped by the merge.
+     */
+    void add(Commit commit) {
+        if (buffer.addIfAbsent(commit) < 0) {
+            return;
+        }
+        if (buffer.estimatedBytes() >= spillThresholdBytes) {
+            spill();
+        }
+    }
+
+    /**
+     * Merge all runs and return the retained summary, leaving out commits matching
+     * {@code excluded} before the groups are counted, so they take no share. If nothing was
+     * spilled, the buffered commits are returned as they are, in arrival order.
+     */
+    List<Commit> finish(Predicate<Commit> excluded) {
+        if (runs.isEmpty()) {
+            return buffer.asList();
+        }
+        if (buffer.size() > 0) {
+            spill();
+        }
+        buffer = null;
+        try {
+            // First pass counts distinct commits per group so each group gets a fair share
+            Map<String, Integer> groupSizes = new LinkedHashMap<>();
+            merge(commit -> {
+                if (!excluded.test(commit)) {
+                    groupSizes.merge(groupOf(commit), 1, Integer::sum);
+                }
+            });
+
+            long averageBytes = Math.max(1, spilledBytes / Math.max(1, spilledCommits));
+            Map<String, Integer> quotas = allocateQuotas(groupSizes, (int) Math.min(Integer.MAX_VALUE, retainBytes / averageBytes));
+
+            CommitBatch retained = new CommitBatch();
+            Map<String, Integer> kept = new HashMap<>();
+            merge(commit -> {
+                if (excluded.test(commit)) {
+                    return;
+                }
+                String group = groupOf(commit);
+                if (kept.merge(group, 1, Integer::sum) <= quotas.get(group)) {
+                    retained.add(commit);
+                } else {
+                    omittedCommits++;
+                }
+            });
+            return retained.asList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to merge spilled commits", e);
+        } finally {
+            for (Path run : runs) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException ignored) {
+                    // Left for the OS temp cleaner
+                }
+            }
+        }
+    }
+
+    int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * Distinct commits that were merged from disk but left out of the retained summary
+     */
+    long getOmittedCommits() {
+        return omittedCommits;
+    }
+
+    private void spill() {
+        List<Commit> sorted = new ArrayList<>(buffer.asList());
+        sorted.sort(ORDER);
+        try {
+            Path run = Files.createTempFile("relnotes-run-", ".bin");
+            run.toFile().deleteOnExit();
+            runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+                for (Commit commit : sorted) {
+                    writeCommit(out, commit);
+                }
+                spilledCommits += sorted.size();
+                spilledBytes += out.size();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill commits to disk", e);
+        }
+        buffer = new CommitBatch();
+    }
+
+    private void merge(Consumer<Commit> sink) throws IOException {
+        PriorityQueue<RunReader> heads = new PriorityQueue<>((a, b) -> ORDER.compare(a.head, b.head));
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+            String previousHash = null;
+            while (!heads.isEmpty()) {
+                RunReader reader = heads.poll();
+                Commit commit = reader.head;
+                if (!commit.getHash().equals(previousHash)) {
+                    sink.accept(commit);
+                    previousHash = commit.getHash();
+                }
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.in.close();
+            }
+        }
+    }
+
+    // Water-filling: small groups keep everything, the rest split what is left evenly
+    private static Map<String, Integer> allocateQuotas(Map<String, Integer> groupSizes, int capacity) {
+        List<Map.Entry<String, Integer>> bySize = new ArrayList<>(groupSizes.entrySet());
+        bySize.sort(Map.Entry.comparingByValue());
+        Map<String, Integer> quotas = new HashMap<>();
+        int remaining = Math.max(capacity, groupSizes.size());
+        int groupsLeft = bySize.size();
+        for (Map.Entry<String, Integer> entry : bySize) {
+            int share = Math.max(1, remaining / groupsLeft);
+            int quota = Math.min(entry.getValue(), share);
+            quotas.put(entry.getKey(), quota);
+            remaining -= quota;
+            groupsLeft--;
+        }
+        return quotas;
+    }
+
+    private static String groupOf(Commit commit) {
+        return commit.getCategory() + '\u0000' + commit.getComponent();
+    }
+
+    private static void writeCommit(DataOutputStream out, Commit commit) throws IOException {
+        writeString(out, commit.getHash());
+        writeString(out, commit.getAuthor());
+        out.writeLong(commit.getDate() != null ? commit.getDate().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE);
+        out.writeBoolean(commit.isMerge());
+        writeString(out, commit.getCategory());
+        writeString(out, commit.getComponent());
+        writeString(out, commit.getMessage());
+    }
+
+    private static Commit readCommit(DataInputStream in) throws IOException {
+        Commit commit = new Commit();
+        commit.setHash(readString(in));
+        commit.setAuthor(readString(in));
+        long epochSeconds = in.readLong();
+        commit.setDate(epochSeconds != Long.MIN_VALUE ? LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC) : null);
+        commit.setMerge(in.readBoolean());
+        String category = readString(in);
+        String component = readString(in);
+        commit.setMessage(readString(in));
+        // Type, scope, subject and trailers are derived from the message, so they are not stored
+        ConventionalCommit.annotate(commit);
+        commit.setCategory(category);
+        commit.setComponent(component);
+        return commit;
+    }
+
+    // Length-prefixed UTF-8; writeUTF is capped at 64 KB, which long messages can exceed
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class RunReader {
+        private final DataInputStream in;
+        private Commit head;
+
+        RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                head = readCommit(in);
+                return true;
+            } catch (EOFException e) {
+                head = null;
+                return false;
+            }
+        }
+    }
+}
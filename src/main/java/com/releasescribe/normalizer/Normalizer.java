@@ -1,7 +1,9 @@
 package com.releasescribe.normalizer;
 
 import com.releasescribe.model.Commit;
+import com.releasescribe.model.DependencyUpdate;
 import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.PullRequestField;
 
 import java.util.List;
 import java.util.Map;
@@ -9,6 +11,11 @@ import java.util.Set;
 
 public interface Normalizer {
     
+    /**
+     * Pull request fields this normalizer reads; bodies outside it are loaded only where needed
+     */
+    Set<PullRequestField> requiredPullRequestFields();
+    
     /**
      * Normalize and categorize pull requests
      */
@@ -43,4 +50,24 @@ public interface Normalizer {
      * Remove duplicates and merge similar items
      */
     List<Commit> deduplicateCommits(List<Commit> commits);
+    
+    /**
+     * Keep only orphan commits: drop commits covered by a PR and cancel revert pairs
+     */
+    List<Commit> reconcileCommits(List<Commit> commits, List<PullRequest> pullRequests);
+    
+    /**
+     * Aggregate bot-authored dependency bumps into one update per ecosystem and package
+     */
+    List<DependencyUpdate> aggregateDependencyUpdates(List<PullRequest> pullRequests);
+    
+    /**
+     * Whether a PR is a dependency-bot bump that {@link #aggregateDependencyUpdates} would fold
+     */
+    boolean isDependencyUpdate(PullRequest pullRequest);
+    
+    /**
+     * Remove the PRs that were folded into dependency updates
+     */
+    List<PullRequest> removeDependencyUpdates(List<PullRequest> pullRequests, List<DependencyUpdate> dependencyUpdates);
 }
@@ -0,0 +1,209 @@
+package com.releasescribe.normalizer;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Strips pull request template boilerplate from bodies and keeps bounded excerpts of what the
+ * author actually wrote. Template lines are learned from the bodies of the first PRs seen: a line
+ * repeated across enough of them is template text. Only bodies collected with their PRs are
+ * learned from, since bodies fetched because they look breaking share wording of their own.
+ * The whole excerpt stays within {@code MAX_CLEANED_CHARS}. HTML comments, images, checklist items and
+ * sections like "How to test" are always dropped. Breaking-change and migration sections get the
+ * larger share of the excerpt budget.
+ */
+public class PullRequestBodyCleaner {
+
+    private static final Pattern HTML_COMMENT = Pattern.compile("<!--.*?(?:-->|$)", Pattern.DOTALL);
+    private static final Pattern IMAGE = Pattern.compile("!\\[[^\\]]*\\]\\([^)]*\\)|<img\\b[^>]*>",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern CHECKLIST_ITEM = Pattern.compile("^\\s*(?:[-*+]|\\d+\\.)\\s+\\[[ xX]\\].*$");
+    private static final Pattern HEADING = Pattern.compile("^(?:#{1,6}\\s+(.+?)\\s*#*|\\*\\*([^*]+)\\*\\*:?)\\s*$");
+    private static final Pattern RELEVANT_HEADING = Pattern.compile(
+            "breaking|migrat|upgrade|deprecat|release note|changelog", Pattern.CASE_INSENSITIVE);
+    private static final Pattern BOILERPLATE_HEADING = Pattern.compile(
+            "\\btest|checklist|screenshot|video|recording|reviewer|before.*after|how to|type of change|"
+            + "pr type|contributor|code of conduct|license", Pattern.CASE_INSENSITIVE);
+
+    // Learning stops after this many bodies, which bounds memory on long ranges
+    private static final int LEARNING_BODIES = 200;
+    // A line is template text once it appears in this many bodies and in this share of them;
+    // a handful of PRs by one author repeat their own lines, so the count alone must be high
+    private static final int MIN_SUPPORT = 8;
+    private static final double MIN_SHARE = 0.3;
+
+    private static final int MAX_RELEVANT_EXCERPT = 1200;
+    private static final int MAX_OTHER_EXCERPT = 400;
+    private static final int MAX_CLEANED_CHARS = 2000;
+
+    private final Map<String, Integer> lineSupport = new HashMap<>();
+    private int bodiesSeen;
+    private long rawChars;
+    private long cleanedChars;
+
+    /**
+     * Learn template lines from bodies before cleaning any of them. Pass bodies collected with
+     * their PRs, not a selection of them.
+     */
+    public synchronized void learn(Collection<String> bodies) {
+        for (String body : bodies) {
+            observe(body);
+        }
+    }
+
+    /**
+     * Cleaned, bounded version of {@code body}
+     */
+    public synchronized String clean(String body) {
+        if (body == null || body.isEmpty()) {
+            return body;
+        }
+        rawChars += body.length();
+
+        List<Section> sections = parseSections(stripMarkup(body));
+        int relevantBudget = 0;
+        for (Section section : sections) {
+            if (section.relevant) {
+                relevantBudget += Math.min(section.text.length(), MAX_RELEVANT_EXCERPT);
+            }
+        }
+        // Relevant sections are excerpted first; the rest share what is left
+        int relevantRemaining = Math.min(relevantBudget, MAX_CLEANED_CHARS);
+        int remaining = MAX_CLEANED_CHARS - relevantRemaining;
+        StringBuilder cleaned = new StringBuilder();
+        for (Section section : sections) {
+            int limit = section.relevant
+                    ? Math.min(MAX_RELEVANT_EXCERPT, relevantRemaining)
+                    : Math.min(MAX_OTHER_EXCERPT, remaining);
+            if (limit <= 0) {
+                continue;
+            }
+            String excerpt = excerpt(section.text, limit);
+            if (section.relevant) {
+                relevantRemaining -= excerpt.length();
+            } else {
+                remaining -= excerpt.length();
+            }
+            if (cleaned.length() > 0) {
+                cleaned.append("\n\n");
+            }
+            if (section.heading != null) {
+                cleaned.append(section.heading).append('\n');
+            }
+            cleaned.append(excerpt);
+        }
+        // Headings and separators are not budgeted per section
+        String result = cleaned.length() > MAX_CLEANED_CHARS
+                ? excerpt(cleaned.toString(), MAX_CLEANED_CHARS - 2) : cleaned.toString();
+        cleanedChars += result.length();
+        return result;
+    }
+
+    /**
+     * Characters of body text before and after cleaning, for reporting
+     */
+    public synchronized long getRawChars() {
+        return rawChars;
+    }
+
+    public synchronized long getCleanedChars() {
+        return cleanedChars;
+    }
+
+    private void observe(String body) {
+        if (body == null || bodiesSeen >= LEARNING_BODIES) {
+            return;
+        }
+        bodiesSeen++;
+        Set<String> lines = new HashSet<>();
+        for (String line : HTML_COMMENT.matcher(body).replaceAll("").split("\n")) {
+            String key = normalize(line);
+            if (!key.isEmpty()) {
+                lines.add(key);
+            }
+        }
+        for (String key : lines) {
+            lineSupport.merge(key, 1, Integer::sum);
+        }
+    }
+
+    private boolean isTemplateLine(String line) {
+        Integer support = lineSupport.get(normalize(line));
+        return support != null && support >= MIN_SUPPORT && support >= bodiesSeen * MIN_SHARE;
+    }
+
+    private static String stripMarkup(String body) {
+        String text = HTML_COMMENT.matcher(body).replaceAll("");
+        return IMAGE.matcher(text).replaceAll("");
+    }
+
+    // Splits on markdown or bold-line headings; boilerplate sections and template lines are dropped
+    private List<Section> parseSections(String text) {
+        List<Section> sections = new ArrayList<>();
+        Section current = new Section(null);
+        for (String line : text.split("\r?\n")) {
+            Matcher heading = HEADING.matcher(line.trim());
+            if (heading.matches()) {
+                current.addTo(sections);
+                current = new Section(heading.group(1) != null ? heading.group(1) : heading.group(2));
+                continue;
+            }
+            if (current.boilerplate || CHECKLIST_ITEM.matcher(line).matches() || isTemplateLine(line)) {
+                continue;
+            }
+            current.append(line);
+        }
+        current.addTo(sections);
+        return sections;
+    }
+
+    // Whole lines up to limit characters, with an ellipsis when something was cut
+    private static String excerpt(String text, int limit) {
+        if (text.length() <= limit) {
+            return text;
+        }
+        int cut = text.lastIndexOf('\n', limit);
+        if (cut <= 0) {
+            cut = limit;
+        }
+        return text.substring(0, cut).trim() + " …";
+    }
+
+    private static String normalize(String line) {
+        return line.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static class Section {
+        final String heading;
+        final boolean relevant;
+        final boolean boilerplate;
+        final StringBuilder body = new StringBuilder();
+        boolean lastBlank;
+        String text;
+
+        Section(String heading) {
+            this.heading = heading;
+            this.relevant = heading != null && RELEVANT_HEADING.matcher(heading).find();
+            this.boilerplate = heading != null && !relevant && BOILERPLATE_HEADING.matcher(heading).find();
+        }
+
+        void append(String line) {
+            // Collapse runs of blank lines
+            boolean blank = line.isBlank();
+            if (blank && (body.length() == 0 || lastBlank)) {
+                return;
+            }
+            body.append(blank ? "" : line.stripTrailing()).append('\n');
+            lastBlank = blank;
+        }
+
+        // Sections left empty once boilerplate is gone are unfilled template headings
+        void addTo(List<Section> sections) {
+            text = body.toString().trim();
+            if (!boilerplate && !text.isEmpty()) {
+                sections.add(this);
+            }
+        }
+    }
+}
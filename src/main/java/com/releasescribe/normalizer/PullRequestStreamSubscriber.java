@@ -0,0 +1,73 @@
+package com.releasescribe.normalizer;
+
+import com.releasescribe.model.PullRequest;
+import com.releasescribe.util.IntHashSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Normalizes and deduplicates pull request pages as they arrive. Each new PR is handed to a
+ * listener straight away, so later stages can start before collection ends.
+ */
+class PullRequestStreamSubscriber implements Flow.Subscriber<List<PullRequest>> {
+    
+    private final Normalizer normalizer;
+    private final Map<String, List<String>> labelMapping;
+    private final Map<String, List<String>> componentPaths;
+    private final Consumer<PullRequest> listener;
+    private final IntHashSet seen = new IntHashSet();
+    private final List<PullRequest> pullRequests = new ArrayList<>();
+    private final CompletableFuture<List<PullRequest>> result = new CompletableFuture<>();
+    
+    private Flow.Subscription subscription;
+    
+    PullRequestStreamSubscriber(Normalizer normalizer, Map<String, List<String>> labelMapping,
+                                Map<String, List<String>> componentPaths, Consumer<PullRequest> listener) {
+        this.normalizer = normalizer;
+        this.labelMapping = labelMapping;
+        this.componentPaths = componentPaths;
+        this.listener = listener;
+    }
+    
+    CompletableFuture<List<PullRequest>> getResult() {
+        return result;
+    }
+    
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+    
+    @Override
+    public void onNext(List<PullRequest> page) {
+        try {
+            for (PullRequest pr : normalizer.normalizePullRequests(page, labelMapping, componentPaths)) {
+                if (seen.add(pr.getNumber())) {
+                    pullRequests.add(pr);
+                    listener.accept(pr);
+                }
+            }
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            result.completeExceptionally(e);
+            return;
+        }
+        subscription.request(1);
+    }
+    
+    @Override
+    public void onError(Throwable throwable) {
+        result.completeExceptionally(throwable);
+    }
+    
+    @Override
+    public void onComplete() {
+        result.complete(pullRequests);
+    }
+}
@@ -0,0 +1,59 @@
+package com.releasescribe.normalizer;
+
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.CommitBatch;
+import com.releasescribe.model.PullRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+public interface StreamingNormalizer extends Normalizer {
+    
+    /**
+     * Normalize and deduplicate commits page by page while they are still being collected.
+     * One page is requested at a time, so a slow normalizer holds back the collector.
+     */
+    default CompletableFuture<List<Commit>> normalizeCommitStream(Flow.Publisher<List<Commit>> pages,
+                                                                  Map<String, List<String>> componentPaths) {
+        return normalizeCommitStream(pages, componentPaths, CompletableFuture.completedFuture(List.of()));
+    }
+    
+    /**
+     * Like {@link #normalizeCommitStream(Flow.Publisher, Map)}, but commits covered by the
+     * eventual {@code pullRequests} are dropped before anything is left out to stay within the
+     * memory budget. The result completes only once {@code pullRequests} has.
+     */
+    default CompletableFuture<List<Commit>> normalizeCommitStream(Flow.Publisher<List<Commit>> pages,
+                                                                  Map<String, List<String>> componentPaths,
+                                                                  CompletableFuture<List<PullRequest>> pullRequests) {
+        return normalizeCommitStream(pages, componentPaths, pullRequests, null);
+    }
+    
+    /**
+     * Like {@link #normalizeCommitStream(Flow.Publisher, Map, CompletableFuture)}, but message
+     * bodies of the kept commits are dropped and reloaded through {@code messageLoader} when read.
+     * With a null loader they are kept.
+     */
+    CompletableFuture<List<Commit>> normalizeCommitStream(Flow.Publisher<List<Commit>> pages,
+                                                          Map<String, List<String>> componentPaths,
+                                                          CompletableFuture<List<PullRequest>> pullRequests,
+                                                          CommitBatch.MessageLoader messageLoader);
+    
+    /**
+     * Normalize and deduplicate pull requests page by page, passing each new one to
+     * {@code listener} as soon as it is normalized
+     */
+    CompletableFuture<List<PullRequest>> normalizePullRequestStream(Flow.Publisher<List<PullRequest>> pages,
+                                                                    Map<String, List<String>> labelMapping,
+                                                                    Map<String, List<String>> componentPaths,
+                                                                    Consumer<PullRequest> listener);
+    
+    /**
+     * Commits the last completed stream collected but left out of its result to stay within
+     * the memory budget
+     */
+    long getOmittedCommitCount();
+}
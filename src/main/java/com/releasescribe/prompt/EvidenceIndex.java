@@ -0,0 +1,157 @@
+package com.releasescribe.prompt;
+
+import com.releasescribe.model.PullRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory inverted index over the paragraphs of the pull request bodies in a release, ranked
+ * with BM25. Only bodies that are already loaded are indexed, so building it never triggers a
+ * fetch. Terms are lowercased and cut to six characters, a cheap stemmer that folds "migrate",
+ * "migrating" and "migration" together.
+ */
+class EvidenceIndex {
+
+    /**
+     * A paragraph of a pull request body with its BM25 score for one query
+     */
+    static class Hit {
+        final int pullRequest;
+        final String paragraph;
+        final double score;
+
+        Hit(int pullRequest, String paragraph, double score) {
+            this.pullRequest = pullRequest;
+            this.paragraph = paragraph;
+            this.score = score;
+        }
+    }
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int STEM_LENGTH = 6;
+    // Paragraphs shorter than this carry no evidence, such as "N/A" or a bare link
+    private static final int MIN_PARAGRAPH_CHARS = 20;
+    // Hits scoring below this share of the best one matched only incidental words
+    private static final double MIN_RELATIVE_SCORE = 0.4;
+
+    private final List<Integer> pullRequests = new ArrayList<>();
+    private final List<String> paragraphs = new ArrayList<>();
+    private int[] lengths = new int[16];
+    // Term -> flat (paragraph, frequency) pairs in paragraph order
+    private final Map<String, int[]> postings = new HashMap<>();
+    private final Map<String, Integer> postingSizes = new HashMap<>();
+    private long totalLength;
+
+    EvidenceIndex(List<PullRequest> pullRequests) {
+        for (PullRequest pr : pullRequests) {
+            if (pr.isBodyLoaded() && pr.getBody() != null) {
+                for (String paragraph : pr.getBody().split("\\n\\s*\\n")) {
+                    String text = paragraph.trim();
+                    if (text.length() >= MIN_PARAGRAPH_CHARS) {
+                        add(pr.getNumber(), text);
+                    }
+                }
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return paragraphs.isEmpty();
+    }
+
+    /**
+     * Paragraphs matching {@code query}, best first, at most {@code limit}
+     */
+    List<Hit> search(String query, int limit) {
+        if (paragraphs.isEmpty()) {
+            return List.of();
+        }
+        double averageLength = (double) totalLength / paragraphs.size();
+        double[] scores = new double[paragraphs.size()];
+        for (String term : new LinkedHashSet<>(terms(query))) {
+            int[] posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            int size = postingSizes.get(term);
+            int documentFrequency = size / 2;
+            double idf = Math.log(1 + (paragraphs.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            for (int i = 0; i < size; i += 2) {
+                int doc = posting[i];
+                int frequency = posting[i + 1];
+                double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                scores[doc] += idf * frequency * (K1 + 1) / (frequency + norm);
+            }
+        }
+
+        double best = 0;
+        for (double score : scores) {
+            best = Math.max(best, score);
+        }
+        List<Hit> hits = new ArrayList<>();
+        for (int doc = 0; doc < scores.length; doc++) {
+            if (scores[doc] > 0 && scores[doc] >= best * MIN_RELATIVE_SCORE) {
+                hits.add(new Hit(pullRequests.get(doc), paragraphs.get(doc), scores[doc]));
+            }
+        }
+        hits.sort((a, b) -> Double.compare(b.score, a.score));
+        return hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+
+    private void add(int pullRequest, String paragraph) {
+        int doc = paragraphs.size();
+        pullRequests.add(pullRequest);
+        paragraphs.add(paragraph);
+        if (doc == lengths.length) {
+            lengths = Arrays.copyOf(lengths, doc * 2);
+        }
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        List<String> terms = terms(paragraph);
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        lengths[doc] = terms.size();
+        totalLength += terms.size();
+
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            int size = postingSizes.getOrDefault(entry.getKey(), 0);
+            int[] posting = postings.get(entry.getKey());
+            if (posting == null) {
+                posting = new int[4];
+            } else if (size + 2 > posting.length) {
+                posting = Arrays.copyOf(posting, posting.length * 2);
+            }
+            posting[size] = doc;
+            posting[size + 1] = entry.getValue();
+            postings.put(entry.getKey(), posting);
+            postingSizes.put(entry.getKey(), size + 2);
+        }
+    }
+
+    // Lowercased alphanumeric runs, cut to the stem length
+    private static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i - start > 1) {
+                terms.add(text.substring(start, Math.min(i, start + STEM_LENGTH)).toLowerCase());
+            }
+        }
+        return terms;
+    }
+}
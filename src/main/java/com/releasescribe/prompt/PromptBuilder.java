@@ -1,10 +1,24 @@
 package com.releasescribe.prompt;
 
+import com.releasescribe.config.ReleaseScribeConfig;
 import com.releasescribe.model.Commit;
+import com.releasescribe.model.DependencyUpdate;
 import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.PullRequestField;
+import com.releasescribe.model.ReleaseDelta;
+import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.model.ReleaseNotesField;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class PromptBuilder {
@@ -12,52 +26,456 @@ public class PromptBuilder {
     private static final String SYSTEM_PROMPT = """
         You are a release notes generator. Return ONLY valid JSON with these exact fields:
         {
-          "changelog_md": "markdown changelog content",
-          "release_notes_md": "markdown release notes content", 
           "customer_highlights_md": "markdown customer highlights content",
           "breaking_changes": ["array of breaking changes"],
-          "upgrade_steps": ["array of upgrade steps"]
+          "upgrade_steps": ["array of upgrade steps"],
+          "release_notes_md": "markdown release notes content", 
+          "changelog_md": "markdown changelog content"
         }
+        Write the fields in this order.
         
         Follow Keep a Changelog style; be concise and accurate. No code inventions.
         Return ONLY the JSON object, no other text.
         """;
     
-    private static final String PROMPT_TEMPLATE = """
-        Repo: %s/%s; Range: %s
+    // Identical for every release with the same label mapping, so it belongs to the cached prefix
+    private static final String INSTRUCTIONS_TEMPLATE = """
         
         Audience profiles: dev (engineering), customer (non-technical).
         
         Categories & mapping: %s
         
-        Data (compact):
-        
-        %s
-        
         Breaking flags: PRs labelled breaking-change → include summary.
         
-        Upgrade hints gathered from PR bodies (migration notes).
-        
         Constraints:
         - Group by category and component; link PRs/issues like [#123].
         - Add a short "What's in this release" overview (3–5 bullets).
         - Keep customer highlights to 5–8 bullets max, value-oriented.
-        - Return JSON with the fields listed in System.
+        - Return JSON with the fields listed above.
+        """;
+    
+    private static final PromptTemplate INSTRUCTIONS = new PromptTemplate(INSTRUCTIONS_TEMPLATE);
+    
+    // Everything specific to one release, sent after the cached prefix
+    private static final String PROMPT_TEMPLATE = """
+        Repo: %s/%s; Range: %s
+        
+        Data (compact):
+        
+        %s
+        
+        Evidence from PR bodies, ranked for breaking changes and upgrade steps:
+        %s
+        """;
+    
+    private static final PromptTemplate USER_TEMPLATE = new PromptTemplate(PROMPT_TEMPLATE);
+    
+    private static final String SHARD_SYSTEM_PROMPT = """
+        You summarize one slice of a release; a later step merges the slices into release notes.
+        Return concise markdown bullets, one per notable change, keeping references like [#123].
+        Prefix breaking changes with "BREAKING:" and add any upgrade step they imply.
+        Return only the bullets, no preamble.
+        """;
+    
+    // One part of the notes per call; the slots are audience, task, tone, forbidden content and mapping
+    private static final String ARTIFACT_TEMPLATE = """
+        You write one part of the release notes of a software release, for a %s audience.
+        %s
+        Tone: %s. Avoid: %s. Be concise and accurate. No code inventions.
+        Link PRs/issues like [#123].
+        
+        Categories & mapping: %s
         """;
     
-    public String buildSystemPrompt() {
-        return SYSTEM_PROMPT;
+    private static final PromptTemplate ARTIFACT_INSTRUCTIONS = new PromptTemplate(ARTIFACT_TEMPLATE);
+    
+    private static final String PATCH_SYSTEM_PROMPT = """
+        You update existing release notes after a few pull requests or commits were added to or
+        removed from the release. You receive the current text of some fields and the changes.
+        Return ONLY a JSON object with just the fields you changed, using the field names and types
+        of the full release notes: markdown strings, and arrays of strings for "breaking_changes"
+        and "upgrade_steps". A returned field replaces the whole field, so keep every line the
+        changes do not affect verbatim. Add new items where they belong, and remove every mention
+        of removed pull requests and commits. Return {} when nothing needs to change.
+        """;
+    
+    // Body excerpt shown for added breaking PRs, the source of new upgrade steps
+    private static final int MAX_PATCH_BODY_CHARS = 600;
+    
+    // Section-specific BM25 queries over PR body paragraphs, listed in this order
+    private static final String[][] EVIDENCE_QUERIES = {
+        {"Breaking", "breaking change removed remove incompatible no longer dropped renamed signature"},
+        {"Migration", "migration migrate upgrade upgrading steps replace instead run command manually"},
+        {"Deprecation", "deprecated deprecation deprecate will be removed future release warning"},
+        {"Config change", "configuration config setting option property environment variable default flag"}
+    };
+    private static final int EVIDENCE_HITS_PER_QUERY = 5;
+    private static final int MAX_EVIDENCE_CHARS = 300;
+    // Evidence budget when no limits are configured; otherwise a quarter of limits.maxTokens
+    private static final int DEFAULT_EVIDENCE_TOKENS = 1500;
+    
+    // Abbreviated commit hashes are at least this long, and longer where needed to stay unique.
+    // Seven is git's default: shorter refs are not autolinked by GitHub when cited in the notes,
+    // can be all digits like a PR number, or read like the a1/c1 legend ids.
+    private static final int MIN_HASH_LENGTH = 7;
+    
+    private final ReleaseScribeConfig.Limits limits;
+    private final boolean includeAuthors;
+    
+    public PromptBuilder() {
+        this(null);
+    }
+    
+    /**
+     * Builder whose data section stays within {@code limits.maxTokens} estimated tokens and
+     * {@code limits.maxPrs} pull requests; null means unlimited
+     */
+    public PromptBuilder(ReleaseScribeConfig.Limits limits) {
+        this(limits, null);
+    }
+    
+    /**
+     * Builder for the given audiences; authors are left out when every audience is "customer"
+     */
+    public PromptBuilder(ReleaseScribeConfig.Limits limits, List<String> audiences) {
+        this.limits = limits;
+        this.includeAuthors = audiences == null || audiences.isEmpty() 
+                || !audiences.stream().allMatch("customer"::equalsIgnoreCase);
+    }
+    
+    /**
+     * Pull request fields the prompt reads; categories and components come from the normalizer
+     */
+    public Set<PullRequestField> requiredPullRequestFields() {
+        return includeAuthors 
+                ? EnumSet.of(PullRequestField.NUMBER, PullRequestField.TITLE, PullRequestField.AUTHOR)
+                : EnumSet.of(PullRequestField.NUMBER, PullRequestField.TITLE);
+    }
+    
+    /**
+     * System prompt with the output format, audiences, category mapping and constraints. It does
+     * not depend on the release, so it is the prefix the client marks for prompt caching.
+     */
+    public String buildSystemPrompt(Map<String, List<String>> labelMapping) {
+        String categoriesMapping = buildCategoriesMapping(labelMapping);
+        StringBuilder prompt = new StringBuilder(SYSTEM_PROMPT.length() + INSTRUCTIONS.literalLength() 
+                + categoriesMapping.length());
+        prompt.append(SYSTEM_PROMPT);
+        try {
+            INSTRUCTIONS.write(prompt, target -> target.append(categoriesMapping));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to build system prompt", e);
+        }
+        return prompt.toString();
     }
     
     public String buildUserPrompt(String owner, String repo, String range, 
-                                 Map<String, List<String>> labelMapping,
                                  List<PullRequest> pullRequests, 
                                  List<Commit> commits) {
+        return buildUserPrompt(owner, repo, range, pullRequests, commits, List.of());
+    }
+    
+    public String buildUserPrompt(String owner, String repo, String range, 
+                                 List<PullRequest> pullRequests, 
+                                 List<Commit> commits,
+                                 List<DependencyUpdate> dependencyUpdates) {
+        
+        String evidence = buildEvidenceSection(pullRequests);
+        DataPlan data = planData(pullRequests, commits, dependencyUpdates, TokenEstimator.estimate(evidence));
+        
+        // One buffer sized up front; rows are written into it directly
+        StringBuilder prompt = new StringBuilder(USER_TEMPLATE.literalLength() + owner.length() + repo.length() 
+                + range.length() + evidence.length() + data.length());
+        try {
+            writeUserPrompt(prompt, owner, repo, range, List.of(), data, evidence);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to build user prompt", e);
+        }
+        return prompt.toString();
+    }
+    
+    /**
+     * Estimated tokens of the data section with every row listed, before limits.maxTokens and
+     * limits.maxPrs trim it: the size of the release rather than of its prompt
+     */
+    public int estimateFullDataTokens(List<PullRequest> pullRequests, List<Commit> commits,
+                                      List<DependencyUpdate> dependencyUpdates) {
+        PromptLegend authors = new PromptLegend("a");
+        PromptLegend components = new PromptLegend("c");
+        List<PromptSection> sections = buildSections(pullRequests, commits, dependencyUpdates, authors, components);
+        int tokens = TokenEstimator.estimate(renderLegend(sections, authors, components));
+        for (PromptSection section : sections) {
+            if (!section.items.isEmpty()) {
+                tokens += TokenEstimator.estimate(section.header);
+            }
+            for (PromptSection.Item item : section.items) {
+                tokens += item.cost;
+            }
+        }
+        return tokens;
+    }
+    
+    /**
+     * Write the user prompt to {@code out}, such as a writer on a request body, without first
+     * building it as a string
+     */
+    public void writeUserPrompt(Appendable out, String owner, String repo, String range, 
+                                List<PullRequest> pullRequests, 
+                                List<Commit> commits,
+                                List<DependencyUpdate> dependencyUpdates) throws IOException {
+        String evidence = buildEvidenceSection(pullRequests);
+        DataPlan data = planData(pullRequests, commits, dependencyUpdates, TokenEstimator.estimate(evidence));
+        writeUserPrompt(out, owner, repo, range, List.of(), data, evidence);
+    }
+    
+    private void writeUserPrompt(Appendable out, String owner, String repo, String range,
+                                 List<String> shardSummaries, DataPlan data, String evidence) throws IOException {
+        USER_TEMPLATE.write(out, 
+                target -> target.append(owner), 
+                target -> target.append(repo), 
+                target -> target.append(range), 
+                target -> {
+                    if (!shardSummaries.isEmpty()) {
+                        target.append("Pull request summaries by category and component:\n\n");
+                        for (String summary : shardSummaries) {
+                            target.append(summary).append("\n\n");
+                        }
+                    }
+                    writeData(target, data);
+                }, 
+                target -> target.append(evidence));
+    }
+    
+    /**
+     * System prompt for the map step of map-reduce generation
+     */
+    public String buildShardSystemPrompt() {
+        return SHARD_SYSTEM_PROMPT;
+    }
+    
+    /**
+     * User prompt summarizing one shard of pull requests
+     */
+    public String buildShardUserPrompt(String owner, String repo, String range, String shard, 
+                                       List<PullRequest> pullRequests) {
+        StringBuilder prompt = new StringBuilder(64 + shard.length() + 64 * pullRequests.size());
+        prompt.append("Repo: ").append(owner).append('/').append(repo).append("; Range: ").append(range)
+                .append("\nSlice: ").append(shard).append("\n\n");
+        for (PullRequest pr : pullRequests) {
+            prompt.append("  [#").append(pr.getNumber()).append("] ").append(rowTitle(pr));
+            if (includeAuthors) {
+                prompt.append(" — @").append(pr.getAuthor());
+            }
+            if (pr.isBreakingChange()) {
+                prompt.append(" [breaking]");
+            }
+            prompt.append('\n');
+        }
+        return prompt.toString();
+    }
+    
+    /**
+     * User prompt folding several shard summaries into one, for reduces that exceed their budget
+     */
+    public String buildSummaryMergePrompt(String owner, String repo, String range, List<String> summaries) {
+        StringBuilder prompt = new StringBuilder("Repo: ").append(owner).append('/').append(repo)
+                .append("; Range: ").append(range)
+                .append("\nMerge these slice summaries into one list of bullets, ")
+                .append("dropping duplicates and keeping every BREAKING item:\n\n");
+        for (int i = 0; i < summaries.size(); i++) {
+            if (i > 0) {
+                prompt.append("\n\n");
+            }
+            prompt.append(summaries.get(i));
+        }
+        return prompt.toString();
+    }
+    
+    /**
+     * User prompt for the reduce step: shard summaries stand in for the pull request list
+     */
+    public String buildReduceUserPrompt(String owner, String repo, String range, 
+                                        List<String> shardSummaries, 
+                                        List<PullRequest> pullRequests,
+                                        List<Commit> commits,
+                                        List<DependencyUpdate> dependencyUpdates) {
+        String evidence = buildEvidenceSection(pullRequests);
+        DataPlan data = planData(List.of(), commits, dependencyUpdates, TokenEstimator.estimate(evidence));
         
+        int summaryLength = 0;
+        for (String summary : shardSummaries) {
+            summaryLength += summary.length() + 2;
+        }
+        StringBuilder prompt = new StringBuilder(USER_TEMPLATE.literalLength() + owner.length() + repo.length() 
+                + range.length() + evidence.length() + data.length() + 64 + summaryLength);
+        try {
+            writeUserPrompt(prompt, owner, repo, range, shardSummaries, data, evidence);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to build reduce prompt", e);
+        }
+        return prompt.toString();
+    }
+    
+    /**
+     * System prompt for a call that writes only {@code field}, for {@code audience} ("dev",
+     * "customer" or any other name); breaking changes and upgrade steps are written together
+     */
+    public String buildArtifactSystemPrompt(ReleaseNotesField field, String audience, 
+                                            ReleaseScribeConfig.Prompt style,
+                                            Map<String, List<String>> labelMapping) {
+        String task;
+        switch (field) {
+            case CHANGELOG_MD:
+                task = "Write the changelog as markdown, grouped by category and component, in "
+                        + (style != null && style.getChangelogStyle() != null ? style.getChangelogStyle() : "Keep a Changelog")
+                        + " style. Return only the markdown, no preamble.";
+                break;
+            case RELEASE_NOTES_MD:
+                task = "Write the release notes as markdown. Start with a short \"What's in this release\" overview "
+                        + "(3–5 bullets), then group by category and component. Return only the markdown, no preamble.";
+                break;
+            case CUSTOMER_HIGHLIGHTS_MD:
+                task = "Write 5–8 value-oriented customer highlights as a markdown bullet list. "
+                        + "Return only the bullets, no preamble.";
+                break;
+            default:
+                task = "List the breaking changes and the upgrade steps they require. Return ONLY JSON: "
+                        + "{\"breaking_changes\": [\"...\"], \"upgrade_steps\": [\"...\"]}, "
+                        + "with empty arrays when there are none.";
+                break;
+        }
+        String audienceName = "dev".equalsIgnoreCase(audience) ? "engineering (dev)" 
+                : "customer".equalsIgnoreCase(audience) ? "non-technical customer" : audience;
+        String tone = style != null && style.getTone() != null ? style.getTone() : "crisp";
+        String forbid = style != null && style.getForbid() != null && !style.getForbid().isEmpty() 
+                ? String.join(", ", style.getForbid()) : "nothing in particular";
         String categoriesMapping = buildCategoriesMapping(labelMapping);
-        String dataSection = buildDataSection(pullRequests, commits);
         
-        return String.format(PROMPT_TEMPLATE, owner, repo, range, categoriesMapping, dataSection);
+        StringBuilder prompt = new StringBuilder(ARTIFACT_INSTRUCTIONS.literalLength() + audienceName.length() 
+                + task.length() + tone.length() + forbid.length() + categoriesMapping.length());
+        try {
+            ARTIFACT_INSTRUCTIONS.write(prompt, 
+                    target -> target.append(audienceName), 
+                    target -> target.append(task), 
+                    target -> target.append(tone), 
+                    target -> target.append(forbid), 
+                    target -> target.append(categoriesMapping));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to build artifact system prompt", e);
+        }
+        return prompt.toString();
+    }
+    
+    /**
+     * System prompt for patching previously generated release notes
+     */
+    public String buildPatchSystemPrompt() {
+        return PATCH_SYSTEM_PROMPT;
+    }
+    
+    /**
+     * User prompt listing what changed in the release and the current text of {@code fields}, the
+     * JSON field names of the release notes the changes may affect; only those are sent and patched
+     */
+    public String buildPatchUserPrompt(String owner, String repo, String range, ReleaseNotes previous,
+                                       ReleaseDelta delta, Set<String> fields) {
+        StringBuilder prompt = new StringBuilder(4096);
+        prompt.append("Repo: ").append(owner).append('/').append(repo).append("; Range: ").append(range)
+                .append("\n\nChanges since these release notes were written:\n");
+        appendPatchPullRequests(prompt, "Added pull requests:\n", delta.getAddedPullRequests());
+        appendPatchPullRequests(prompt, "Edited pull requests (update what the notes say about them):\n", 
+                delta.getChangedPullRequests());
+        if (!delta.getRemovedPullRequests().isEmpty()) {
+            prompt.append("\nRemoved pull requests (remove every mention):\n");
+            delta.getRemovedPullRequests().forEach((number, title) ->
+                    prompt.append("  [#").append(number).append("] ").append(title).append('\n'));
+        }
+        if (!delta.getAddedCommits().isEmpty()) {
+            prompt.append("\nAdded commits:\n");
+            for (Commit commit : delta.getAddedCommits()) {
+                String message = commit.getMessage() != null ? commit.getMessage() : "";
+                prompt.append("  ").append(commit.getHash(), 0, Math.min(7, commit.getHash().length()))
+                        .append(' ').append(message, 0, subjectEnd(message));
+                if (commit.isBreakingChange()) {
+                    prompt.append(" [breaking]");
+                }
+                prompt.append('\n');
+            }
+        }
+        if (!delta.getRemovedCommits().isEmpty()) {
+            prompt.append("\nRemoved commits (remove every mention):\n");
+            for (String hash : delta.getRemovedCommits()) {
+                prompt.append("  ").append(hash, 0, Math.min(7, hash.length())).append('\n');
+            }
+        }
+        if (!delta.getAddedDependencyUpdates().isEmpty()) {
+            prompt.append("\nAdded dependency updates:\n");
+            for (DependencyUpdate update : delta.getAddedDependencyUpdates()) {
+                prompt.append(formatDependencyUpdate(update));
+            }
+        }
+        if (!delta.getRemovedDependencyUpdates().isEmpty()) {
+            prompt.append("\nRemoved dependency updates (remove every mention):\n");
+            for (String update : delta.getRemovedDependencyUpdates()) {
+                prompt.append("  ").append(update).append('\n');
+            }
+        }
+        
+        prompt.append("\nCurrent release notes fields:\n");
+        appendPatchField(prompt, fields, "changelog_md", previous.getChangelogMd());
+        appendPatchField(prompt, fields, "release_notes_md", previous.getReleaseNotesMd());
+        appendPatchField(prompt, fields, "customer_highlights_md", previous.getCustomerHighlightsMd());
+        appendPatchField(prompt, fields, "breaking_changes", previous.getBreakingChanges());
+        appendPatchField(prompt, fields, "upgrade_steps", previous.getUpgradeSteps());
+        prompt.append("\nReturn JSON with only those of the fields above that you changed.\n");
+        return prompt.toString();
+    }
+    
+    private void appendPatchPullRequests(StringBuilder prompt, String header, List<PullRequest> pullRequests) {
+        if (pullRequests.isEmpty()) {
+            return;
+        }
+        prompt.append('\n').append(header);
+        for (PullRequest pr : pullRequests) {
+            prompt.append("  [#").append(pr.getNumber()).append("] ").append(rowTitle(pr));
+            if (pr.getCategory() != null) {
+                prompt.append(" (").append(pr.getCategory());
+                if (pr.getComponent() != null) {
+                    prompt.append(", ").append(pr.getComponent());
+                }
+                prompt.append(')');
+            }
+            if (includeAuthors && pr.getAuthor() != null) {
+                prompt.append(" — @").append(pr.getAuthor());
+            }
+            if (pr.isBreakingChange()) {
+                prompt.append(" [breaking]");
+                // Without the full evidence section, the body is where upgrade steps come from
+                if (pr.isBodyLoaded() && pr.getBody() != null && !pr.getBody().isBlank()) {
+                    String body = pr.getBody().strip();
+                    prompt.append("\n    ").append(body, 0, Math.min(body.length(), MAX_PATCH_BODY_CHARS))
+                            .append(body.length() > MAX_PATCH_BODY_CHARS ? " …" : "");
+                }
+            }
+            prompt.append('\n');
+        }
+    }
+    
+    private static void appendPatchField(StringBuilder prompt, Set<String> fields, String name, String value) {
+        if (fields.contains(name)) {
+            prompt.append('\n').append(name).append(":\n").append(value != null ? value : "").append('\n');
+        }
+    }
+    
+    private static void appendPatchField(StringBuilder prompt, Set<String> fields, String name, List<String> values) {
+        if (fields.contains(name)) {
+            prompt.append('\n').append(name).append(" (array):\n");
+            if (values != null) {
+                for (String value : values) {
+                    prompt.append("- ").append(value).append('\n');
+                }
+            }
+        }
     }
     
     private String buildCategoriesMapping(Map<String, List<String>> labelMapping) {
@@ -66,106 +484,423 @@ public class PromptBuilder {
                 .collect(Collectors.joining("; "));
     }
     
-    private String buildDataSection(List<PullRequest> pullRequests, List<Commit> commits) {
-        StringBuilder data = new StringBuilder();
-        
-        // Group PRs by category
-        Map<String, List<PullRequest>> prsByCategory = pullRequests.stream()
-                .collect(Collectors.groupingBy(pr -> pr.getCategory() != null ? pr.getCategory() : "other"));
-        
-        // Group commits by category
-        Map<String, List<Commit>> commitsByCategory = commits.stream()
-                .collect(Collectors.groupingBy(commit -> commit.getCategory() != null ? commit.getCategory() : "other"));
-        
-        // Build features section
-        if (prsByCategory.containsKey("feature")) {
-            data.append("Features:\n");
-            for (PullRequest pr : prsByCategory.get("feature")) {
-                data.append(String.format("  [#%d] %s — @%s\n", pr.getNumber(), pr.getTitle(), pr.getAuthor()));
+    // The evidence already spent part of limits.maxTokens
+    private DataPlan planData(List<PullRequest> pullRequests, List<Commit> commits, 
+                              List<DependencyUpdate> dependencyUpdates, int evidenceTokens) {
+        return limits != null 
+                ? planData(pullRequests, commits, dependencyUpdates, 
+                        limits.getMaxTokens() - evidenceTokens, limits.getMaxPrs())
+                : planData(pullRequests, commits, dependencyUpdates, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+    
+    // Top-ranked body paragraphs per query, best first until the evidence budget is spent
+    private String buildEvidenceSection(List<PullRequest> pullRequests) {
+        EvidenceIndex index = new EvidenceIndex(pullRequests);
+        if (index.isEmpty()) {
+            return "(none)\n";
+        }
+        int remaining = limits != null ? limits.getMaxTokens() / 4 : DEFAULT_EVIDENCE_TOKENS;
+        Set<String> listed = new HashSet<>();
+        StringBuilder evidence = new StringBuilder();
+        for (String[] query : EVIDENCE_QUERIES) {
+            String header = query[0] + ":\n";
+            boolean headerWritten = false;
+            for (EvidenceIndex.Hit hit : index.search(query[1], EVIDENCE_HITS_PER_QUERY)) {
+                // A paragraph matching several queries is listed once, under the first
+                if (!listed.add(hit.pullRequest + "\u0000" + hit.paragraph)) {
+                    continue;
+                }
+                String line = "  [#" + hit.pullRequest + "] " + snippet(hit.paragraph) + "\n";
+                int cost = TokenEstimator.estimate(line) + (headerWritten ? 0 : TokenEstimator.estimate(header));
+                if (cost > remaining) {
+                    break;
+                }
+                if (!headerWritten) {
+                    evidence.append(header);
+                    headerWritten = true;
+                }
+                evidence.append(line);
+                remaining -= cost;
             }
         }
-        
-        // Build fixes section
-        if (prsByCategory.containsKey("fix")) {
-            data.append("Fixes:\n");
-            for (PullRequest pr : prsByCategory.get("fix")) {
-                data.append(String.format("  [#%d] %s — @%s\n", pr.getNumber(), pr.getTitle(), pr.getAuthor()));
+        return evidence.length() == 0 ? "(none)\n" : evidence.toString();
+    }
+    
+    // One line, cut at a word boundary
+    private static String snippet(String paragraph) {
+        String text = paragraph.replaceAll("\\s+", " ");
+        if (text.length() <= MAX_EVIDENCE_CHARS) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', MAX_EVIDENCE_CHARS);
+        return text.substring(0, cut > 0 ? cut : MAX_EVIDENCE_CHARS) + " …";
+    }
+    
+    // Legend lines for authors and components, then tab-separated rows under category headers
+    private DataPlan planData(List<PullRequest> pullRequests, List<Commit> commits, 
+                              List<DependencyUpdate> dependencyUpdates, int maxTokens, int maxPullRequests) {
+        PromptLegend authors = new PromptLegend("a");
+        PromptLegend components = new PromptLegend("c");
+        List<PromptSection> sections = buildSections(pullRequests, commits, dependencyUpdates, authors, components);
+        if (maxTokens < Integer.MAX_VALUE || maxPullRequests < Integer.MAX_VALUE) {
+            new TokenBudgetPlanner(maxTokens, maxPullRequests).allocate(sections);
+            // Dropping rows can only shorten the legend, so one re-plan keeps both within budget
+            int legendTokens = TokenEstimator.estimate(renderLegend(sections, authors, components));
+            new TokenBudgetPlanner(maxTokens - legendTokens, maxPullRequests).allocate(sections);
+            warnOmitted(sections);
+        }
+        return new DataPlan(renderLegend(sections, authors, components), sections);
+    }
+    
+    // The model only sees "+N more" for trimmed entries, so the user is told what was left out
+    private static void warnOmitted(List<PromptSection> sections) {
+        int omitted = 0;
+        int total = 0;
+        StringBuilder counts = new StringBuilder();
+        for (PromptSection section : sections) {
+            total += section.items.size();
+            if (section.omitted > 0) {
+                omitted += section.omitted;
+                counts.append(counts.length() == 0 ? "" : ", ")
+                        .append(section.header, 0, section.header.length() - 2).append(' ').append(section.omitted);
             }
         }
+        if (omitted > 0) {
+            System.err.println("Warning: limits left " + omitted + " of " + total + " entries out of the prompt ("
+                    + counts + "); raise limits.maxTokens or limits.maxPrs to include them");
+        }
+    }
+    
+    // Sections in priority order: breaking, security, features, fixes, the rest, then orphan commits
+    private List<PromptSection> buildSections(List<PullRequest> pullRequests, List<Commit> commits, 
+                                              List<DependencyUpdate> dependencyUpdates,
+                                              PromptLegend authors, PromptLegend components) {
+        PromptSection breaking = new PromptSection("Breaking changes:\n", true);
+        Map<String, PromptSection> byCategory = new LinkedHashMap<>();
+        byCategory.put("security", new PromptSection("Security:\n", true));
+        PromptSection securityUpdates = new PromptSection("Security dependency updates:\n", false);
+        byCategory.put("feature", new PromptSection("Features:\n", true));
+        byCategory.put("fix", new PromptSection("Fixes:\n", true));
+        byCategory.put("perf", new PromptSection("Performance:\n", true));
+        byCategory.put("docs", new PromptSection("Documentation:\n", true));
+        byCategory.put("refactor", new PromptSection("Refactoring:\n", true));
+        PromptSection updates = new PromptSection("Dependency updates:\n", false);
+        PromptSection orphanCommits = new PromptSection("Commits:\n", false);
         
-        // Build security section
-        if (prsByCategory.containsKey("security")) {
-            data.append("Security:\n");
-            for (PullRequest pr : prsByCategory.get("security")) {
-                data.append(String.format("  [#%d] %s — @%s\n", pr.getNumber(), pr.getTitle(), pr.getAuthor()));
+        // PRs outside the listed categories have never been part of the prompt
+        List<PullRequest> listed = new ArrayList<>();
+        for (PullRequest pr : pullRequests) {
+            if (pr.isBreakingChange() || byCategory.containsKey(pr.getCategory())) {
+                listed.add(pr);
             }
         }
+        // Rows are grouped by component within each section
+        listed.sort(Comparator.comparing(PullRequest::getComponent, Comparator.nullsLast(Comparator.naturalOrder())));
+        List<Commit> orderedCommits = new ArrayList<>(commits);
+        orderedCommits.sort(Comparator.comparing(Commit::getComponent, Comparator.nullsLast(Comparator.naturalOrder())));
         
-        // Build performance section
-        if (prsByCategory.containsKey("perf")) {
-            data.append("Performance:\n");
-            for (PullRequest pr : prsByCategory.get("perf")) {
-                data.append(String.format("  [#%d] %s — @%s\n", pr.getNumber(), pr.getTitle(), pr.getAuthor()));
+        for (PullRequest pr : listed) {
+            components.count(pr.getComponent());
+            if (includeAuthors) {
+                authors.count(pr.getAuthor());
             }
         }
-        
-        // Build docs section
-        if (prsByCategory.containsKey("docs")) {
-            data.append("Documentation:\n");
-            for (PullRequest pr : prsByCategory.get("docs")) {
-                data.append(String.format("  [#%d] %s — @%s\n", pr.getNumber(), pr.getTitle(), pr.getAuthor()));
+        for (Commit commit : orderedCommits) {
+            components.count(commit.getComponent());
+            if (includeAuthors) {
+                authors.count(commit.getAuthor());
             }
         }
+        authors.assign();
+        components.assign();
         
-        // Build refactor section
-        if (prsByCategory.containsKey("refactor")) {
-            data.append("Refactoring:\n");
-            for (PullRequest pr : prsByCategory.get("refactor")) {
-                data.append(String.format("  [#%d] %s — @%s\n", pr.getNumber(), pr.getTitle(), pr.getAuthor()));
-            }
+        for (PullRequest pr : listed) {
+            PromptSection section = pr.isBreakingChange() ? breaking : byCategory.get(pr.getCategory());
+            String author = includeAuthors ? authors.id(pr.getAuthor()) : null;
+            String component = components.isEmpty() ? null : components.id(pr.getComponent());
+            String title = rowTitle(pr);
+            int digits = digits(pr.getNumber());
+            // "#" is one token and digits group in threes, as the estimator counts them
+            section.addRow(pr, null, author, component, score(pr),
+                    rowCost(1 + (digits + 2) / 3, component, title, title.length(), author),
+                    rowLength(1 + digits, component, title.length(), author));
+        }
+        
+        // Add aggregated dependency bumps, security updates first
+        for (DependencyUpdate update : dependencyUpdates) {
+            (update.isSecurity() ? securityUpdates : updates).add(formatDependencyUpdate(update), update.getPullRequests().size());
         }
         
         // Add commits that don't have associated PRs
-        if (!commits.isEmpty()) {
-            data.append("Commits:\n");
-            for (Commit commit : commits) {
-                data.append(String.format("  %s: %s — @%s\n", 
-                    commit.getHash().substring(0, 7), 
-                    commit.getMessage().split("\n")[0], 
-                    commit.getAuthor()));
-            }
+        Map<String, String> abbreviations = abbreviateHashes(orderedCommits);
+        for (Commit commit : orderedCommits) {
+            String author = includeAuthors ? authors.id(commit.getAuthor()) : null;
+            String component = components.isEmpty() ? null : components.id(commit.getComponent());
+            String ref = abbreviations.get(commit.getHash());
+            String message = commit.getMessage() != null ? commit.getMessage() : "";
+            int subjectEnd = subjectEnd(message);
+            orphanCommits.addRow(commit, ref, author, component, commit.isBreakingChange() ? 1 : 0,
+                    rowCost(TokenEstimator.count(ref, 0, ref.length()), component, message, subjectEnd, author),
+                    rowLength(ref.length(), component, subjectEnd, author));
         }
         
-        return data.toString();
+        List<PromptSection> sections = new ArrayList<>();
+        sections.add(breaking);
+        sections.add(byCategory.remove("security"));
+        sections.add(securityUpdates);
+        sections.addAll(byCategory.values());
+        sections.add(updates);
+        sections.add(orphanCommits);
+        return sections;
     }
     
-    public String buildCompactContext(List<PullRequest> pullRequests, List<Commit> commits, int maxTokens) {
-        StringBuilder context = new StringBuilder();
-        int currentTokens = 0;
-        
-        // Add PRs first (they're more informative)
-        for (PullRequest pr : pullRequests) {
-            String prText = String.format("[#%d] %s — @%s\n", pr.getNumber(), pr.getTitle(), pr.getAuthor());
-            if (currentTokens + prText.length() > maxTokens) {
-                break;
+    // Larger PRs and ones closing issues rank first within a section
+    private static double score(PullRequest pr) {
+        int commits = pr.getCommitHashes() != null ? pr.getCommitHashes().size() : 0;
+        int issues = pr.getLinkedIssues() != null ? pr.getLinkedIssues().size() : 0;
+        return commits + 2.0 * issues;
+    }
+    
+    // Columns: ref, component, title, author; each separator (tab or newline) is one token
+    private static int rowCost(int refTokens, String component, CharSequence title, int titleEnd, String author) {
+        int tokens = refTokens + 1 + TokenEstimator.count(title, 0, titleEnd) + 1;
+        if (component != null) {
+            tokens += 1 + TokenEstimator.count(component, 0, component.length());
+        }
+        if (author != null) {
+            tokens += 1 + TokenEstimator.count(author, 0, author.length());
+        }
+        return TokenEstimator.withMargin(tokens);
+    }
+    
+    private static int rowLength(int refLength, String component, int titleLength, String author) {
+        int length = refLength + 1 + titleLength + 1;
+        if (component != null) {
+            length += 1 + component.length();
+        }
+        if (author != null) {
+            length += 1 + author.length();
+        }
+        return length;
+    }
+    
+    private static int digits(int number) {
+        int digits = number < 0 ? 2 : 1;
+        for (int rest = Math.abs(number / 10); rest > 0; rest /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+    
+    // A stored summary, when there is one, says more per token than the title
+    private static String rowTitle(PullRequest pr) {
+        if (pr.getSummary() != null) {
+            return pr.getSummary();
+        }
+        return pr.getTitle() != null ? pr.getTitle() : "";
+    }
+    
+    // End of the first line, found by scanning rather than splitting the whole message
+    private static int subjectEnd(String message) {
+        int end = message.indexOf('\n');
+        if (end < 0) {
+            end = message.length();
+        }
+        return end > 0 && message.charAt(end - 1) == '\r' ? end - 1 : end;
+    }
+    
+    // Columns: ref, component, title, author; a null column is left out of the row
+    private static void writeItem(Appendable out, PromptSection.Item item) throws IOException {
+        CharSequence title;
+        int titleEnd;
+        if (item.source instanceof PullRequest) {
+            PullRequest pr = (PullRequest) item.source;
+            out.append('#');
+            if (out instanceof StringBuilder) {
+                ((StringBuilder) out).append(pr.getNumber());
+            } else {
+                out.append(Integer.toString(pr.getNumber()));
             }
-            context.append(prText);
-            currentTokens += prText.length();
+            title = rowTitle(pr);
+            titleEnd = title.length();
+        } else if (item.source instanceof Commit) {
+            String message = ((Commit) item.source).getMessage();
+            out.append(item.ref);
+            title = message != null ? message : "";
+            titleEnd = message != null ? subjectEnd(message) : 0;
+        } else {
+            out.append((String) item.source);
+            return;
         }
-        
-        // Add commits if we have space
+        if (item.component != null) {
+            out.append('\t').append(item.component);
+        }
+        out.append('\t');
+        appendCell(out, title, titleEnd);
+        if (item.author != null) {
+            out.append('\t').append(item.author);
+        }
+        out.append('\n');
+    }
+    
+    // Tabs and line breaks would split a row; runs between them are appended without copying
+    private static void appendCell(Appendable out, CharSequence text, int end) throws IOException {
+        int start = 0;
+        for (int i = 0; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '\t' || c == '\r' || c == '\n') {
+                out.append(text, start, i).append(' ');
+                start = i + 1;
+            }
+        }
+        out.append(text, start, end);
+    }
+    
+    // Shortest prefix of each hash that is unique among the listed commits
+    private static Map<String, String> abbreviateHashes(List<Commit> commits) {
+        List<String> hashes = new ArrayList<>(commits.size());
         for (Commit commit : commits) {
-            String commitText = String.format("%s: %s — @%s\n", 
-                commit.getHash().substring(0, 7), 
-                commit.getMessage().split("\n")[0], 
-                commit.getAuthor());
-            if (currentTokens + commitText.length() > maxTokens) {
-                break;
+            hashes.add(commit.getHash());
+        }
+        hashes.sort(null);
+        Map<String, String> abbreviations = new HashMap<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            String hash = hashes.get(i);
+            int length = MIN_HASH_LENGTH;
+            // In sorted order, the longest shared prefix is always with a neighbour
+            if (i > 0) {
+                length = Math.max(length, commonPrefix(hash, hashes.get(i - 1)) + 1);
+            }
+            if (i + 1 < hashes.size()) {
+                length = Math.max(length, commonPrefix(hash, hashes.get(i + 1)) + 1);
+            }
+            abbreviations.put(hash, hash.substring(0, Math.min(length, hash.length())));
+        }
+        return abbreviations;
+    }
+    
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    // Legends list only ids on selected rows; the column line tells the model how to read rows
+    private static String renderLegend(List<PromptSection> sections, PromptLegend authors, PromptLegend components) {
+        Set<String> usedAuthors = new HashSet<>();
+        Set<String> usedComponents = new HashSet<>();
+        for (PromptSection section : sections) {
+            for (PromptSection.Item item : section.items) {
+                if (item.selected) {
+                    if (item.author != null) {
+                        usedAuthors.add(item.author);
+                    }
+                    if (item.component != null) {
+                        usedComponents.add(item.component);
+                    }
+                }
+            }
+        }
+        // Without either column, rows are just a reference and a title
+        if (usedAuthors.isEmpty() && usedComponents.isEmpty()) {
+            return "";
+        }
+        return authors.render("Authors", usedAuthors) + components.render("Components", usedComponents)
+                + "Rows (tab-separated): #PR or commit, " + (components.isEmpty() ? "" : "component, ")
+                + "title" + (authors.isEmpty() ? "" : ", author") + "\n\n";
+    }
+    
+    private static void writeData(Appendable out, DataPlan data) throws IOException {
+        out.append(data.legend);
+        for (PromptSection section : data.sections) {
+            if (section.items.isEmpty()) {
+                continue;
+            }
+            out.append(section.header);
+            for (PromptSection.Item item : section.items) {
+                if (item.selected) {
+                    writeItem(out, item);
+                }
+            }
+            if (section.omitted > 0) {
+                out.append(PromptSection.omittedLine(section.omitted));
             }
-            context.append(commitText);
-            currentTokens += commitText.length();
         }
+    }
+    
+    // A planned data section; rows are only formatted when it is written
+    private static final class DataPlan {
+        final String legend;
+        final List<PromptSection> sections;
         
+        DataPlan(String legend, List<PromptSection> sections) {
+            this.legend = legend;
+            this.sections = sections;
+        }
+        
+        int length() {
+            int length = legend.length();
+            for (PromptSection section : sections) {
+                if (section.items.isEmpty()) {
+                    continue;
+                }
+                length += section.header.length();
+                for (PromptSection.Item item : section.items) {
+                    if (item.selected) {
+                        length += item.length;
+                    }
+                }
+                if (section.omitted > 0) {
+                    length += PromptSection.omittedLine(section.omitted).length();
+                }
+            }
+            return length;
+        }
+    }
+    
+    private String formatDependencyUpdate(DependencyUpdate update) {
+        StringBuilder line = new StringBuilder("  ");
+        line.append(update.getEcosystem()).append(' ').append(update.getPackageName());
+        if (update.getToVersion() != null) {
+            line.append(' ');
+            if (update.getFromVersion() != null) {
+                line.append(update.getFromVersion()).append(" → ");
+            }
+            line.append(update.getToVersion());
+        }
+        return line.append(' ').append(formatPullRequestRefs(update.getPullRequests())).append('\n').toString();
+    }
+    
+    private String formatPullRequestRefs(List<Integer> numbers) {
+        // Keep a few references for linking; the rest are only counted
+        int shown = Math.min(numbers.size(), 3);
+        StringBuilder refs = new StringBuilder("[");
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) {
+                refs.append(", ");
+            }
+            refs.append('#').append(numbers.get(i));
+        }
+        if (numbers.size() > shown) {
+            refs.append(", +").append(numbers.size() - shown).append(" more");
+        }
+        return refs.append(']').toString();
+    }
+    
+    /**
+     * Release data trimmed to {@code maxTokens} estimated tokens, highest priority first
+     */
+    public String buildCompactContext(List<PullRequest> pullRequests, List<Commit> commits, int maxTokens) {
+        DataPlan data = planData(pullRequests, commits, List.of(), maxTokens, Integer.MAX_VALUE);
+        StringBuilder context = new StringBuilder(data.length());
+        try {
+            writeData(context, data);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to build compact context", e);
+        }
         return context.toString();
     }
     
@@ -180,7 +915,7 @@ public class PromptBuilder {
         
         StringBuilder breaking = new StringBuilder("Breaking Changes:\n");
         for (PullRequest pr : breakingPRs) {
-            breaking.append(String.format("- [#%d] %s\n", pr.getNumber(), pr.getTitle()));
+            breaking.append("- [#").append(pr.getNumber()).append("] ").append(pr.getTitle()).append('\n');
         }
         
         return breaking.toString();
@@ -189,11 +924,10 @@ public class PromptBuilder {
     public String buildUpgradeStepsSection(List<PullRequest> pullRequests) {
         StringBuilder upgrade = new StringBuilder("Upgrade Steps:\n");
         
-        // Look for migration notes in PR bodies
-        for (PullRequest pr : pullRequests) {
-            if (pr.getBody() != null && pr.getBody().toLowerCase().contains("migration")) {
-                upgrade.append(String.format("- [#%d] %s: Check migration notes\n", pr.getNumber(), pr.getTitle()));
-            }
+        // Migration notes are the body paragraphs ranking best for the migration query
+        EvidenceIndex index = new EvidenceIndex(pullRequests);
+        for (EvidenceIndex.Hit hit : index.search(EVIDENCE_QUERIES[1][1], EVIDENCE_HITS_PER_QUERY)) {
+            upgrade.append("- [#").append(hit.pullRequest).append("] ").append(snippet(hit.paragraph)).append('\n');
         }
         
         if (upgrade.length() == "Upgrade Steps:\n".length()) {
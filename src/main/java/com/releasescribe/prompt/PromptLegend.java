@@ -0,0 +1,68 @@
+package com.releasescribe.prompt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Short ids for values that repeat on many prompt rows, such as authors and components. The most
+ * frequent values get the shortest ids. Only ids that appear on rendered rows are listed.
+ */
+class PromptLegend {
+
+    private final String prefix;
+    private final Map<String, Integer> counts = new HashMap<>();
+    private final Map<String, String> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    PromptLegend(String prefix) {
+        this.prefix = prefix;
+    }
+
+    void count(String value) {
+        if (value != null) {
+            counts.merge(value, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Assign ids to all counted values, most frequent first
+     */
+    void assign() {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        for (Map.Entry<String, Integer> entry : entries) {
+            values.add(entry.getKey());
+            ids.put(entry.getKey(), prefix + values.size());
+        }
+    }
+
+    boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * Id of a counted value, or "-" for none
+     */
+    String id(String value) {
+        String id = value != null ? ids.get(value) : null;
+        return id != null ? id : "-";
+    }
+
+    /**
+     * Legend line such as {@code "Authors: a1=alice, a2=bob\n"} for the ids in {@code used}, or ""
+     */
+    String render(String title, Set<String> used) {
+        StringBuilder line = new StringBuilder();
+        for (String value : values) {
+            String id = ids.get(value);
+            if (used.contains(id)) {
+                line.append(line.length() == 0 ? title + ": " : ", ").append(id).append('=').append(value);
+            }
+        }
+        return line.length() == 0 ? "" : line.append('\n').toString();
+    }
+}
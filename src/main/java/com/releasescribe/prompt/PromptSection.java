@@ -0,0 +1,63 @@
+package com.releasescribe.prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One heading of the prompt data section with its candidate lines. Every line is selected
+ * until a {@link TokenBudgetPlanner} decides otherwise. Rows keep their source and are only
+ * written out when the prompt is, so planning never formats a line that is then dropped.
+ */
+class PromptSection {
+
+    static class Item {
+        // A PullRequest or Commit row, or a preformatted line
+        final Object source;
+        // Row reference for commits (the abbreviated hash); PR rows use their number
+        final String ref;
+        // Legend ids used on the row, or null
+        final String author;
+        final String component;
+        final double score;
+        final int order;
+        // Estimated tokens and characters of the rendered line
+        final int cost;
+        final int length;
+        boolean selected = true;
+
+        Item(Object source, String ref, String author, String component, double score, int order, 
+             int cost, int length) {
+            this.source = source;
+            this.ref = ref;
+            this.author = author;
+            this.component = component;
+            this.score = score;
+            this.order = order;
+            this.cost = cost;
+            this.length = length;
+        }
+    }
+
+    final String header;
+    // Lines in this section count against limits.maxPrs
+    final boolean pullRequests;
+    final List<Item> items = new ArrayList<>();
+    int omitted;
+
+    PromptSection(String header, boolean pullRequests) {
+        this.header = header;
+        this.pullRequests = pullRequests;
+    }
+
+    void add(String line, double score) {
+        items.add(new Item(line, null, null, null, score, items.size(), TokenEstimator.estimate(line), line.length()));
+    }
+
+    void addRow(Object source, String ref, String author, String component, double score, int cost, int length) {
+        items.add(new Item(source, ref, author, component, score, items.size(), cost, length));
+    }
+
+    static String omittedLine(int omitted) {
+        return "  +" + omitted + " more not listed\n";
+    }
+}
@@ -0,0 +1,44 @@
+package com.releasescribe.prompt;
+
+import java.io.IOException;
+
+/**
+ * A prompt template split at its {@code %s} slots once, so filling it writes the literal text
+ * straight to the target instead of reformatting the whole prompt.
+ */
+final class PromptTemplate {
+
+    interface Slot {
+        void write(Appendable out) throws IOException;
+    }
+
+    private final String[] literals;
+    private final int literalLength;
+
+    PromptTemplate(String template) {
+        this.literals = template.split("%s", -1);
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Characters of the template without its slots, for sizing the target
+     */
+    int literalLength() {
+        return literalLength;
+    }
+
+    void write(Appendable out, Slot... slots) throws IOException {
+        if (slots.length != literals.length - 1) {
+            throw new IllegalArgumentException("Template has " + (literals.length - 1) + " slots, got " + slots.length);
+        }
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            slots[i].write(out);
+        }
+        out.append(literals[slots.length]);
+    }
+}
@@ -0,0 +1,99 @@
+package com.releasescribe.prompt;
+
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.DependencyUpdate;
+import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.ReleaseNotes;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Round-trip check for {@code #123} references. Every reference in generated notes should point
+ * at a pull request or issue number that was in the prompt data, however compactly it was encoded.
+ */
+public final class PullRequestReferences {
+
+    // "#123", but not "owner/repo#123" or anchors inside words
+    private static final Pattern REFERENCE = Pattern.compile("(?<![\\w/])#(\\d+)\\b");
+
+    private PullRequestReferences() {
+    }
+
+    /**
+     * Numbers referenced in {@code notes} that none of the inputs mention, in ascending order
+     */
+    public static Set<Integer> findUnknown(ReleaseNotes notes, List<PullRequest> pullRequests,
+                                           List<Commit> commits, List<DependencyUpdate> dependencyUpdates) {
+        Set<Integer> known = new HashSet<>();
+        for (PullRequest pr : pullRequests) {
+            known.add(pr.getNumber());
+            collect(pr.getTitle(), known);
+            collect(pr.getSummary(), known);
+            collectIssues(pr.getLinkedIssues(), known);
+            if (pr.getTrailers() != null) {
+                collectIssues(pr.getTrailers().getLinkedIssues(), known);
+            }
+            // The evidence section quotes loaded bodies, such as "Fixes #456"; never fetch one here
+            if (pr.isBodyLoaded()) {
+                collect(pr.getBody(), known);
+            }
+        }
+        for (Commit commit : commits) {
+            collect(commit.getMessage(), known);
+            if (commit.getTrailers() != null) {
+                collectIssues(commit.getTrailers().getLinkedIssues(), known);
+            }
+        }
+        for (DependencyUpdate update : dependencyUpdates) {
+            known.addAll(update.getPullRequests());
+        }
+
+        Set<Integer> referenced = new TreeSet<>();
+        collect(notes.getChangelogMd(), referenced);
+        collect(notes.getReleaseNotesMd(), referenced);
+        collect(notes.getCustomerHighlightsMd(), referenced);
+        if (notes.getBreakingChanges() != null) {
+            notes.getBreakingChanges().forEach(text -> collect(text, referenced));
+        }
+        if (notes.getUpgradeSteps() != null) {
+            notes.getUpgradeSteps().forEach(text -> collect(text, referenced));
+        }
+        referenced.removeAll(known);
+        return referenced;
+    }
+
+    /**
+     * Numbers referenced in {@code text}
+     */
+    public static Set<Integer> referencedIn(String text) {
+        Set<Integer> numbers = new HashSet<>();
+        collect(text, numbers);
+        return numbers;
+    }
+
+    // Linked issues are kept as written: "#12", "owner/repo#12" or "PROJ-12"; only "#12" is a reference
+    private static void collectIssues(List<String> issues, Set<Integer> numbers) {
+        if (issues != null) {
+            issues.forEach(issue -> collect(issue, numbers));
+        }
+    }
+
+    private static void collect(String text, Set<Integer> numbers) {
+        if (text == null) {
+            return;
+        }
+        Matcher matcher = REFERENCE.matcher(text);
+        while (matcher.find()) {
+            try {
+                numbers.add(Integer.parseInt(matcher.group(1)));
+            } catch (NumberFormatException e) {
+                // Longer than any PR number; cannot be a reference
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.releasescribe.prompt;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Spends a token budget on prompt sections in priority order. Each section's lines are
+ * queued by score and taken best first until the next one no longer fits. Lines that are
+ * left out become one "+N more" line. Space for that line and for the header is reserved up
+ * front, so the summaries fit too.
+ */
+class TokenBudgetPlanner {
+
+    private static final Comparator<PromptSection.Item> BEST_FIRST = Comparator
+            .comparingDouble((PromptSection.Item item) -> item.score).reversed()
+            .thenComparingInt(item -> item.order);
+
+    private final int maxTokens;
+    private final int maxPullRequests;
+
+    TokenBudgetPlanner(int maxTokens, int maxPullRequests) {
+        this.maxTokens = maxTokens;
+        this.maxPullRequests = maxPullRequests;
+    }
+
+    /**
+     * Mark the selected lines of {@code sections}, given highest priority first, and return the
+     * estimated tokens of the result
+     */
+    int allocate(List<PromptSection> sections) {
+        int remaining = maxTokens;
+        int pullRequestsLeft = maxPullRequests;
+
+        // Every non-empty section renders its header and, in the worst case, a summary line
+        int[] reserved = new int[sections.size()];
+        for (int i = 0; i < sections.size(); i++) {
+            PromptSection section = sections.get(i);
+            if (!section.items.isEmpty()) {
+                reserved[i] = TokenEstimator.estimate(PromptSection.omittedLine(section.items.size()));
+                remaining -= TokenEstimator.estimate(section.header) + reserved[i];
+            }
+        }
+
+        for (int i = 0; i < sections.size(); i++) {
+            PromptSection section = sections.get(i);
+            if (section.items.isEmpty()) {
+                continue;
+            }
+            for (PromptSection.Item item : section.items) {
+                item.selected = false;
+            }
+
+            // O(log n) per line queued and per line taken; only the lines taken are polled
+            PriorityQueue<PromptSection.Item> candidates = new PriorityQueue<>(Math.max(1, section.items.size()), BEST_FIRST);
+            candidates.addAll(section.items);
+            int taken = 0;
+            while (!candidates.isEmpty()) {
+                if (section.pullRequests && pullRequestsLeft <= 0) {
+                    break;
+                }
+                int cost = candidates.peek().cost;
+                if (cost > remaining) {
+                    break;
+                }
+                candidates.poll().selected = true;
+                remaining -= cost;
+                taken++;
+                if (section.pullRequests) {
+                    pullRequestsLeft--;
+                }
+            }
+
+            section.omitted = section.items.size() - taken;
+            if (section.omitted == 0) {
+                // The summary line is not needed; later sections can use its space
+                remaining += reserved[i];
+            }
+        }
+        return maxTokens - remaining;
+    }
+}
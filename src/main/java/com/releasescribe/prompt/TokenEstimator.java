@@ -0,0 +1,70 @@
+package com.releasescribe.prompt;
+
+/**
+ * Estimates Claude input tokens without a tokenizer round trip. Short words are about one token
+ * and longer ones one per five letters. Digits group in threes, and punctuation and non-Latin
+ * characters cost a token each. Hashes and identifiers therefore cost more than their length
+ * suggests, which is how they really tokenize. The result is padded so budgets err on the
+ * safe side. These rules are a heuristic, not fitted to tokenizer output; the only check is
+ * that prose never comes out below the usual four characters per token.
+ */
+public final class TokenEstimator {
+
+    private static final double SAFETY_MARGIN = 1.1;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(CharSequence text) {
+        return text == null ? 0 : estimate(text, 0, text.length());
+    }
+    
+    /**
+     * Estimate for {@code text[start, end)}, without copying the range out
+     */
+    public static int estimate(CharSequence text, int start, int end) {
+        return withMargin(count(text, start, end));
+    }
+    
+    // Unpadded tokens of a range; ranges separated by punctuation can be counted apart and summed
+    static int count(CharSequence text, int start, int end) {
+        int tokens = 0;
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (isWordLetter(c)) {
+                int runStart = i;
+                while (i < end && isWordLetter(text.charAt(i))) {
+                    i++;
+                }
+                tokens += (i - runStart + 4) / 5;
+            } else if (c >= '0' && c <= '9') {
+                int runStart = i;
+                while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                    i++;
+                }
+                tokens += (i - runStart + 2) / 3;
+            } else if (c == ' ') {
+                // A single space is absorbed by the following word
+                int runStart = i;
+                while (i < end && text.charAt(i) == ' ') {
+                    i++;
+                }
+                tokens += (i - runStart) / 4;
+            } else {
+                tokens++;
+                i++;
+            }
+        }
+        return tokens;
+    }
+    
+    static int withMargin(int tokens) {
+        return (int) Math.ceil(tokens * SAFETY_MARGIN);
+    }
+    
+    // ASCII and Latin-1 letters merge into word pieces; other scripts are costed per character
+    private static boolean isWordLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= 'À' && c <= 'ɏ' && Character.isLetter(c));
+    }
+}
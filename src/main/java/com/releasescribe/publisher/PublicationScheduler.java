@@ -0,0 +1,88 @@
+package com.releasescribe.publisher;
+
+import com.releasescribe.model.ReleaseNotes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs each publisher once. Publishers can be started in the background as soon as the release
+ * notes are generated, while files are still rendered; the rest are published at the end.
+ * Nothing is started from the fields of a streamed response, since the attempt they came from
+ * may still fail and be retried, and a publisher cannot take back what it has posted.
+ */
+public class PublicationScheduler {
+
+    private final List<Publisher> publishers;
+    private final String version;
+    private final String tag;
+    private final Map<Publisher, CompletableFuture<Void>> started = new LinkedHashMap<>();
+
+    public PublicationScheduler(List<Publisher> publishers, String version, String tag) {
+        this.publishers = publishers;
+        this.version = version;
+        this.tag = tag;
+    }
+
+    /**
+     * Start every configured publisher in the background; {@code releaseNotes} must be the
+     * final, completely parsed notes of the run
+     */
+    public synchronized void start(ReleaseNotes releaseNotes) {
+        for (Publisher publisher : publishers) {
+            if (!started.containsKey(publisher) && publisher.isConfigured()) {
+                System.out.println("Publishing to " + publisher.getName() + " (early)...");
+                started.put(publisher, CompletableFuture.runAsync(() -> {
+                    try {
+                        publisher.publish(releaseNotes, version, tag);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+        }
+    }
+
+    /**
+     * Publish the complete release notes with every publisher not started yet, then wait for
+     * the ones started early
+     */
+    public void publishRemaining(ReleaseNotes releaseNotes) throws IOException {
+        List<Publisher> remaining = new ArrayList<>();
+        List<CompletableFuture<Void>> running;
+        synchronized (this) {
+            for (Publisher publisher : publishers) {
+                if (!started.containsKey(publisher)) {
+                    remaining.add(publisher);
+                }
+            }
+            running = new ArrayList<>(started.values());
+        }
+
+        for (Publisher publisher : remaining) {
+            if (publisher.isConfigured()) {
+                System.out.println("Publishing to " + publisher.getName() + "...");
+                publisher.publish(releaseNotes, version, tag);
+            } else {
+                System.err.println("Warning: " + publisher.getName() + " publisher not configured");
+            }
+        }
+
+        for (CompletableFuture<Void> future : running) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw new RuntimeException("Failed to publish release notes", e.getCause());
+            }
+        }
+    }
+}
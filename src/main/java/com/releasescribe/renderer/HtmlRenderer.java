@@ -1,6 +1,7 @@
 package com.releasescribe.renderer;
 
 import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.model.ReleaseNotesField;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -26,6 +27,20 @@ public class HtmlRenderer implements Renderer {
         renderGitHubReleaseBody(releaseNotes, outputDir.resolve("RELEASE_BODY.html"));
     }
     
+    @Override
+    public void renderField(ReleaseNotesField field, ReleaseNotes releaseNotes, Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        // Breaking changes and upgrade steps only appear in the release body, which needs every field
+        switch (field) {
+            case CHANGELOG_MD -> renderChangelog(releaseNotes.getChangelogMd(), outputDir.resolve("CHANGELOG.html"));
+            case RELEASE_NOTES_MD -> renderReleaseNotes(releaseNotes.getReleaseNotesMd(), 
+                    outputDir.resolve("RELEASE_NOTES.html"));
+            case CUSTOMER_HIGHLIGHTS_MD -> renderCustomerHighlights(releaseNotes.getCustomerHighlightsMd(), 
+                    outputDir.resolve("HIGHLIGHTS.html"));
+            default -> { }
+        }
+    }
+    
     @Override
     public void renderChangelog(String changelogMd, Path outputFile) throws IOException {
         String content = buildHtmlContent("Changelog", changelogMd);
@@ -1,6 +1,7 @@
 package com.releasescribe.renderer;
 
 import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.model.ReleaseNotesField;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -12,6 +13,11 @@ public interface Renderer {
      */
     void render(ReleaseNotes releaseNotes, Path outputDir) throws IOException;
     
+    /**
+     * Render the file built from one field, if any, as soon as that field is complete
+     */
+    void renderField(ReleaseNotesField field, ReleaseNotes releaseNotes, Path outputDir) throws IOException;
+    
     /**
      * Render changelog to file
      */
@@ -0,0 +1,112 @@
+package com.releasescribe.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of primitive ints with linear probing, so PR numbers are never boxed.
+ * Remembers insertion order: {@link #indexOf(int)} returns the position at which a key was first added.
+ */
+public final class IntHashSet {
+
+    private int[] keys;
+    // Insertion index + 1 per slot; 0 marks an empty slot, so every int value can be a key
+    private int[] slots;
+    private int size;
+    private int mask;
+
+    public IntHashSet() {
+        this(16);
+    }
+
+    public IntHashSet(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        keys = new int[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Add a key; returns false if it was already present
+     */
+    public boolean add(int key) {
+        int slot = mix(key) & mask;
+        while (slots[slot] != 0) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        slots[slot] = ++size;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Insertion index of the key, or -1 if absent
+     */
+    public int indexOf(int key) {
+        int slot = mix(key) & mask;
+        while (slots[slot] != 0) {
+            if (keys[slot] == key) {
+                return slots[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new int[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] != 0) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                slots[slot] = oldSlots[i];
+            }
+        }
+    }
+
+    // Sequential PR numbers would cluster without scrambling
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        return Math.max(16, capacity);
+    }
+
+    @Override
+    public String toString() {
+        int[] ordered = new int[size];
+        for (int i = 0; i < keys.length; i++) {
+            if (slots[i] != 0) {
+                ordered[slots[i] - 1] = keys[i];
+            }
+        }
+        return Arrays.toString(ordered);
+    }
+}
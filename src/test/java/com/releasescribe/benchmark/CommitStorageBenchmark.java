@@ -0,0 +1,85 @@
+package com.releasescribe.benchmark;
+
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.CommitBatch;
+import com.releasescribe.model.ConventionalCommit;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retained heap per collected commit: one {@link Commit} object per commit, as collectors kept
+ * them before, against a {@link CommitBatch} that drops bodies, reloads them on demand and
+ * deduplicates by hash, as the commit stream keeps GitCollector commits now. The footprint is
+ * reported as the retainedBytesPerCommit counter.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CommitStorage}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CommitStorageBenchmark {
+
+    @Param({"list", "batch"})
+    public String storage;
+
+    @Param({"200000"})
+    public int commits;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long retainedBytesPerCommit;
+    }
+
+    @Benchmark
+    public Object collect(Footprint footprint) {
+        long before = usedHeap();
+        Object stored = "batch".equals(storage) ? collectBatch() : collectList();
+        footprint.retainedBytesPerCommit = (usedHeap() - before) / commits;
+        return stored;
+    }
+
+    private List<Commit> collectList() {
+        List<Commit> list = new ArrayList<>(commits);
+        for (int i = 0; i < commits; i++) {
+            list.add(commit(i));
+        }
+        return list;
+    }
+
+    private CommitBatch collectBatch() {
+        CommitBatch batch = new CommitBatch(hash -> message(0), commits);
+        for (int i = 0; i < commits; i++) {
+            batch.addIfAbsent(commit(i));
+        }
+        return batch;
+    }
+
+    // A conventional commit with a body and a footer, built fresh so no strings are shared
+    private static Commit commit(int i) {
+        Commit commit = new Commit(String.format("%040x", i * 2654435761L), message(i),
+                "author-" + (i % 50), LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i));
+        ConventionalCommit.annotate(commit);
+        return commit;
+    }
+
+    private static String message(int i) {
+        return "fix(component-" + (i % 20) + "): handle empty response number " + i + "\n\n"
+                + "The client retried forever when the server returned an empty body.\n"
+                + "Stop after the configured number of attempts.\n\n"
+                + "Refs: #" + (1000 + i % 500) + "\n";
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,85 @@
+package com.releasescribe.benchmark;
+
+import com.releasescribe.util.IntHashSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dedup of PR numbers as the normalizer does it: every number is added once and a quarter are
+ * added again. Compares {@link IntHashSet} against the boxed {@code HashSet<Integer>} it
+ * replaced, and {@code HashSet<String>} for commit ids on freshly parsed strings, whose hash
+ * codes are not cached yet. Add {@code -prof gc} for bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashSetBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private int[] numbers;
+    private char[][] hashes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        numbers = new int[size + size / 4];
+        hashes = new char[numbers.length][];
+        for (int i = 0; i < size; i++) {
+            numbers[i] = 1 + random.nextInt(Integer.MAX_VALUE - 1);
+            StringBuilder hash = new StringBuilder(40);
+            for (int j = 0; j < 40; j++) {
+                hash.append(Character.forDigit(random.nextInt(16), 16));
+            }
+            hashes[i] = hash.toString().toCharArray();
+        }
+        for (int i = size; i < numbers.length; i++) {
+            numbers[i] = numbers[random.nextInt(size)];
+            hashes[i] = hashes[random.nextInt(size)];
+        }
+    }
+
+    @Benchmark
+    public int intHashSet() {
+        IntHashSet seen = new IntHashSet(size);
+        int added = 0;
+        for (int number : numbers) {
+            if (seen.add(number)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    @Benchmark
+    public int boxedHashSet() {
+        Set<Integer> seen = new HashSet<>();
+        int added = 0;
+        for (int number : numbers) {
+            if (seen.add(number)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    @Benchmark
+    public int commitIdHashSet() {
+        Set<String> seen = new HashSet<>();
+        int added = 0;
+        for (char[] hash : hashes) {
+            if (seen.add(new String(hash))) {
+                added++;
+            }
+        }
+        return added;
+    }
+}
@@ -0,0 +1,91 @@
+package com.releasescribe.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.releasescribe.model.ReleaseNotes;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnthropicReleaseNotesClientTest {
+
+    private static final String NOTES = "{\"customer_highlights_md\": \"- Faster search [#1]\", "
+            + "\"breaking_changes\": [], \"upgrade_steps\": [], "
+            + "\"release_notes_md\": \"### Features\\n- Faster search [#1]\", "
+            + "\"changelog_md\": \"### Changed\\n- Faster search [#1]\"}";
+
+    // Well over the 1024 tokens the default model caches
+    private static final String LONG_SYSTEM_PROMPT = "Write release notes for the changes listed. ".repeat(300);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MockWebServer server;
+    private AnthropicReleaseNotesClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new AnthropicReleaseNotesClient("test-key", server.url("/").toString(), 0.1, 2000, null);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    void marksSystemPromptForCachingAndCountsCacheUsage() throws Exception {
+        server.enqueue(message(NOTES, 120, 2300, 0));
+        server.enqueue(message(NOTES, 130, 0, 2300));
+
+        ReleaseNotes first = client.generateReleaseNotes(LONG_SYSTEM_PROMPT, "first release");
+        client.generateReleaseNotes(LONG_SYSTEM_PROMPT, "second release");
+
+        assertEquals("- Faster search [#1]", first.getCustomerHighlightsMd());
+        for (int i = 0; i < 2; i++) {
+            RecordedRequest request = server.takeRequest();
+            assertEquals("/v1/messages", request.getPath());
+            JsonNode system = objectMapper.readTree(request.getBody().readUtf8()).path("system");
+            assertEquals(1, system.size());
+            assertEquals(LONG_SYSTEM_PROMPT, system.get(0).path("text").asText());
+            assertEquals("ephemeral", system.get(0).path("cache_control").path("type").asText());
+        }
+        assertEquals(250, client.getInputTokens());
+        assertEquals(2300, client.getCacheWriteTokens());
+        assertEquals(2300, client.getCacheReadTokens());
+        assertEquals(100, client.getOutputTokens());
+    }
+
+    @Test
+    void leavesShortSystemPromptUnmarked() throws Exception {
+        server.enqueue(message(NOTES, 120, 0, 0));
+
+        client.generateReleaseNotes("system prompt", "a release");
+
+        JsonNode system = objectMapper.readTree(server.takeRequest().getBody().readUtf8()).path("system");
+        assertFalse(system.get(0).has("cache_control"));
+    }
+
+    private MockResponse message(String text, long inputTokens, long cacheWrite, long cacheRead) {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("id", "msg_test")
+                .put("type", "message")
+                .put("role", "assistant")
+                .put("model", AnthropicReleaseNotesClient.MODEL)
+                .put("stop_reason", "end_turn")
+                .putNull("stop_sequence");
+        body.putArray("content").addObject().put("type", "text").put("text", text);
+        body.putObject("usage")
+                .put("input_tokens", inputTokens)
+                .put("output_tokens", 50)
+                .put("cache_creation_input_tokens", cacheWrite)
+                .put("cache_read_input_tokens", cacheRead);
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body.toString());
+    }
+}
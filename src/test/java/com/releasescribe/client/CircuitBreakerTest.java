@@ -0,0 +1,46 @@
+package com.releasescribe.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    @Test
+    void letsOneTrialThroughAfterCoolDown() {
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ZERO);
+        breaker.recordOverload();
+        assertFalse(breaker.isOpen());
+        breaker.recordOverload();
+        assertTrue(breaker.isOpen());
+
+        // The cool-down has passed: one trial goes out, concurrent calls wait for its outcome
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+
+        // A failed trial reopens at once, without counting up to the threshold again
+        breaker.recordOverload();
+        assertTrue(breaker.isOpen());
+        assertEquals(2, breaker.getOpenCount());
+
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void retriesTrialAfterUnrelatedFailure() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+        breaker.recordOverload();
+
+        assertTrue(breaker.allowRequest());
+        breaker.recordOtherFailure();
+
+        assertTrue(breaker.isOpen());
+        assertTrue(breaker.allowRequest());
+    }
+}
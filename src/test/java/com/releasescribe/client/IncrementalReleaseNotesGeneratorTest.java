@@ -0,0 +1,74 @@
+package com.releasescribe.client;
+
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.prompt.PromptBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalReleaseNotesGeneratorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void withoutManifestNothingIsPatched() {
+        IncrementalReleaseNotesGenerator generator = generator();
+
+        assertNull(generator.generate(pullRequests(1, 4), List.of(), List.of()));
+        assertNull(generator.getLastDelta());
+    }
+
+    @Test
+    void unchangedReleaseReturnsStoredNotes() {
+        IncrementalReleaseNotesGenerator generator = generator();
+        ReleaseNotes notes = new ReleaseNotes("### Added\n- One [#1]", "Notes", "", List.of(), List.of());
+        generator.save(pullRequests(1, 4), List.of(), List.of(), notes);
+
+        ReleaseNotes patched = generator.generate(pullRequests(1, 4), List.of(), List.of());
+
+        assertEquals(notes.getChangelogMd(), patched.getChangelogMd());
+        assertTrue(generator.getLastDelta().isEmpty());
+    }
+
+    @Test
+    void moreThanHalfChangedFallsBackToFullGeneration() {
+        IncrementalReleaseNotesGenerator generator = generator();
+        generator.save(pullRequests(1, 4), List.of(), List.of(), new ReleaseNotes("a", "b", "c", List.of(), List.of()));
+
+        // PRs 1 and 2 removed, 5 to 7 added: five changes against five current PRs
+        List<PullRequest> current = pullRequests(3, 7);
+
+        assertNull(generator.generate(current, List.<Commit>of(), List.of()));
+        assertEquals(5, generator.getLastDelta().size());
+    }
+
+    private IncrementalReleaseNotesGenerator generator() {
+        // No request is sent: every case here is decided before the model would be called
+        AnthropicReleaseNotesClient client = new AnthropicReleaseNotesClient("test-key", "http://127.0.0.1:9", 
+                0.1, 2000, null);
+        return new IncrementalReleaseNotesGenerator(client, new PromptBuilder(), "acme", "app", "v1..v2",
+                directory.resolve("relnotes-manifest.json"));
+    }
+
+    private static List<PullRequest> pullRequests(int first, int last) {
+        List<PullRequest> pullRequests = new ArrayList<>();
+        for (int number = first; number <= last; number++) {
+            PullRequest pr = new PullRequest();
+            pr.setNumber(number);
+            pr.setTitle("Change " + number);
+            pr.setUpdatedAt(LocalDateTime.of(2024, 3, 4, 10, 0));
+            pr.setCategory("feature");
+            pullRequests.add(pr);
+        }
+        return pullRequests;
+    }
+}
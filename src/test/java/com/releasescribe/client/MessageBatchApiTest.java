@@ -0,0 +1,201 @@
+package com.releasescribe.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.releasescribe.model.ReleaseNotes;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageBatchApiTest {
+
+    private static final String NOTES = "{\"customer_highlights_md\": \"- Faster search [#1]\", "
+            + "\"breaking_changes\": [], \"upgrade_steps\": [], "
+            + "\"release_notes_md\": \"### Features\\n- Faster search [#1]\", "
+            + "\"changelog_md\": \"### Changed\\n- Faster search [#1]\"}";
+
+    // Well over the 1024 tokens the default model caches
+    private static final String LONG_SYSTEM_PROMPT = "Write release notes for the changes listed. ".repeat(300);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    void createsRetrievesAndStreamsResults() throws Exception {
+        MessageBatchApi api = new MessageBatchApi("test-key", server.url("/").toString());
+        server.enqueue(json(batch("msgbatch_1", "in_progress")));
+        server.enqueue(json(batch("msgbatch_1", "ended")));
+        server.enqueue(new MockResponse().setBody(succeeded("a", NOTES) + "\n\n" + errored("b") + "\n"));
+
+        ArrayNode requests = objectMapper.createArrayNode();
+        requests.addObject().put("custom_id", "a").putObject("params").put("model", "test-model");
+        assertEquals("msgbatch_1", api.create(requests));
+        assertEquals("ended", api.retrieve("msgbatch_1").path("processing_status").asText());
+        List<String> ids = new ArrayList<>();
+        api.results(server.url("/v1/messages/batches/msgbatch_1/results").toString(),
+                line -> ids.add(line.path("custom_id").asText()));
+
+        RecordedRequest create = server.takeRequest();
+        assertEquals("POST", create.getMethod());
+        assertEquals("/v1/messages/batches", create.getPath());
+        assertEquals("test-key", create.getHeader("x-api-key"));
+        assertEquals("2023-06-01", create.getHeader("anthropic-version"));
+        JsonNode body = objectMapper.readTree(create.getBody().readUtf8());
+        assertEquals("a", body.path("requests").get(0).path("custom_id").asText());
+        RecordedRequest retrieve = server.takeRequest();
+        assertEquals("GET", retrieve.getMethod());
+        assertEquals("/v1/messages/batches/msgbatch_1", retrieve.getPath());
+        // Blank lines between results are skipped
+        assertEquals(List.of("a", "b"), ids);
+    }
+
+    @Test
+    void failedRequestThrowsWithStatus() {
+        MessageBatchApi api = new MessageBatchApi("test-key", server.url("/").toString());
+        server.enqueue(new MockResponse().setResponseCode(529).setBody("{\"type\": \"error\"}"));
+
+        HttpStatusException error = assertThrows(HttpStatusException.class, () -> api.retrieve("msgbatch_1"));
+        assertEquals(529, error.getStatusCode());
+    }
+
+    @Test
+    void clientSubmitsAwaitsAndReadsResults() throws Exception {
+        AnthropicReleaseNotesClient client = new AnthropicReleaseNotesClient("test-key", server.url("/").toString(),
+                0.1, 2000, null);
+        server.enqueue(json(batch("msgbatch_2", "in_progress")));
+        server.enqueue(json(batch("msgbatch_2", "ended")));
+        server.enqueue(json(batch("msgbatch_2", "ended")));
+        server.enqueue(new MockResponse().setBody(succeeded("a", NOTES) + "\n" + errored("b") + "\n"));
+
+        BatchRequest cached = request("a");
+        cached.setSystemPrompt(LONG_SYSTEM_PROMPT);
+        List<BatchRequest> requests = List.of(cached, request("b"));
+        String batchId = client.submitBatch(requests);
+        client.awaitBatch(batchId);
+        Results results = new Results();
+        client.readBatchResults(batchId, requests, results);
+
+        assertEquals("msgbatch_2", batchId);
+        JsonNode batchRequests = objectMapper.readTree(server.takeRequest().getBody().readUtf8()).path("requests");
+        JsonNode params = batchRequests.get(0).path("params");
+        assertEquals("ephemeral", params.path("system").get(0).path("cache_control").path("type").asText());
+        assertEquals("user prompt a", params.path("messages").get(0).path("content").asText());
+        // Too short to be cached, so not marked
+        assertFalse(batchRequests.get(1).path("params").path("system").get(0).has("cache_control"));
+        assertEquals("- Faster search [#1]", results.succeeded.get("a").getCustomerHighlightsMd());
+        assertEquals("errored: overloaded", results.failed.get("b"));
+        assertEquals(100, client.getInputTokens());
+        assertEquals(2000, client.getCacheReadTokens());
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    void resumesBatchByIdWithoutCreatingOne() throws Exception {
+        AnthropicReleaseNotesClient client = new AnthropicReleaseNotesClient("test-key", server.url("/").toString(),
+                0.1, 2000, null);
+        server.enqueue(json(batch("msgbatch_old", "ended")));
+        server.enqueue(json(batch("msgbatch_old", "ended")));
+        server.enqueue(new MockResponse().setBody(succeeded("a", NOTES) + "\n" + succeeded("unknown", NOTES) + "\n"));
+
+        List<BatchRequest> requests = List.of(request("a"));
+        client.awaitBatch("msgbatch_old");
+        Results results = new Results();
+        client.readBatchResults("msgbatch_old", requests, results);
+
+        assertEquals(List.of("a"), new ArrayList<>(results.succeeded.keySet()));
+        for (int i = 0; i < 3; i++) {
+            RecordedRequest recorded = server.takeRequest();
+            assertEquals("GET", recorded.getMethod());
+            assertTrue(recorded.getPath().startsWith("/v1/messages/batches/msgbatch_old"));
+        }
+    }
+
+    @Test
+    void createIsNotSentAgainAfterConnectionFailure() throws Exception {
+        String url = server.url("/").toString();
+        server.shutdown();
+        AnthropicReleaseNotesClient client = new AnthropicReleaseNotesClient("test-key", url, 0.1, 2000, null);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> client.submitBatch(List.of(request("a"))));
+
+        assertTrue(error.getMessage().contains("--batch-id"));
+        assertEquals(1, client.getRetryPolicy().getAttempts());
+        assertEquals(0, client.getRetryPolicy().getRetries());
+    }
+
+    private ObjectNode batch(String id, String status) {
+        ObjectNode batch = objectMapper.createObjectNode()
+                .put("id", id)
+                .put("processing_status", status);
+        batch.putObject("request_counts").put("processing", "ended".equals(status) ? 0 : 2);
+        if ("ended".equals(status)) {
+            batch.put("results_url", server.url("/v1/messages/batches/" + id + "/results").toString());
+        }
+        return batch;
+    }
+
+    private String succeeded(String customId, String text) {
+        ObjectNode line = objectMapper.createObjectNode().put("custom_id", customId);
+        ObjectNode message = line.putObject("result").put("type", "succeeded").putObject("message");
+        message.putArray("content").addObject().put("type", "text").put("text", text);
+        message.putObject("usage")
+                .put("input_tokens", 100)
+                .put("cache_read_input_tokens", 2000)
+                .put("output_tokens", 50);
+        return line.toString();
+    }
+
+    private String errored(String customId) {
+        ObjectNode line = objectMapper.createObjectNode().put("custom_id", customId);
+        line.putObject("result").put("type", "errored")
+                .putObject("error").putObject("error").put("message", "overloaded");
+        return line.toString();
+    }
+
+    private static BatchRequest request(String customId) {
+        return new BatchRequest(customId, "acme", "app", "v1.0.0..v1.1.0", "out/" + customId,
+                "system prompt", "user prompt " + customId);
+    }
+
+    private static MockResponse json(JsonNode body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body.toString());
+    }
+
+    private static class Results implements BatchResultListener {
+        final Map<String, ReleaseNotes> succeeded = new LinkedHashMap<>();
+        final Map<String, String> failed = new LinkedHashMap<>();
+
+        @Override
+        public void succeeded(BatchRequest request, ReleaseNotes releaseNotes) {
+            succeeded.put(request.getCustomId(), releaseNotes);
+        }
+
+        @Override
+        public void failed(BatchRequest request, String reason) {
+            failed.put(request.getCustomId(), reason);
+        }
+    }
+}
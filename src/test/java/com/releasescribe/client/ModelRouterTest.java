@@ -0,0 +1,101 @@
+package com.releasescribe.client;
+
+import com.releasescribe.config.ReleaseScribeConfig;
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.PullRequest;
+import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.model.Trailers;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelRouterTest {
+
+    @Test
+    void routesToFirstTierThatFits() {
+        ModelRouter router = router(List.of("dev"));
+
+        assertEquals(0, router.route(10000, false));
+        assertEquals(1, router.route(30000, false));
+        assertEquals(1, router.route(10000, true));
+        // No tier accepts this size; the last one takes it
+        assertEquals(2, router.route(500000, false));
+    }
+
+    @Test
+    void routesPastTiersMissingAnAudience() {
+        ModelRouter router = router(List.of("dev", "customer"));
+
+        assertEquals(1, router.route(10000, false));
+    }
+
+    @Test
+    void acceptsReferencesFromLinkedIssuesTrailersAndBodies() {
+        ModelRouter router = router(List.of("dev"));
+        PullRequest pr = pullRequest(12);
+        pr.setLinkedIssues(List.of("#34", "acme/other#56", "PROJ-7"));
+        pr.setBody("Migrates the config loader.\n\nFixes #456");
+        Commit commit = new Commit("abc1234", "fix: retry uploads", "dev", LocalDateTime.of(2024, 3, 4, 10, 0));
+        commit.setTrailers(Trailers.parse("Refs #78"));
+        ReleaseNotes notes = notes("- Retry uploads [#12] (#34, #78)\n- Loader migration (#456)");
+
+        assertNull(router.validate(notes, false, List.of(pr), List.of(commit), List.of()));
+    }
+
+    @Test
+    void rejectsReferencesNotInTheInput() {
+        ModelRouter router = router(List.of("dev"));
+        ReleaseNotes notes = notes("- Retry uploads [#12] (#99)");
+
+        assertEquals("references numbers not in the input: #99",
+                router.validate(notes, false, List.of(pullRequest(12)), List.of(), List.of()));
+    }
+
+    @Test
+    void rejectsMissingBreakingChangesAndHighlights() {
+        ReleaseNotes notes = notes("- Retry uploads [#12]");
+
+        assertEquals("lists no breaking changes although the input has some",
+                router(List.of("dev")).validate(notes, true, List.of(pullRequest(12)), List.of(), List.of()));
+
+        notes.setCustomerHighlightsMd("");
+        assertEquals("is missing the customer highlights",
+                router(List.of("dev", "customer")).validate(notes, false, List.of(pullRequest(12)), List.of(), List.of()));
+    }
+
+    private static ModelRouter router(List<String> audiences) {
+        ReleaseScribeConfig.Routing routing = new ReleaseScribeConfig.Routing();
+        routing.setTiers(List.of(
+                tier("small", 20000, false, List.of("dev")),
+                tier("medium", 100000, true, null),
+                tier("large", 0, true, null)));
+        // No request is sent: route and validate never call the model
+        AnthropicReleaseNotesClient client = new AnthropicReleaseNotesClient("test-key", "http://127.0.0.1:9",
+                0.1, 2000, null);
+        return new ModelRouter(client, routing, audiences);
+    }
+
+    private static ReleaseScribeConfig.Tier tier(String name, int maxInputTokens, boolean breakingChanges,
+                                                 List<String> audiences) {
+        ReleaseScribeConfig.Tier tier = new ReleaseScribeConfig.Tier();
+        tier.setName(name);
+        tier.setMaxInputTokens(maxInputTokens);
+        tier.setBreakingChanges(breakingChanges);
+        tier.setAudiences(audiences);
+        return tier;
+    }
+
+    private static PullRequest pullRequest(int number) {
+        PullRequest pr = new PullRequest();
+        pr.setNumber(number);
+        pr.setTitle("Retry uploads");
+        return pr;
+    }
+
+    private static ReleaseNotes notes(String changelog) {
+        return new ReleaseNotes(changelog, "Notes " + changelog, "Highlights", List.of(), List.of());
+    }
+}
@@ -0,0 +1,35 @@
+package com.releasescribe.client;
+
+import com.releasescribe.config.ReleaseScribeConfig;
+import com.releasescribe.model.ReleaseNotesField;
+import com.releasescribe.prompt.PromptBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptCachingTest {
+
+    @Test
+    void onlyPromptsOverTheModelMinimumAreMarked() {
+        String prompt = "Write release notes for the changes listed. ".repeat(150);
+
+        assertTrue(AnthropicReleaseNotesClient.isCacheable("claude-sonnet-4-20250514", prompt));
+        assertFalse(AnthropicReleaseNotesClient.isCacheable("claude-3-5-haiku-20241022", prompt));
+        assertTrue(AnthropicReleaseNotesClient.isCacheable("claude-3-5-haiku-20241022", prompt + prompt));
+    }
+
+    @Test
+    void defaultPromptsAreTooShortToCache() {
+        PromptBuilder builder = new PromptBuilder();
+        ReleaseScribeConfig.Prompt style = new ReleaseScribeConfig.Prompt();
+
+        assertFalse(AnthropicReleaseNotesClient.isCacheable(AnthropicReleaseNotesClient.MODEL,
+                builder.buildSystemPrompt(Map.of())));
+        assertFalse(AnthropicReleaseNotesClient.isCacheable(AnthropicReleaseNotesClient.MODEL,
+                builder.buildArtifactSystemPrompt(ReleaseNotesField.CHANGELOG_MD, "dev", style, Map.of())));
+        assertFalse(AnthropicReleaseNotesClient.isCacheable(AnthropicReleaseNotesClient.MODEL,
+                builder.buildPatchSystemPrompt()));
+    }
+}
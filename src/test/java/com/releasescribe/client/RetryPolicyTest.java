@@ -0,0 +1,98 @@
+package com.releasescribe.client;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import okhttp3.Headers;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    @Test
+    void classifiesStatusCodes() {
+        assertEquals(RetryPolicy.Reason.RATE_LIMITED, RetryPolicy.classify(status(429)));
+        assertEquals(RetryPolicy.Reason.OVERLOADED, RetryPolicy.classify(status(529)));
+        assertEquals(RetryPolicy.Reason.SERVER_ERROR, RetryPolicy.classify(status(408)));
+        assertEquals(RetryPolicy.Reason.SERVER_ERROR, RetryPolicy.classify(status(409)));
+        assertEquals(RetryPolicy.Reason.SERVER_ERROR, RetryPolicy.classify(status(500)));
+        assertEquals(RetryPolicy.Reason.SERVER_ERROR, RetryPolicy.classify(status(503)));
+        assertNull(RetryPolicy.classify(status(400)));
+        assertNull(RetryPolicy.classify(status(401)));
+        assertNull(RetryPolicy.classify(status(404)));
+    }
+
+    @Test
+    void classifiesNetworkAndParseFailures() {
+        assertEquals(RetryPolicy.Reason.NETWORK,
+                RetryPolicy.classify(new UncheckedIOException(new SocketTimeoutException("read timed out"))));
+        // A JSON error is an IOException too, but retrying the same bytes cannot fix it
+        assertNull(RetryPolicy.classify(new RuntimeException(new JsonParseException(null, "Unexpected character"))));
+        assertEquals(RetryPolicy.Reason.MALFORMED_OUTPUT, RetryPolicy.classify(
+                new RuntimeException(new RetryPolicy.MalformedOutputException("not JSON", "text", null))));
+        assertNull(RetryPolicy.classify(new IllegalArgumentException("bad input")));
+    }
+
+    @Test
+    void parsesRetryAfterMillisecondsSecondsAndDates() {
+        assertEquals(Duration.ofMillis(1500), RetryPolicy.parseRetryAfter("1500", "9"));
+        assertEquals(Duration.ofSeconds(9), RetryPolicy.parseRetryAfter(null, "9"));
+        assertEquals(Duration.ofMillis(2500), RetryPolicy.parseRetryAfter(null, "2.5"));
+
+        String inTenSeconds = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusSeconds(10));
+        Duration untilDate = RetryPolicy.parseRetryAfter(null, inTenSeconds);
+        assertTrue(untilDate.compareTo(Duration.ofSeconds(8)) > 0 && untilDate.compareTo(Duration.ofSeconds(10)) <= 0,
+                "waited " + untilDate);
+
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().minusMinutes(1));
+        assertEquals(Duration.ZERO, RetryPolicy.parseRetryAfter(null, past));
+        assertNull(RetryPolicy.parseRetryAfter(null, "soon"));
+        assertNull(RetryPolicy.parseRetryAfter(null, null));
+    }
+
+    @Test
+    void retriesServerErrorsButNotClientErrors() {
+        RetryPolicy policy = policy(new CircuitBreaker(5, Duration.ofSeconds(30)));
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = policy.execute("call", 3, () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new UncheckedIOException(status(503));
+            }
+            return "ok";
+        });
+        assertEquals("ok", result);
+        assertEquals(2, policy.getAttempts());
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> policy.execute("call", 3, () -> {
+            throw new UncheckedIOException(status(400));
+        }));
+        assertEquals(400, ((HttpStatusException) error.getCause()).getStatusCode());
+        assertEquals(3, policy.getAttempts());
+    }
+
+    @Test
+    void openCircuitBreakerRejectsCallsUntilCoolDown() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMinutes(1));
+        RetryPolicy policy = policy(breaker);
+        breaker.recordOverload();
+
+        assertThrows(IllegalStateException.class, () -> policy.execute("call", 3, () -> "ok"));
+        assertEquals(1, policy.getRejectedCalls());
+        assertEquals(0, policy.getAttempts());
+    }
+
+    private static RetryPolicy policy(CircuitBreaker breaker) {
+        return new RetryPolicy(Duration.ZERO, Duration.ZERO, Duration.ofMinutes(2), breaker);
+    }
+
+    private static HttpStatusException status(int code) {
+        return new HttpStatusException(code, Headers.of(), "HTTP " + code);
+    }
+}
@@ -0,0 +1,90 @@
+package com.releasescribe.client;
+
+import com.releasescribe.model.ReleaseNotes;
+import com.releasescribe.model.ReleaseNotesField;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingReleaseNotesParserTest {
+
+    private static final String RESPONSE = "{\"customer_highlights_md\": \"Caf\\u00e9 mode \u00e9t\u00e9 \uD83D\uDE80\","
+            + " \"breaking_changes\": [\"Drop \\\"legacy\\\" flag\", \"Path C:\\\\tmp\"],"
+            + " \"upgrade_steps\": [],"
+            + " \"model_notes\": {\"ignored\": [1, 2]},"
+            + " \"release_notes_md\": \"Line one\\nLine two\","
+            + " \"changelog_md\": \"### Added\\n- Rockets \uD83D\uDE80 [#12]\"}";
+
+    @Test
+    void parsesEveryChunkBoundary() {
+        ReleaseNotes expected = parse(List.of(RESPONSE), new ArrayList<>());
+        assertEquals("Caf\u00e9 mode \u00e9t\u00e9 \uD83D\uDE80", expected.getCustomerHighlightsMd());
+        assertEquals(List.of("Drop \"legacy\" flag", "Path C:\\tmp"), expected.getBreakingChanges());
+        assertEquals("Line one\nLine two", expected.getReleaseNotesMd());
+
+        // Splits inside escapes, inside "\\u00e9", and between the two halves of the emoji
+        for (int split = 1; split < RESPONSE.length(); split++) {
+            List<ReleaseNotesField> fields = new ArrayList<>();
+            ReleaseNotes notes = parse(List.of(RESPONSE.substring(0, split), RESPONSE.substring(split)), fields);
+
+            assertNotNull(notes, "split at " + split);
+            assertEquals(expected.getCustomerHighlightsMd(), notes.getCustomerHighlightsMd(), "split at " + split);
+            assertEquals(expected.getBreakingChanges(), notes.getBreakingChanges(), "split at " + split);
+            assertEquals(expected.getReleaseNotesMd(), notes.getReleaseNotesMd(), "split at " + split);
+            assertEquals(expected.getChangelogMd(), notes.getChangelogMd(), "split at " + split);
+            assertEquals(List.of(ReleaseNotesField.values()), fields, "split at " + split);
+        }
+    }
+
+    @Test
+    void parsesOneCharacterAtATime() {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < RESPONSE.length(); i++) {
+            chunks.add(RESPONSE.substring(i, i + 1));
+        }
+
+        ReleaseNotes notes = parse(chunks, new ArrayList<>());
+
+        assertEquals("### Added\n- Rockets \uD83D\uDE80 [#12]", notes.getChangelogMd());
+    }
+
+    @Test
+    void skipsFencedPrefixAndSuffix() {
+        List<ReleaseNotesField> fields = new ArrayList<>();
+        ReleaseNotes notes = parse(List.of("Here are the notes:\n```", "json\n{\"changelog_md\": ",
+                "\"- Fix\"}\n```\nAnything else"), fields);
+
+        assertEquals("- Fix", notes.getChangelogMd());
+        // Fields the response left out read as empty
+        assertEquals("", notes.getReleaseNotesMd());
+        assertEquals(List.of(), notes.getUpgradeSteps());
+        assertEquals(List.of(ReleaseNotesField.CHANGELOG_MD), fields);
+    }
+
+    @Test
+    void partialResponseFinishesWithNull() {
+        List<ReleaseNotesField> fields = new ArrayList<>();
+
+        assertNull(parse(List.of("{\"customer_highlights_md\": \"Ready\", \"changelog_md\": \"- Fi"), fields));
+        // Fields closed before the cut were still reported
+        assertEquals(List.of(ReleaseNotesField.CUSTOMER_HIGHLIGHTS_MD), fields);
+    }
+
+    @Test
+    void invalidJsonFinishesWithNull() {
+        assertNull(parse(List.of("{\"changelog_md\": \"- Fix\",, }"), new ArrayList<>()));
+        assertNull(parse(List.of("{\"changelog_md\": tru", "x}"), new ArrayList<>()));
+        assertNull(parse(List.of("No JSON here"), new ArrayList<>()));
+    }
+
+    private static ReleaseNotes parse(List<String> chunks, List<ReleaseNotesField> fields) {
+        StreamingReleaseNotesParser parser = new StreamingReleaseNotesParser((field, notes) -> fields.add(field));
+        for (String chunk : chunks) {
+            parser.feed(chunk);
+        }
+        return parser.finish();
+    }
+}
@@ -0,0 +1,95 @@
+package com.releasescribe.collector;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagePublisherTest {
+
+    @Test
+    void sharedSubscribersSeeEveryPageFetchedOnce() throws Exception {
+        AtomicInteger opened = new AtomicInteger();
+        AtomicInteger fetched = new AtomicInteger();
+        PagePublisher<Integer> publisher = new PagePublisher<>("test-pages", () -> {
+            opened.incrementAndGet();
+            return () -> fetched.get() < 10 ? List.of(fetched.incrementAndGet()) : null;
+        }, 2);
+        publisher.expectSubscriber();
+
+        SubscribedPageSource<Integer> shared = new SubscribedPageSource<>(publisher);
+        CollectingSubscriber direct = new CollectingSubscriber();
+        publisher.subscribe(direct);
+
+        List<Integer> viaSource = new ArrayList<>();
+        List<Integer> page;
+        while ((page = shared.nextPage()) != null) {
+            viaSource.addAll(page);
+        }
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), viaSource);
+        assertEquals(viaSource, direct.done.get(5, TimeUnit.SECONDS));
+        assertEquals(1, opened.get());
+        assertEquals(10, fetched.get());
+    }
+
+    @Test
+    void rejectsSubscribersBeyondTheExpectedCount() throws Exception {
+        PagePublisher<Integer> publisher = new PagePublisher<>("test-pages", () -> () -> null, 1);
+        CollectingSubscriber first = new CollectingSubscriber();
+        CollectingSubscriber second = new CollectingSubscriber();
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+
+        assertEquals(List.of(), first.done.get(5, TimeUnit.SECONDS));
+        assertTrue(second.done.isCompletedExceptionally());
+        assertThrows(IllegalStateException.class, publisher::expectSubscriber);
+    }
+
+    @Test
+    void sourceRethrowsTheProducerFailure() {
+        PagePublisher<Integer> publisher = new PagePublisher<>("test-pages", () -> () -> {
+            throw new IOException("HTTP 502");
+        }, 1);
+        SubscribedPageSource<Integer> source = new SubscribedPageSource<>(publisher);
+
+        Exception error = assertThrows(IOException.class, source::nextPage);
+        assertEquals("HTTP 502", error.getMessage());
+    }
+
+    private static class CollectingSubscriber implements Flow.Subscriber<List<Integer>> {
+
+        final List<Integer> items = new ArrayList<>();
+        final CompletableFuture<List<Integer>> done = new CompletableFuture<>();
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<Integer> page) {
+            items.addAll(page);
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(items);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.releasescribe.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitBatchTest {
+
+    private static final String HASH = "0123456789abcdef0123456789abcdef01234567";
+    private static final String MESSAGE = "feat(api): add pagination\n\nLonger body.\n\nBREAKING CHANGE: page size is required\nRefs: #12";
+
+    @Test
+    void roundTripsEveryColumn() {
+        CommitBatch batch = new CommitBatch();
+        Commit commit = commit();
+        batch.add(commit);
+
+        Commit view = batch.get(0);
+        assertEquals(HASH, view.getHash());
+        assertEquals(MESSAGE, view.getMessage());
+        assertEquals("alice", view.getAuthor());
+        assertEquals(commit.getDate(), view.getDate());
+        assertEquals("feat", view.getType());
+        assertEquals("api", view.getScope());
+        assertEquals("add pagination", view.getSubject());
+        assertTrue(view.isBreakingChange());
+        assertEquals(commit, view);
+    }
+
+    @Test
+    void settersWriteBackIntoTheColumns() {
+        CommitBatch batch = new CommitBatch();
+        batch.add(commit());
+
+        batch.get(0).setCategory("feature");
+        batch.get(0).setComponent("api");
+
+        assertEquals("feature", batch.get(0).getCategory());
+        assertEquals("api", batch.get(0).getComponent());
+    }
+
+    @Test
+    void reloadsDroppedBodiesAndParsesTrailersOnce() {
+        List<String> loads = new ArrayList<>();
+        CommitBatch batch = new CommitBatch(hash -> {
+            loads.add(hash);
+            return MESSAGE;
+        });
+        batch.add(commit());
+        Commit view = batch.get(0);
+
+        // The header is kept, so the subject needs no reload
+        assertEquals("add pagination", view.getSubject());
+        assertTrue(loads.isEmpty());
+
+        assertEquals("page size is required", view.getTrailers().getBreakingChange());
+        assertEquals("page size is required", view.getTrailers().getBreakingChange());
+        assertEquals("page size is required", batch.get(0).getTrailers().getBreakingChange());
+        assertEquals(List.of(HASH), loads);
+    }
+
+    @Test
+    void keepsHeaderOnlyMessagesWithoutALoader() {
+        List<String> loads = new ArrayList<>();
+        CommitBatch batch = new CommitBatch(hash -> {
+            loads.add(hash);
+            return null;
+        });
+        Commit commit = commit();
+        commit.setMessage("fix: typo");
+        batch.add(commit);
+
+        assertEquals("fix: typo", batch.get(0).getMessage());
+        assertTrue(loads.isEmpty());
+    }
+
+    @Test
+    void addIfAbsentSkipsCopiesByHash() {
+        CommitBatch batch = new CommitBatch();
+        // Enough rows to rebuild the hash index a few times
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, batch.addIfAbsent(commit(String.format("%040x", i))));
+        }
+        assertEquals(100, batch.addIfAbsent(commit("abc123")));
+
+        assertEquals(-1, batch.addIfAbsent(commit(String.format("%040x", 42))));
+        assertEquals(-1, batch.addIfAbsent(commit("abc123")));
+        assertEquals(101, batch.size());
+        assertEquals(42, batch.indexOf(String.format("%040x", 42)));
+        assertEquals(-1, batch.indexOf(HASH));
+    }
+
+    @Test
+    void indexFollowsRewrittenHashes() {
+        CommitBatch batch = new CommitBatch();
+        batch.addIfAbsent(commit());
+
+        batch.get(0).setHash("fedcba9876543210fedcba9876543210fedcba98");
+
+        assertEquals(-1, batch.indexOf(HASH));
+        assertEquals(0, batch.indexOf("fedcba9876543210fedcba9876543210fedcba98"));
+    }
+
+    private static Commit commit(String hash) {
+        Commit commit = commit();
+        commit.setHash(hash);
+        return commit;
+    }
+
+    private static Commit commit() {
+        Commit commit = new Commit(HASH, MESSAGE, "alice", LocalDateTime.of(2024, 5, 1, 12, 30));
+        ConventionalCommit.annotate(commit);
+        return commit;
+    }
+}
@@ -0,0 +1,75 @@
+package com.releasescribe.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReleaseManifestTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 3, 4, 10, 0);
+
+    @Test
+    void diffFindsAddedChangedAndRemovedItems() {
+        ReleaseManifest manifest = new ReleaseManifest("v1..v2",
+                List.of(pr(1, "Add export", MONDAY), pr(2, "Fix login", MONDAY), pr(3, "Drop Java 8", MONDAY)),
+                List.of(commit("aaaaaaa1"), commit("bbbbbbb2")), List.of(), notes());
+
+        ReleaseDelta delta = manifest.diff(
+                List.of(pr(1, "Add export", MONDAY), pr(2, "Fix login", MONDAY.plusHours(1)), pr(4, "Add search", MONDAY)),
+                List.of(commit("aaaaaaa1"), commit("ccccccc3")), List.of());
+
+        assertEquals(List.of(4), numbers(delta.getAddedPullRequests()));
+        assertEquals(List.of(2), numbers(delta.getChangedPullRequests()));
+        assertEquals("Drop Java 8", delta.getRemovedPullRequests().get(3));
+        assertEquals("ccccccc3", delta.getAddedCommits().get(0).getHash());
+        assertEquals(List.of("bbbbbbb2"), delta.getRemovedCommits());
+        assertEquals(5, delta.size());
+    }
+
+    @Test
+    void titleVersionsAreComparedByTitleAgainstUpdatedAt() {
+        // Written by a run that did not collect updated_at
+        ReleaseManifest manifest = new ReleaseManifest("v1..v2",
+                List.of(pr(1, "Add export", null), pr(2, "Fix login", null)), List.of(), List.of(), notes());
+
+        ReleaseDelta delta = manifest.diff(List.of(pr(1, "Add export", MONDAY), pr(2, "Fix login flow", MONDAY)),
+                List.of(), List.of());
+
+        assertEquals(List.of(2), numbers(delta.getChangedPullRequests()));
+        assertEquals(1, delta.size());
+    }
+
+    @Test
+    void unchangedInputsGiveAnEmptyDelta() {
+        List<PullRequest> pullRequests = List.of(pr(1, "Add export", MONDAY), pr(2, "Fix login", null));
+        ReleaseManifest manifest = new ReleaseManifest("v1..v2", pullRequests, List.of(commit("aaaaaaa1")),
+                List.of(), notes());
+
+        assertTrue(manifest.diff(pullRequests, List.of(commit("aaaaaaa1")), List.of()).isEmpty());
+        assertEquals(3, manifest.size());
+    }
+
+    static PullRequest pr(int number, String title, LocalDateTime updatedAt) {
+        PullRequest pr = new PullRequest();
+        pr.setNumber(number);
+        pr.setTitle(title);
+        pr.setUpdatedAt(updatedAt);
+        pr.setCategory("feature");
+        return pr;
+    }
+
+    static Commit commit(String hash) {
+        return new Commit(hash, "chore: " + hash, "dev", MONDAY);
+    }
+
+    static ReleaseNotes notes() {
+        return new ReleaseNotes("### Added\n- Export [#1]", "Notes", "- Export [#1]", List.of(), List.of());
+    }
+
+    private static List<Integer> numbers(List<PullRequest> pullRequests) {
+        return pullRequests.stream().map(PullRequest::getNumber).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package com.releasescribe.normalizer;
+
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.ConventionalCommit;
+import com.releasescribe.model.PullRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalCommitSorterTest {
+
+    @Test
+    void coveredCommitsTakeNoShareOfTheSample() {
+        // Newest commits sort first within a group, so the covered ones would win the sample
+        List<Commit> commits = new ArrayList<>();
+        PullRequest pr = new PullRequest();
+        pr.setNumber(7);
+        pr.setCommitHashes(new ArrayList<>());
+        for (int i = 0; i < 400; i++) {
+            Commit commit = commit(i);
+            commits.add(commit);
+            if (i >= 200) {
+                pr.getCommitHashes().add(commit.getHash());
+            }
+        }
+        Predicate<Commit> covered = new CommitReconciler().coveredBy(List.of(pr));
+
+        ExternalCommitSorter sorter = new ExternalCommitSorter(4 * 1024, 2 * 1024);
+        commits.forEach(sorter::add);
+        List<Commit> retained = sorter.finish(covered);
+
+        assertTrue(sorter.getRunCount() > 1);
+        assertFalse(retained.isEmpty());
+        assertTrue(retained.stream().noneMatch(covered));
+        // Only orphan commits count as left out
+        assertEquals(200, retained.size() + sorter.getOmittedCommits());
+    }
+
+    @Test
+    void unspilledCommitsAreReturnedInArrivalOrder() {
+        ExternalCommitSorter sorter = new ExternalCommitSorter(1024 * 1024, 1024 * 1024);
+        sorter.add(commit(1));
+        sorter.add(commit(2));
+        sorter.add(commit(1));
+
+        List<Commit> retained = sorter.finish(commit -> false);
+
+        assertEquals(0, sorter.getRunCount());
+        assertEquals(2, retained.size());
+        assertEquals(commit(1).getHash(), retained.get(0).getHash());
+    }
+
+    private static Commit commit(int i) {
+        Commit commit = new Commit(String.format("%040x", i), "fix(api): change number " + i,
+                "alice", LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i));
+        ConventionalCommit.annotate(commit);
+        commit.setCategory("fix");
+        commit.setComponent("api");
+        return commit;
+    }
+}
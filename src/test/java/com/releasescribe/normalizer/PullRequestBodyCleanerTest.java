@@ -0,0 +1,63 @@
+package com.releasescribe.normalizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PullRequestBodyCleanerTest {
+
+    private static final String TEMPLATE_LINE = "Please describe your change below.";
+
+    @Test
+    void learnsTemplateLinesOnlyWithEnoughSupport() {
+        PullRequestBodyCleaner cleaner = new PullRequestBodyCleaner();
+        cleaner.learn(bodies(3));
+
+        // Three bodies sharing a line are not enough to call it template text
+        assertTrue(cleaner.clean(body(99)).contains(TEMPLATE_LINE));
+
+        cleaner.learn(bodies(10));
+        String cleaned = cleaner.clean(body(99));
+        assertFalse(cleaned.contains(TEMPLATE_LINE));
+        assertTrue(cleaned.contains("Change number 99"));
+    }
+
+    @Test
+    void capsTheCombinedExcerpt() {
+        StringBuilder body = new StringBuilder();
+        for (String heading : List.of("Breaking changes", "Migration", "Upgrade notes", "Summary")) {
+            body.append("## ").append(heading).append('\n');
+            for (int line = 0; line < 40; line++) {
+                body.append(heading).append(" detail line ").append(line).append('\n');
+            }
+            body.append('\n');
+        }
+
+        String cleaned = new PullRequestBodyCleaner().clean(body.toString());
+
+        assertTrue(cleaned.length() <= 2000, "cleaned body has " + cleaned.length() + " chars");
+        assertTrue(cleaned.startsWith("Breaking changes\n"));
+    }
+
+    @Test
+    void keepsShortBodiesWhole() {
+        String cleaned = new PullRequestBodyCleaner().clean("Fixes the retry loop.\n\n<!-- template hint -->");
+
+        assertEquals("Fixes the retry loop.", cleaned);
+    }
+
+    private static List<String> bodies(int count) {
+        List<String> bodies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            bodies.add(body(i));
+        }
+        return bodies;
+    }
+
+    private static String body(int number) {
+        return TEMPLATE_LINE + "\n\nChange number " + number + " fixes a bug.";
+    }
+}
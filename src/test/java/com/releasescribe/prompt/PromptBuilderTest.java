@@ -0,0 +1,59 @@
+package com.releasescribe.prompt;
+
+import com.releasescribe.config.ReleaseScribeConfig;
+import com.releasescribe.model.Commit;
+import com.releasescribe.model.PullRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptBuilderTest {
+
+    @Test
+    void systemPromptDoesNotDependOnTheRelease() {
+        PromptBuilder builder = new PromptBuilder();
+        assertEquals(builder.buildSystemPrompt(Map.of()), new PromptBuilder(null, List.of("customer"))
+                .buildSystemPrompt(Map.of()));
+    }
+
+    @Test
+    void fullDataEstimateIsNotCappedByTheLimits() {
+        List<PullRequest> pullRequests = new ArrayList<>();
+        for (int number = 1; number <= 500; number++) {
+            PullRequest pr = new PullRequest();
+            pr.setNumber(number);
+            pr.setTitle("Improve caching of repository metadata in the collector, part " + number);
+            pr.setCategory("feature");
+            pullRequests.add(pr);
+        }
+        ReleaseScribeConfig.Limits limits = new ReleaseScribeConfig.Limits();
+        limits.setMaxTokens(2000);
+        limits.setMaxPrs(200);
+        PromptBuilder limited = new PromptBuilder(limits);
+
+        String prompt = limited.buildUserPrompt("acme", "app", "v1..v2", pullRequests, List.of());
+        int full = limited.estimateFullDataTokens(pullRequests, List.of(), List.of());
+
+        assertTrue(TokenEstimator.estimate(prompt) < 4000);
+        assertTrue(full > 5 * 2000);
+        assertEquals(full, new PromptBuilder().estimateFullDataTokens(pullRequests, List.of(), List.of()));
+    }
+
+    @Test
+    void commitRefsKeepSevenCharactersAndGrowOnlyToStayUnique() {
+        List<Commit> commits = List.of(
+                new Commit("9000123456789abcdef0123456789abcdef01234", "Tidy build", "dev", null),
+                new Commit("a1b6c0ffee0000000000000000000000000000aa", "Bump wrapper", "dev", null),
+                new Commit("a1b6c0ffee1111111111111111111111111111bb", "Fix typo", "dev", null));
+
+        String prompt = new PromptBuilder().buildUserPrompt("acme", "app", "v1..v2", List.of(), commits);
+
+        assertTrue(prompt.contains("9000123\t"));
+        assertTrue(prompt.contains("a1b6c0ffee0\t"));
+        assertTrue(prompt.contains("a1b6c0ffee1\t"));
+    }
+}
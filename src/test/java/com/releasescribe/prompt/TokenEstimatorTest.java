@@ -0,0 +1,55 @@
+package com.releasescribe.prompt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenEstimatorTest {
+
+    @Test
+    void countsWordPiecesDigitGroupsAndPunctuation() {
+        assertEquals(1, TokenEstimator.count("fix", 0, 3));
+        // 13 letters are three pieces of up to five
+        assertEquals(3, TokenEstimator.count("configuration", 0, 13));
+        assertEquals(2, TokenEstimator.count("12345", 0, 5));
+        // Single spaces are absorbed, punctuation costs one each
+        assertEquals(4, TokenEstimator.count("a b, c", 0, 6));
+        assertEquals(2, TokenEstimator.count("日本", 0, 2));
+    }
+
+    @Test
+    void padsAndRoundsUp() {
+        assertEquals(0, TokenEstimator.estimate(null));
+        assertEquals(0, TokenEstimator.estimate(""));
+        assertEquals(11, TokenEstimator.withMargin(10));
+        assertEquals(2, TokenEstimator.withMargin(1));
+    }
+
+    @Test
+    void estimatesARangeLikeTheSubstring() {
+        String line = "- feat(api): add cursor pagination (#1234) by @alice";
+        assertEquals(TokenEstimator.estimate(line.substring(2, 30)), TokenEstimator.estimate(line, 2, 30));
+    }
+
+    @Test
+    void neverGoesBelowFourCharactersPerTokenOnReleaseNoteLines() {
+        List<String> lines = List.of(
+                "- feat(api): add cursor pagination to the list endpoints (#1234) by @alice",
+                "- fix(auth): refresh expired tokens before retrying the request (#988)",
+                "Upgrade guide: the `pageSize` parameter is now required on every call.",
+                "- build(deps): bump com.fasterxml.jackson.core:jackson-databind from 2.15.2 to 2.16.1",
+                "## Breaking Changes\n\nThe v1 endpoints were removed; migrate to /v2 before upgrading.");
+        for (String line : lines) {
+            assertTrue(TokenEstimator.estimate(line) >= line.length() / 4, line);
+        }
+    }
+
+    @Test
+    void chargesHashesMoreThanWordsOfTheSameLength() {
+        String hash = "9fceb02d0ae598e95dc970b74767f19372d61af8";
+        String word = "abcdefghijklmnopqrstuvwxyzabcdefghijklmn";
+        assertTrue(TokenEstimator.estimate(hash) > TokenEstimator.estimate(word));
+    }
+}